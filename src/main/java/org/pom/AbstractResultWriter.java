@@ -0,0 +1,140 @@
+package org.pom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes the results of a transport system one row per computed tick, while the ticks are computed; the columns
+ * are those of {@link ResultColumns}.
+ * <p>
+ * The real and belt output flows of a bunker at a tick are completed only by the next tick, so the row of a tick
+ * is written when the next tick is received, and the row of the last tick when the writer is closed. Nothing but
+ * the row being written is held in memory, however long the run. Only the columns and the taus of a
+ * {@link ResultSelection} are written; if the selection has buckets, a row per bucket is written instead of a row
+ * per tick, see {@link ResultBuckets}.
+ */
+public abstract class AbstractResultWriter implements TickListener, AutoCloseable {
+    private final ResultSelection selection;
+    private final ResultColumns columns;
+    private final double[] values;
+    private final boolean[] present;
+    private final ResultBuckets buckets;
+    private final List<String> headers;
+    private final double[] bucketValues;
+    private final boolean[] bucketPresent;
+    private double pendingTau = Double.NaN;
+
+    /**
+     * The columns are chosen from the conveyors as they are now.
+     *
+     * @param conveyors the conveyors of the transport system.
+     */
+    protected AbstractResultWriter(List<Conveyor> conveyors) {
+        this(conveyors, ResultSelection.ALL);
+    }
+
+    /**
+     * The columns are chosen from the conveyors as they are now.
+     *
+     * @param conveyors the conveyors of the transport system.
+     * @param selection the selection of the columns and the taus written.
+     */
+    protected AbstractResultWriter(List<Conveyor> conveyors, ResultSelection selection) {
+        this.selection = selection;
+        this.columns = new ResultColumns(conveyors, selection);
+        this.values = new double[columns.size()];
+        this.present = new boolean[columns.size()];
+        this.buckets = selection.isBucketed() ? new ResultBuckets(selection.getBucketTau(), columns.size()) : null;
+        this.headers = Objects.isNull(buckets) ? columns.getHeaders() : ResultBuckets.getHeaders(columns.getHeaders());
+        this.bucketValues = Objects.isNull(buckets) ? null : new double[buckets.size()];
+        this.bucketPresent = Objects.isNull(buckets) ? null : new boolean[buckets.size()];
+    }
+
+    /**
+     * @return the headers of the written columns, the first one is the tau.
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public ResultSelection getSelection() {
+        return selection;
+    }
+
+    /**
+     * Writes the row of the previous tick and keeps {@code tau} until the next tick or {@link #close()}, if it is
+     * in the tau window of the selection.
+     *
+     * @throws UncheckedIOException if the results cannot be written.
+     */
+    @Override
+    public void onTick(double tau, List<Conveyor> conveyors) {
+        writePendingRow();
+        pendingTau = selection.contains(tau) ? tau : Double.NaN;
+    }
+
+    /**
+     * Writes the rows received so far, except the row of the last tick or of the open bucket, to the file.
+     *
+     * @throws UncheckedIOException if the results cannot be written.
+     */
+    public void flush() {
+        try {
+            flushRows();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the results", e);
+        }
+    }
+
+    /**
+     * Writes the row of the last tick, or of the last bucket, and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writePendingRow();
+            if (Objects.nonNull(buckets) && buckets.finish(bucketValues, bucketPresent)) {
+                writeRow(bucketValues, bucketPresent);
+            }
+        } finally {
+            closeOutput();
+        }
+    }
+
+    /**
+     * Writes a row.
+     *
+     * @param values  the values of the columns; a column without a value holds NaN.
+     * @param present {@code true} for every column that has a value.
+     * @throws IOException if the results cannot be written.
+     */
+    protected abstract void writeRow(double[] values, boolean[] present) throws IOException;
+
+    protected abstract void flushRows() throws IOException;
+
+    /**
+     * @return the number of bytes of the rows written so far, before any compression.
+     */
+    protected abstract long getWrittenBytes();
+
+    protected abstract void closeOutput() throws IOException;
+
+    private void writePendingRow() {
+        if (Double.isNaN(pendingTau)) {
+            return;
+        }
+        columns.read(pendingTau, values, present);
+        try {
+            if (Objects.isNull(buckets)) {
+                writeRow(values, present);
+            } else if (buckets.add(pendingTau, values, present, bucketValues, bucketPresent)) {
+                writeRow(bucketValues, bucketPresent);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the results", e);
+        }
+        pendingTau = Double.NaN;
+    }
+}
@@ -0,0 +1,187 @@
+package org.pom;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes the results through another result writer on a dedicated thread, so that formatting and writing the rows
+ * overlap with the simulation.
+ * <p>
+ * The simulation thread only reads a row from the conveyors into a batch of rows. A filled batch is handed to the
+ * writer thread through a bounded queue and the next rows go to a free batch, so the two threads swap batches like
+ * a double buffer. The simulation thread waits only when the writer thread is {@code pendingBatches} filled
+ * batches behind. {@link #flush()} hands the rows received so far to the writer thread without waiting for them to
+ * be written; {@link #close()} waits until every row is written. An error of the writer thread is thrown by the next
+ * call that hands it a batch.
+ */
+public class AsyncResultWriter extends AbstractResultWriter {
+    static final int DEFAULT_PENDING_BATCHES = 4;
+
+    private final AbstractResultWriter writer;
+    private final int columnCount;
+    private final int batchRows;
+    private final BlockingQueue<Batch> filledBatches;
+    private final BlockingQueue<Batch> freeBatches;
+    private final Thread thread;
+    private volatile IOException failure;
+    private volatile long writtenBytes;
+    private Batch batch;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param writer         the writer the rows are written with; it is called by the writer thread only.
+     * @param conveyors      the conveyors of the transport system, those {@code writer} was created with; the
+     *                       columns and taus are those of its selection.
+     * @param batchRows      the number of rows of a batch.
+     * @param pendingBatches the number of filled batches the writer thread may fall behind; {@code 0} selects the
+     *                       default.
+     * @throws IllegalArgumentException if {@code batchRows} is not positive or {@code pendingBatches} is negative.
+     */
+    public AsyncResultWriter(AbstractResultWriter writer, List<Conveyor> conveyors, int batchRows,
+                             int pendingBatches) {
+        super(conveyors, writer.getSelection());
+        if (batchRows <= 0 || pendingBatches < 0) {
+            throw new IllegalArgumentException("The rows of a batch (" + batchRows
+                    + ") must be positive and the pending batches (" + pendingBatches + ") non-negative.");
+        }
+        this.writer = writer;
+        this.columnCount = getHeaders().size();
+        this.batchRows = batchRows;
+        var capacity = pendingBatches == 0 ? DEFAULT_PENDING_BATCHES : pendingBatches;
+        this.filledBatches = new ArrayBlockingQueue<>(capacity);
+        this.freeBatches = new ArrayBlockingQueue<>(capacity + 1);
+        this.batch = new Batch();
+        this.thread = new Thread(this::writeBatches, "result-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        System.arraycopy(values, 0, batch.values, batch.rows * columnCount, columnCount);
+        System.arraycopy(present, 0, batch.present, batch.rows * columnCount, columnCount);
+        if (++batch.rows == batchRows) {
+            handOver(false, false);
+        }
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        handOver(true, false);
+    }
+
+    /**
+     * @return the number of bytes of the rows the writer thread has written so far, see
+     * {@link AbstractResultWriter#getWrittenBytes()}.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Waits until the writer thread has written every row, then closes the output of the writer.
+     */
+    @Override
+    protected void closeOutput() throws IOException {
+        try {
+            if (thread.isAlive()) {
+                handOver(true, true);
+                join();
+            }
+        } finally {
+            writer.closeOutput();
+        }
+        throwFailure();
+    }
+
+    /**
+     * Hands the current batch to the writer thread and continues with a free batch. The last batch is handed over
+     * even after an error, so that the writer thread ends.
+     */
+    private void handOver(boolean flush, boolean last) throws IOException {
+        if (!last) {
+            throwFailure();
+        }
+        batch.flush = flush;
+        batch.last = last;
+        try {
+            filledBatches.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the result writer thread");
+        }
+        var free = freeBatches.poll();
+        batch = free == null ? new Batch() : free;
+    }
+
+    private void join() throws InterruptedIOException {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the result writer thread");
+        }
+    }
+
+    private void throwFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The result writer thread failed", failure);
+        }
+    }
+
+    /**
+     * The loop of the writer thread. After an error the batches are only returned, so the simulation thread never
+     * waits for a failed writer.
+     */
+    private void writeBatches() {
+        var values = new double[columnCount];
+        var present = new boolean[columnCount];
+        while (true) {
+            Batch filled;
+            try {
+                filled = filledBatches.take();
+            } catch (InterruptedException e) {
+                failure = new InterruptedIOException("The result writer thread was interrupted");
+                return;
+            }
+            if (failure == null) {
+                try {
+                    for (int row = 0; row < filled.rows; row++) {
+                        System.arraycopy(filled.values, row * columnCount, values, 0, columnCount);
+                        System.arraycopy(filled.present, row * columnCount, present, 0, columnCount);
+                        writer.writeRow(values, present);
+                    }
+                    if (filled.flush) {
+                        writer.flushRows();
+                    }
+                    writtenBytes = writer.getWrittenBytes();
+                } catch (IOException e) {
+                    failure = e;
+                } catch (RuntimeException e) {
+                    failure = new IOException(e);
+                }
+            }
+            if (filled.last) {
+                return;
+            }
+            filled.rows = 0;
+            freeBatches.offer(filled);
+        }
+    }
+
+    /**
+     * The rows handed to the writer thread at once, one column after another in every row.
+     */
+    private class Batch {
+        private final double[] values = new double[batchRows * columnCount];
+        private final boolean[] present = new boolean[batchRows * columnCount];
+        private int rows;
+        private boolean flush;
+        private boolean last;
+    }
+}
@@ -0,0 +1,71 @@
+package org.pom;
+
+import org.pom.utils.io.binary.ColumnarFileReader;
+import org.pom.utils.io.binary.ColumnarFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes the results of a transport system to a columnar binary file one row per computed tick, see
+ * {@link AbstractResultWriter} and {@link ColumnarFileWriter}. The column names are the headers of the CSV
+ * output, every column is a contiguous array of little-endian doubles and a value the conveyor does not have at
+ * the tau of the row is NaN. The file is read with {@link ColumnarFileReader}, which finds the rows of a tau range
+ * in the first column.
+ */
+public class BinaryResultWriter extends AbstractResultWriter {
+    private final ColumnarFileWriter writer;
+    private long writtenBytes;
+
+    /**
+     * Writes the header. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file         the binary file.
+     * @param expectedRows the number of rows the columns get room for at first, e.g. the number of ticks.
+     * @param conveyors    the conveyors of the transport system.
+     * @throws IOException if the file cannot be written.
+     */
+    public BinaryResultWriter(Path file, long expectedRows, List<Conveyor> conveyors) throws IOException {
+        this(file, expectedRows, ResultSelection.ALL, conveyors);
+    }
+
+    /**
+     * Writes the header. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file         the binary file.
+     * @param expectedRows the number of rows the columns get room for at first, e.g. the number of ticks.
+     * @param selection    the selection of the columns and the taus written.
+     * @param conveyors    the conveyors of the transport system.
+     * @throws IOException if the file cannot be written.
+     */
+    public BinaryResultWriter(Path file, long expectedRows, ResultSelection selection, List<Conveyor> conveyors)
+            throws IOException {
+        super(conveyors, selection);
+        this.writer = new ColumnarFileWriter(file, getHeaders(), expectedRows);
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        writer.writeRow(values);
+        writtenBytes += (long) values.length * Double.BYTES;
+    }
+
+    /**
+     * @return the number of bytes of the values written so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        writer.close();
+    }
+}
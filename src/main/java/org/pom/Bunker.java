@@ -8,17 +8,43 @@ import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.MathUtil;
 import org.pom.utils.MessagesUtil;
 import org.pom.utils.ParametersValidator;
+import org.pom.utils.io.checkpoint.CheckpointReader;
+import org.pom.utils.io.checkpoint.CheckpointWriter;
+import org.pom.utils.series.ColumnarSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.*;
 
 /**
  * The {@code Bunker} class models a storage system that tracks input and output flows
  * and calculates various parameters such as capacity and deviations from limits.
+ * <p>
+ * The parameters are kept in a {@link ColumnarSeries}: one primitive column per quantity, one row per tau.
  */
 @Slf4j
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Bunker {
-    private final TreeMap<Double, Map<String, Double>> tauToBunkerParametersMap;
+    /**
+     * The names of the bunker parameters in the order of the columns of the parameters store.
+     */
+    public static final List<String> PARAMETERS_NAMES = List.of(
+            Constants.ColumnsNames.BUNKER_CAPACITY,
+            Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY,
+            Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY,
+            Constants.ColumnsNames.BUNKER_INPUT_FLOW,
+            Constants.ColumnsNames.BUNKER_PLANED_OUTPUT_FLOW,
+            Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW,
+            Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW
+    );
+    private static final int CAPACITY = 0;
+    private static final int OVER_MAX_CAPACITY = 1;
+    private static final int DENSITY_OVER_MAX_CAPACITY = 2;
+    private static final int INPUT_FLOW = 3;
+    private static final int PLANED_OUTPUT_FLOW = 4;
+    private static final int REAL_OUTPUT_FLOW = 5;
+    private static final int CONVEYOR_BELT_OUTPUT_FLOW = 6;
+
+    private final ColumnarSeries tauToBunkerParameters;
     private final double minCapacity;
     private final double maxCapacity;
     private final double capacity;
@@ -56,29 +82,159 @@ public class Bunker {
         this.minAvailableCapacity = minAvailableCapacity;
         this.maxAvailableCapacity = maxAvailableCapacity;
         this.maxAvailableOutput = maxAvailableOutput;
-        this.tauToBunkerParametersMap =new TreeMap<>();
+        this.tauToBunkerParameters = new ColumnarSeries(PARAMETERS_NAMES.size());
 
         log.info("Bunker object created with initial capacity: {}, max capacity: {}, min available capacity: {}, " +
                         "max available capacity: {} max available output from the bunker: {}",
                 capacity, maxCapacity, minAvailableCapacity, maxAvailableCapacity, maxAvailableOutput);
     }
 
+    /**
+     * Creates a bunker with the same limits and a part of the parameters of {@code source}.
+     */
+    private Bunker(Bunker source, ColumnarSeries tauToBunkerParameters) {
+        this.maxCapacity = source.maxCapacity;
+        this.capacity = source.capacity;
+        this.bunkerOverMaxCapacity = source.bunkerOverMaxCapacity;
+        this.densityOverMaxCapacity = source.densityOverMaxCapacity;
+        this.minCapacity = source.minCapacity;
+        this.minAvailableCapacity = source.minAvailableCapacity;
+        this.maxAvailableCapacity = source.maxAvailableCapacity;
+        this.maxAvailableOutput = source.maxAvailableOutput;
+        this.tauToBunkerParameters = tauToBunkerParameters;
+    }
+
+    /**
+     * Copies the bunker with the parameters from {@code fromTau} on; the earlier rows are dropped except the one
+     * before {@code fromTau}.
+     *
+     * @param fromTau The earliest tau the next steps read.
+     * @return A new bunker with the same limits.
+     */
+    public Bunker copy(double fromTau) {
+        return new Bunker(this, tauToBunkerParameters.copy(fromTau));
+    }
+
+    /**
+     * Puts the parameters of {@code source} for the taus in {@code [fromTau, toTau]} into this bunker, together
+     * with the row before {@code fromTau}, whose real and belt output flows are completed by the step at
+     * {@code fromTau}.
+     *
+     * @param source  The bunker to copy from.
+     * @param fromTau The first tau to copy.
+     * @param toTau   The last tau to copy.
+     */
+    public void putRows(Bunker source, double fromTau, double toTau) {
+        var sourceParameters = source.tauToBunkerParameters;
+        var from = sourceParameters.ceilingIndex(fromTau);
+        if (from < 0) {
+            return;
+        }
+        var to = from;
+        while (to < sourceParameters.size() && sourceParameters.keyAt(to) <= toTau) {
+            to++;
+        }
+        tauToBunkerParameters.putAll(sourceParameters, from - 1, to);
+    }
+
+    /**
+     * Removes the parameters of the taus before {@code tau}.
+     *
+     * @param tau The earliest tau to keep.
+     */
+    public void removeBefore(double tau) {
+        tauToBunkerParameters.removeBefore(tau);
+    }
+
+    /**
+     * Writes the parameters added or changed since the previous checkpoint.
+     *
+     * @param writer The checkpoint being written.
+     */
+    public void writeCheckpoint(CheckpointWriter writer) {
+        writer.writeChanges(tauToBunkerParameters);
+    }
+
+    /**
+     * Applies the parameters written by {@link #writeCheckpoint(CheckpointWriter)}.
+     *
+     * @param reader The checkpoint being read.
+     */
+    public void readCheckpoint(CheckpointReader reader) {
+        reader.readChanges(tauToBunkerParameters);
+    }
+
+    /**
+     * @param tau The tau value.
+     * @return {@code true} if the parameters at {@code tau} are computed and not evicted.
+     */
+    public boolean hasParametersAtTau(double tau) {
+        return tauToBunkerParameters.containsKey(tau);
+    }
+
+    /**
+     * Reads all bunker parameters at {@code tau}, in the order of {@link #PARAMETERS_NAMES}.
+     *
+     * @param tau    The tau value.
+     * @param values The array receiving the parameters.
+     * @param offset The index in {@code values} of the first parameter.
+     */
+    public void getParameters(double tau, double[] values, int offset) {
+        var row = MathUtil.getIndexByKey(tauToBunkerParameters, tau);
+        for (int column = 0; column < PARAMETERS_NAMES.size(); column++) {
+            values[offset + column] = tauToBunkerParameters.get(column, row);
+        }
+    }
+
+    /**
+     * Replaces all bunker parameters at {@code tau}, in the order of {@link #PARAMETERS_NAMES}.
+     *
+     * @param tau    The tau value.
+     * @param values The array holding the parameters.
+     * @param offset The index in {@code values} of the first parameter.
+     */
+    public void setParameters(double tau, double[] values, int offset) {
+        var row = tauToBunkerParameters.row(tau);
+        for (int column = 0; column < PARAMETERS_NAMES.size(); column++) {
+            tauToBunkerParameters.set(column, row, values[offset + column]);
+        }
+    }
+
+    /**
+     * Aligns the bunker parameters to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        tauToBunkerParameters.setTimeAxis(timeAxis);
+    }
+
+    /**
+     * Returns the values of one bunker parameter for every tau.
+     *
+     * @param key The name of the parameter, one of {@link #PARAMETERS_NAMES}.
+     * @return A read-only view of the parameter column; the view is not a copy.
+     */
     public Collection<Double> getValues(String key) {
-        return tauToBunkerParametersMap.values().stream().map(params -> params.get(key)).toList();
+        return tauToBunkerParameters.column(getColumn(key));
     }
 
     public void addParametersValues(double tau, double input, double planedBunkerOutput, double outputForMaxDensity) {
-        ParametersValidator.validateNonNegativeKeyValue(
-                "Bunker", Map.of("tau", tau, "input", input,
-                        "planedBunkerOutput", planedBunkerOutput, "outputForMaxDensity", outputForMaxDensity)
-        );
-        if(tauToBunkerParametersMap.isEmpty()) {
-            this.tauToBunkerParametersMap.put(tau, calculateInitialParameters(input, planedBunkerOutput));
+        if (tau < 0.0 || input < 0.0 || planedBunkerOutput < 0.0 || outputForMaxDensity < 0.0) {
+            ParametersValidator.validateNonNegativeKeyValue(
+                    "Bunker", Map.of("tau", tau, "input", input,
+                            "planedBunkerOutput", planedBunkerOutput, "outputForMaxDensity", outputForMaxDensity)
+            );
+        }
+        if(tauToBunkerParameters.isEmpty()) {
+            calculateInitialParameters(tau, input, planedBunkerOutput);
         } else {
-            this.tauToBunkerParametersMap.put(tau, getBunkerParameters(tau, input, planedBunkerOutput, outputForMaxDensity));
+            calculateBunkerParameters(tau, input, planedBunkerOutput, outputForMaxDensity);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(MessagesUtil.addParametersMessage(
+                    "Bunker parameters added => ", getParametersAtRow(tauToBunkerParameters.indexOf(tau))));
         }
-        log.debug(MessagesUtil.addParametersMessage(
-                "Bunker parameters added => ", tauToBunkerParametersMap.get(tau)));
     }
 
     /**
@@ -88,7 +244,7 @@ public class Bunker {
      * @return The input flow rate at time {@code tau}.
      */
     public double getInputFlowAtTau(double tau) {
-        return getParameterAtTau(Constants.ColumnsNames.BUNKER_INPUT_FLOW, tau);
+        return getParameterAtTau(INPUT_FLOW, tau);
     }
 
     /**
@@ -98,7 +254,7 @@ public class Bunker {
      * @return The output real flow at time {@code tau}.
      */
     public double getOutputRealFlowFromBunker(double tau) {
-        return getParameterAtTau(Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW, tau);
+        return getParameterAtTau(REAL_OUTPUT_FLOW, tau);
     }
 
     /**
@@ -108,7 +264,7 @@ public class Bunker {
      * @return The output flow at time {@code tau} using max density restriction.
      */
     public double getOutputFlowFromBunkerToConveyorBelt(double tau) {
-        return getParameterAtTau(Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW, tau);
+        return getParameterAtTau(CONVEYOR_BELT_OUTPUT_FLOW, tau);
     }
 
     /**
@@ -119,7 +275,7 @@ public class Bunker {
      */
     public double getCapacityAtTau(double tau) {
         log.debug("Retrieving capacity for tau: {}", tau);
-        return getParameterAtTau(Constants.ColumnsNames.BUNKER_CAPACITY, tau);
+        return getParameterAtTau(CAPACITY, tau);
     }
 
     /**
@@ -129,7 +285,7 @@ public class Bunker {
      * @return The over-capacity deviation at time {@code tau}.
      */
     public double getOverMaxCapacityAtTau(double tau) {
-        return getParameterAtTau(Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY, tau);
+        return getParameterAtTau(OVER_MAX_CAPACITY, tau);
     }
 
     /**
@@ -139,28 +295,23 @@ public class Bunker {
      * @return The under-capacity deviation at time {@code tau}.
      */
     public double getDensityOverMaxCapacityAtTau(double tau) {
-        return getParameterAtTau(Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY, tau);
+        return getParameterAtTau(DENSITY_OVER_MAX_CAPACITY, tau);
     }
 
     public void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTime, List<Double> taus, BunkerOutputFlow bunkerOutputFlow) {
-        if (currentTau == previousFinishTime || tauToBunkerParametersMap.isEmpty()) {
+        if (currentTau == previousFinishTime || tauToBunkerParameters.isEmpty()) {
             return;
         }
-        Double lastTau = tauToBunkerParametersMap.lastKey();
-
-        var lastEntry = tauToBunkerParametersMap.lastEntry();
-        var capacity = lastEntry.getValue().get(Constants.ColumnsNames.BUNKER_CAPACITY);
-        var overMaxCapacity = lastEntry.getValue().get(Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY);
-        var densityOverMaxCapacity = lastEntry.getValue().get(Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY);
-        Double finalLastTau = lastTau;
-        taus.stream().filter(tau -> finalLastTau <= tau && tau < currentTau).forEach(
-                tau -> {
-                    var bunkerParameters = getBunkerParameters(
-                            0.0, getBunkerOutputFlowValueByTau(tau, bunkerOutputFlow), 0.0, 0.0,
-                            capacity, overMaxCapacity, densityOverMaxCapacity);
-                    tauToBunkerParametersMap.put(tau, bunkerParameters);
-                }
-
+        var lastRow = tauToBunkerParameters.size() - 1;
+        var lastTau = tauToBunkerParameters.keyAt(lastRow);
+        var capacity = tauToBunkerParameters.get(CAPACITY, lastRow);
+        var overMaxCapacity = tauToBunkerParameters.get(OVER_MAX_CAPACITY, lastRow);
+        var densityOverMaxCapacity = tauToBunkerParameters.get(DENSITY_OVER_MAX_CAPACITY, lastRow);
+        taus.stream().filter(tau -> lastTau <= tau && tau < currentTau).forEach(
+                tau -> setBunkerParameters(
+                        tauToBunkerParameters.row(tau),
+                        0.0, getBunkerOutputFlowValueByTau(tau, bunkerOutputFlow), 0.0, 0.0,
+                        capacity, overMaxCapacity, densityOverMaxCapacity)
         );
     }
 
@@ -173,8 +324,9 @@ public class Bunker {
     /**
      * Calculates the initial parameters for the bunker at the start of operations.
      */
-    private Map<String, Double> calculateInitialParameters(double input, double planedOutput) {
-        return getBunkerParameters(
+    private void calculateInitialParameters(double tau, double input, double planedOutput) {
+        setBunkerParameters(
+                tauToBunkerParameters.row(tau),
                 input,
                 planedOutput, 0.0, 0.0,
                 calculateLimitedCapacity(capacity),
@@ -193,66 +345,62 @@ public class Bunker {
         return Math.min(planedOutput, maxAvailableOutput);
     }
 
-    private Double correctedConveyorBeltBunkerOutputFlow(Map<String, Double> lastEntry, double output,double outputForMaxDensity) {
-        lastEntry.put(Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW, Math.min(output, outputForMaxDensity));
-        return lastEntry.get(Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW);
+    private double correctedConveyorBeltBunkerOutputFlow(int lastRow, double output, double outputForMaxDensity) {
+        var onConveyorBeltBunkerOutputFlow = Math.min(output, outputForMaxDensity);
+        tauToBunkerParameters.set(CONVEYOR_BELT_OUTPUT_FLOW, lastRow, onConveyorBeltBunkerOutputFlow);
+        return onConveyorBeltBunkerOutputFlow;
     }
 
     /**
      * Calculates bunker parameters for a specific time point based on input and output flow rates.
      */
-    private Map<String, Double> getBunkerParameters(
+    private void calculateBunkerParameters(
             double tau, double input, double planedBunkerOutput, double maxDensityOutputFlow) {
-        var lastEntry = this.tauToBunkerParametersMap.lastEntry().getValue();
-        var deltaTau = tau - tauToBunkerParametersMap.lastEntry().getKey();
+        var lastRow = tauToBunkerParameters.size() - 1;
+        var deltaTau = tau - tauToBunkerParameters.keyAt(lastRow);
 
-        var lastInputFlow = lastEntry.get(Constants.ColumnsNames.BUNKER_INPUT_FLOW);
-        var lastCapacity = lastEntry.get(Constants.ColumnsNames.BUNKER_CAPACITY);
-        var lastRealOutputFlow
-                = correctedLastRealFlow(lastEntry, lastCapacity, lastInputFlow, maxDensityOutputFlow, deltaTau);
+        var lastInputFlow = tauToBunkerParameters.get(INPUT_FLOW, lastRow);
+        var lastCapacity = tauToBunkerParameters.get(CAPACITY, lastRow);
+        var lastRealOutputFlow = correctedLastRealFlow(lastRow, lastCapacity, lastInputFlow, deltaTau);
         var lastOnConveyorBeltBunkerOutputFlow
-                = correctedConveyorBeltBunkerOutputFlow(lastEntry, lastRealOutputFlow, maxDensityOutputFlow);
+                = correctedConveyorBeltBunkerOutputFlow(lastRow, lastRealOutputFlow, maxDensityOutputFlow);
 
         var predictCapacity = calculateCapacity(lastCapacity, lastInputFlow, deltaTau, lastRealOutputFlow);
         var capacity = calculateLimitedCapacity(predictCapacity);
         var overMaxCapacity = calculateOverMaxCapacity(
-                lastEntry.get(Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY), maxCapacity, predictCapacity
+                tauToBunkerParameters.get(OVER_MAX_CAPACITY, lastRow), maxCapacity, predictCapacity
         );
         var densityOverMaxCapacity = calculateDensityOverMaxCapacity(
-                lastEntry.get(Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY),
+                tauToBunkerParameters.get(DENSITY_OVER_MAX_CAPACITY, lastRow),
                 lastRealOutputFlow,
                 lastOnConveyorBeltBunkerOutputFlow,
                 deltaTau
         );
 
-        return getBunkerParameters(input, planedBunkerOutput, lastRealOutputFlow, lastOnConveyorBeltBunkerOutputFlow,capacity,
-                overMaxCapacity, densityOverMaxCapacity);
-
+        setBunkerParameters(tauToBunkerParameters.row(tau), input, planedBunkerOutput, lastRealOutputFlow,
+                lastOnConveyorBeltBunkerOutputFlow, capacity, overMaxCapacity, densityOverMaxCapacity);
     }
 
-    private Map<String, Double>getBunkerParameters(
-            double input, double planedBunkerOutput, double lastRealFlow, double lastOnConveyorBeltBunkerOutputFlow,
+    private void setBunkerParameters(
+            int row, double input, double planedBunkerOutput, double lastRealFlow, double lastOnConveyorBeltBunkerOutputFlow,
             double capacity, double overMaxCapacity, double densityOverMaxCapacity
     ) {
-        var bunkerParameters = new HashMap<String, Double>();
-        bunkerParameters.put(Constants.ColumnsNames.BUNKER_INPUT_FLOW, input);
-        bunkerParameters.put(Constants.ColumnsNames.BUNKER_PLANED_OUTPUT_FLOW, planedBunkerOutput);
-        bunkerParameters.put(Constants.ColumnsNames.BUNKER_CAPACITY, capacity);
-        bunkerParameters.put(Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY, overMaxCapacity);
-        bunkerParameters.put(Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY, densityOverMaxCapacity);
-        bunkerParameters.put(Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW, lastRealFlow);
-        bunkerParameters.put(Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW, lastOnConveyorBeltBunkerOutputFlow);
-        return bunkerParameters;
-    }
-
-    private Double correctedLastRealFlow(
-            Map<String, Double> lastEntry, double lastCapacity, double lastInputFlow, double maxDensityOutputFlow, double deltaTau) {
-        var lastPlanedOutputFlow = lastEntry.get(Constants.ColumnsNames.BUNKER_PLANED_OUTPUT_FLOW);
+        tauToBunkerParameters.set(INPUT_FLOW, row, input);
+        tauToBunkerParameters.set(PLANED_OUTPUT_FLOW, row, planedBunkerOutput);
+        tauToBunkerParameters.set(CAPACITY, row, capacity);
+        tauToBunkerParameters.set(OVER_MAX_CAPACITY, row, overMaxCapacity);
+        tauToBunkerParameters.set(DENSITY_OVER_MAX_CAPACITY, row, densityOverMaxCapacity);
+        tauToBunkerParameters.set(REAL_OUTPUT_FLOW, row, lastRealFlow);
+        tauToBunkerParameters.set(CONVEYOR_BELT_OUTPUT_FLOW, row, lastOnConveyorBeltBunkerOutputFlow);
+    }
+
+    private double correctedLastRealFlow(int lastRow, double lastCapacity, double lastInputFlow, double deltaTau) {
+        var lastPlanedOutputFlow = tauToBunkerParameters.get(PLANED_OUTPUT_FLOW, lastRow);
         var limitedLastPlanedOutputFlow = calculateLimitedPlanedOutput(lastPlanedOutputFlow);
 
         var lastRealOutputFlow = calculateRealOutput(limitedLastPlanedOutputFlow,lastInputFlow + lastCapacity / deltaTau);
-        lastEntry.put(Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW, lastRealOutputFlow);
-        return lastEntry.get(Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW);
+        tauToBunkerParameters.set(REAL_OUTPUT_FLOW, lastRow, lastRealOutputFlow);
+        return lastRealOutputFlow;
     }
 
     private static double calculateCapacity(double lastCapacity,
@@ -288,7 +436,23 @@ public class Bunker {
         return previousCapacity + Math.max(0.0, deltaCapacity);
     }
 
-    private double getParameterAtTau(String param, double tau) {
-        return MathUtil.getValueByKey(tauToBunkerParametersMap, tau).get(param);
+    private double getParameterAtTau(int column, double tau) {
+        return tauToBunkerParameters.get(column, MathUtil.getIndexByKey(tauToBunkerParameters, tau));
+    }
+
+    private static int getColumn(String key) {
+        var column = PARAMETERS_NAMES.indexOf(key);
+        if (column < 0) {
+            throw new IllegalArgumentException("Unknown bunker parameter: " + key);
+        }
+        return column;
+    }
+
+    private Map<String, Double> getParametersAtRow(int row) {
+        var parameters = new LinkedHashMap<String, Double>();
+        for (int column = 0; column < PARAMETERS_NAMES.size(); column++) {
+            parameters.put(PARAMETERS_NAMES.get(column), tauToBunkerParameters.get(column, row));
+        }
+        return parameters;
     }
 }
@@ -5,40 +5,51 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import org.pom.utils.MathUtil;
-import org.pom.utils.io.csv.read.CsvReaderP;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 import java.util.TreeMap;
 
 @Getter
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class BunkerOutputFlow implements KeysValuesProvider<Double> {
-    private TreeMap<Double, Double> outputFlowMap;
+    private DoubleSeries outputFlowMap;
 
     @JsonCreator
     public BunkerOutputFlow(@JsonProperty("bunkerOutputFlow") TreeMap<Double, Double> outputFlowMap) {
-        this.outputFlowMap = outputFlowMap;
+        this.outputFlowMap = DoubleSeries.of(outputFlowMap);
     }
 
-    public void setValues(TreeMap<Double, Double> outputFlowMap) {
+    public void setValues(DoubleSeries outputFlowMap) {
+        outputFlowMap.setTimeAxis(this.outputFlowMap.getTimeAxis());
         this.outputFlowMap = outputFlowMap;
     }
 
+    /**
+     * Aligns the stored values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        outputFlowMap.setTimeAxis(timeAxis);
+    }
+
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(outputFlowMap.values());
+        return outputFlowMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return  Collections.unmodifiableCollection(outputFlowMap.keySet());
+        return outputFlowMap.keys();
+    }
+
+    public void setValue(double tau, double value) {
+        this.outputFlowMap.put(tau, value);
     }
 
-    public Double getValueAtTau(double tau) {
+    public double getValueAtTau(double tau) {
         return MathUtil.getValueByKey(outputFlowMap, tau);
     }
 }
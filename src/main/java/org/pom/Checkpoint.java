@@ -0,0 +1,97 @@
+package org.pom;
+
+import org.pom.utils.io.checkpoint.CheckpointReader;
+import org.pom.utils.io.checkpoint.CheckpointWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the state of the conveyors of a transport system to a checkpoint file every {@code intervalTicks} computed
+ * ticks, and restores it, see {@link TransportSystem#setCheckpoint(Path, int, boolean)}.
+ * <p>
+ * Every checkpoint holds only the values added or changed since the previous one, so the cost of a checkpoint
+ * grows with the interval and not with the computed history. Restoring reads the checkpoints in order and puts
+ * the values into the conveyors; nothing is computed again.
+ */
+class Checkpoint implements AutoCloseable {
+    private final CheckpointWriter writer;
+    private final int intervalTicks;
+    private int pendingTicks;
+
+    Checkpoint(CheckpointWriter writer, int intervalTicks) {
+        this.writer = writer;
+        this.intervalTicks = intervalTicks;
+    }
+
+    /**
+     * Restores the state of the conveyors from the committed checkpoints of a file.
+     *
+     * @param file      the checkpoint file.
+     * @param deltaTau  the step of the time axis of the transport system.
+     * @param conveyors the conveyors, as created before any tick was computed.
+     * @return the tau of the last computed tick, or negative infinity if the file holds no checkpoint.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the file is not a checkpoint of these conveyors with this step.
+     */
+    static double restore(Path file, double deltaTau, List<Conveyor> conveyors) throws IOException {
+        var conveyorsById = conveyors.stream().collect(Collectors.toMap(Conveyor::getId, Function.identity()));
+        try (var reader = new CheckpointReader(file)) {
+            if (Double.compare(reader.getDeltaTau(), deltaTau) != 0) {
+                throw new IllegalStateException("The checkpoint file " + file + " was written with deltaTau "
+                        + reader.getDeltaTau() + " instead of " + deltaTau);
+            }
+            var tau = Double.NEGATIVE_INFINITY;
+            while (reader.nextSegment()) {
+                tau = reader.getTau();
+                var count = reader.readInt();
+                for (int i = 0; i < count; i++) {
+                    var id = reader.readInt();
+                    var conveyor = conveyorsById.get(id);
+                    if (conveyor == null) {
+                        throw new IllegalStateException("The checkpoint file " + file + " holds the unknown conveyor "
+                                + id);
+                    }
+                    conveyor.readCheckpoint(reader);
+                }
+            }
+            return tau;
+        }
+    }
+
+    /**
+     * Counts computed ticks.
+     *
+     * @param ticks the number of ticks computed since the last call.
+     * @return {@code true} if a checkpoint is due.
+     */
+    boolean addTicks(int ticks) {
+        pendingTicks += ticks;
+        return pendingTicks >= intervalTicks;
+    }
+
+    /**
+     * Writes a checkpoint of the conveyors; every tick up to {@code tau} must be computed.
+     *
+     * @param tau       the tau of the last computed tick.
+     * @param conveyors the conveyors of the transport system.
+     */
+    void write(double tau, List<Conveyor> conveyors) {
+        writer.beginSegment(tau);
+        writer.writeInt(conveyors.size());
+        conveyors.forEach(conveyor -> {
+            writer.writeInt(conveyor.getId());
+            conveyor.writeCheckpoint(writer);
+        });
+        writer.commit();
+        pendingTicks = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
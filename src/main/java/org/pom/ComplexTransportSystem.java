@@ -2,6 +2,10 @@ package org.pom;
 
 import org.pom.utils.yaml.SettingsManager;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -27,6 +31,17 @@ public class ComplexTransportSystem {
                     lastTransportSystemId.set(sortedByStartTimeTransportSystems.get(startCoefficientTime));
                 }
         );
+        RuntimeException failure = null;
+        for (var transportSystem : transportSystems.values()) {
+            try {
+                transportSystem.close();
+            } catch (RuntimeException e) {
+                failure = TransportSystem.addFailure(failure, e);
+            }
+        }
+        if (Objects.nonNull(failure)) {
+            throw failure;
+        }
     }
 
     /**
@@ -93,13 +108,34 @@ public class ComplexTransportSystem {
                     TransportSystem transportSystem = new TransportSystem(
                             transportSystemFileName,cellFormat, locale, researchTau, deltaTau, deltaLength
                     );
-                    transportSystems.put(initTransportSystemFiles.get(transportSystemFileName).getId(), transportSystem);
+                    var id = initTransportSystemFiles.get(transportSystemFileName).getId();
+                    transportSystems.put(id, transportSystem);
                     transportSystem.createTransportSystem();
+                    setCheckpoint(transportSystem, id);
                 }
         );
         return transportSystems;
     }
 
+    /**
+     * Writes checkpoints of the transport system to {@code transportSystem-<id>.checkpoint} in the checkpoint
+     * directory of the settings, and resumes from the file when it exists and the settings ask for it.
+     */
+    private void setCheckpoint(TransportSystem transportSystem, String id) {
+        var checkpoint = settingsManager.getCheckpoint();
+        if (Objects.isNull(checkpoint) || Objects.isNull(checkpoint.getDirectory())
+                || checkpoint.getDirectory().isEmpty()) {
+            return;
+        }
+        try {
+            var directory = Files.createDirectories(Path.of(checkpoint.getDirectory()));
+            transportSystem.setCheckpoint(directory.resolve("transportSystem-" + id + ".checkpoint"),
+                    checkpoint.getIntervalTicks(), checkpoint.isResume());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the checkpoint file of transport system " + id, e);
+        }
+    }
+
     public static void main(String[] args) {
         var complexTransportSystem = new ComplexTransportSystem();
         complexTransportSystem.start();
@@ -0,0 +1,58 @@
+package org.pom;
+
+import org.pom.utils.io.binary.CompressedColumnarFileReader;
+import org.pom.utils.io.binary.CompressedColumnarFileWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes the results of a transport system to a compressed columnar binary file one row per computed tick, see
+ * {@link AbstractResultWriter} and {@link CompressedColumnarFileWriter}. The columns are those of
+ * {@link BinaryResultWriter}; the values of every column are filtered and compressed in blocks of rows. The file is
+ * read with {@link CompressedColumnarFileReader}.
+ */
+public class CompressedBinaryResultWriter extends AbstractResultWriter {
+    private final CompressedColumnarFileWriter writer;
+    private long writtenBytes;
+
+    /**
+     * Writes the header. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file      the compressed binary file.
+     * @param level     the compression level of {@link java.util.zip.Deflater}, from 1 (fastest) to 9 (smallest).
+     * @param selection the selection of the columns and the taus written.
+     * @param conveyors the conveyors of the transport system.
+     * @throws IOException if the file cannot be written.
+     */
+    public CompressedBinaryResultWriter(Path file, int level, ResultSelection selection, List<Conveyor> conveyors)
+            throws IOException {
+        super(conveyors, selection);
+        this.writer = new CompressedColumnarFileWriter(file, getHeaders(), level);
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        writer.writeRow(values);
+        writtenBytes += (long) values.length * Double.BYTES;
+    }
+
+    /**
+     * @return the number of bytes of the values written so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        writer.close();
+    }
+}
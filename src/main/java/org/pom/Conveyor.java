@@ -7,12 +7,16 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.MessagesUtil;
+import org.pom.utils.io.checkpoint.CheckpointReader;
+import org.pom.utils.io.checkpoint.CheckpointWriter;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
 
 @Slf4j
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -61,6 +65,59 @@ public class Conveyor {
         this.reversible = reversible;
     }
 
+    private Conveyor(Conveyor source, Conveyor inputData, double lastInputTau) {
+        var fromTau = source.transportDelay.getDelayStartTau();
+        this.id = source.id;
+        this.reversible = source.reversible;
+        this.length = source.length;
+        this.isStarted = source.isStarted;
+        this.conveyorNode = source.conveyorNode;
+        this.bunkerOutputFlow = source.bunkerOutputFlow;
+        this.initialDensity = source.initialDensity;
+        this.bunker = source.bunker.copy(fromTau);
+        this.speed = inputData.speed.copy(fromTau, lastInputTau);
+        this.density = source.density.copy(fromTau);
+        this.inputFlow = inputData.inputFlow.copy(fromTau, lastInputTau);
+        this.transportDelay = source.transportDelay.copy();
+        this.outputFlow = source.outputFlow.copy(bunker, speed, initialDensity, transportDelay, fromTau);
+    }
+
+    /**
+     * Copies the state the conveyor needs to continue the simulation up to {@code lastInputTau}: the history back
+     * to the tau at which the material now leaving the conveyor entered it, and the speeds and input flows of
+     * {@code inputData} up to {@code lastInputTau}. The conveyor node, the planned bunker output and the initial
+     * density are shared, they are not changed by the simulation.
+     *
+     * @param inputData    the conveyor holding the input data, this conveyor or the one it was copied from.
+     * @param lastInputTau the last tau the copy is going to compute.
+     * @return a new conveyor that computes the same values as this one.
+     */
+    public Conveyor copy(Conveyor inputData, double lastInputTau) {
+        return new Conveyor(this, inputData, lastInputTau);
+    }
+
+    /**
+     * Puts the values that {@code source} computed for the taus in {@code [fromTau, toTau]} into this conveyor,
+     * and advances the speed and the transport delay over the same taus.
+     *
+     * @param source  a copy of this conveyor that computed the taus.
+     * @param fromTau the first tau to take over.
+     * @param toTau   the last tau to take over.
+     */
+    public void copyRows(Conveyor source, double fromTau, double toTau) {
+        bunker.putRows(source.bunker, fromTau, toTau);
+        density.getTauToDensityMap().putAll(source.density.getTauToDensityMap(), fromTau, toTau);
+        inputFlow.getInputFlowMap().putAll(source.inputFlow.getInputFlowMap(), fromTau, toTau);
+        var taus = source.outputFlow.getTauToFlowOutputMap();
+        outputFlow.getTauToFlowOutputMap().putAll(taus, fromTau, toTau);
+        for (int i = taus.ceilingIndex(fromTau); i >= 0 && i < taus.size() && taus.keyAt(i) <= toTau; i++) {
+            var tau = taus.keyAt(i);
+            var speedAtTau = speed.getSpeedAtTau(tau);
+            speed.addParametersValues(tau, speedAtTau);
+            transportDelay.addParametersValues(tau, speedAtTau);
+        }
+    }
+
     public void addParametersValues(double tau,double bunkerInput,double planedBunkerOutput,double speed) {
         this.bunker.addParametersValues(tau, bunkerInput, planedBunkerOutput, density.getMaxAvailableDensity() * speed);
         this.speed.addParametersValues(tau, speed);
@@ -69,6 +126,30 @@ public class Conveyor {
         this.outputFlow.addOutputFlowValue(tau, this.transportDelay.getDelayForConveyorLength());
     }
 
+    /**
+     * Aligns every tau-keyed series of the conveyor to the time axis of the transport system,
+     * so the values are addressed by tick instead of by a floating-point tau.
+     *
+     * @param timeAxis the time axis shared by all conveyors of the transport system
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        if (Objects.nonNull(bunker)) {
+            bunker.setTimeAxis(timeAxis);
+        }
+        if (Objects.nonNull(speed)) {
+            speed.setTimeAxis(timeAxis);
+        }
+        if (Objects.nonNull(density)) {
+            density.setTimeAxis(timeAxis);
+        }
+        if (Objects.nonNull(bunkerOutputFlow)) {
+            bunkerOutputFlow.setTimeAxis(timeAxis);
+        }
+        inputFlow.setTimeAxis(timeAxis);
+        outputFlow.setTimeAxis(timeAxis);
+        transportDelay.setTimeAxis(timeAxis);
+    }
+
     /**
      * Computes the combined input flow for the current conveyor at a specific time point.
      * This method calculates the input flow by iterating through all connected input conveyors,
@@ -80,21 +161,122 @@ public class Conveyor {
      * @return the updated InputFlow object containing the combined input flow values
      */
     public InputFlow getCombinedInputFlow(Double tau, Function<Integer, Conveyor> getConveyorById) {
+        return getCombinedInputFlow(tau, getConveyorById,
+                inputConveyorNumber -> getConveyorById.apply(inputConveyorNumber).getOutputFlow().getOutputFlowAtTau(tau));
+    }
+
+    /**
+     * Computes the combined input flow like {@link #getCombinedInputFlow(Double, Function)}, with the output flows
+     * of the input conveyors at {@code tau} supplied by {@code outputFlowById} instead of read from their series.
+     *
+     * @param tau             the time point for which the combined input flow is calculated
+     * @param getConveyorById a function to retrieve a conveyor instance by its unique identifier
+     * @param outputFlowById  the output flow at {@code tau} of the input conveyor with the given identifier
+     * @return the updated InputFlow object containing the combined input flow values
+     */
+    public InputFlow getCombinedInputFlow(double tau, Function<Integer, Conveyor> getConveyorById,
+                                          IntToDoubleFunction outputFlowById) {
         getConveyorNode().getInputConveyorFlowMap().keySet().forEach(
                 inputConveyorNumber -> {
                     var inputConveyor = getConveyorById.apply(inputConveyorNumber);
                     double outputFlowCoefficient
                             = inputConveyor.getConveyorNode().getOutputFlowCoefficient(getId(), tau);
-                    var currentInputFlowValue
-                            = Objects.isNull(inputFlow.getValue(tau)) ? 0.0 : inputFlow.getValue(tau);
+                    var currentInputFlowValue = inputFlow.getValueOrDefault(tau, 0.0);
                     var additionalInputCurrentFlowValue
-                            = inputConveyor.getOutputFlow().getOutputFlowAtTau(tau) * outputFlowCoefficient;
+                            = outputFlowById.applyAsDouble(inputConveyorNumber) * outputFlowCoefficient;
                     inputFlow.setValue(tau, currentInputFlowValue + additionalInputCurrentFlowValue);
                 }
         );
         return inputFlow;
     }
 
+    /**
+     * Evicts the values that later ticks no longer read. The output flow at a tau reads the bunker and the speed
+     * back to the tau at which the material now leaving the conveyor entered it, which never decreases; the values
+     * before the tick preceding it are evicted. To keep the cost per tick constant, the values are evicted only
+     * once they are at least as many as the values kept, so the conveyor holds at most about twice the values of
+     * its transport delay.
+     *
+     * @param sink receives the evicted taus before the values are removed.
+     */
+    public void evictHistory(HistorySink sink) {
+        var taus = outputFlow.getTauToFlowOutputMap();
+        var startIndex = taus.ceilingIndex(transportDelay.getDelayStartTau());
+        var count = startIndex - 1;
+        if (count <= 0 || count < taus.size() - count) {
+            return;
+        }
+        var tau = taus.keyAt(count);
+        sink.onEvict(this, taus.firstKey(), taus.keyAt(count - 1));
+        bunker.removeBefore(tau);
+        speed.getTauToSpeedMap().removeBefore(tau);
+        density.getTauToDensityMap().removeBefore(tau);
+        inputFlow.getInputFlowMap().removeBefore(tau);
+        if (Objects.nonNull(bunkerOutputFlow)) {
+            bunkerOutputFlow.getOutputFlowMap().removeBefore(tau);
+        }
+        transportDelay.removeBefore(tau);
+        taus.removeBefore(tau);
+    }
+
+    /**
+     * Writes the values of the conveyor added or changed since the previous checkpoint: the bunker, speed, density,
+     * input flow, planned bunker output, output flow and transport delay. The conveyor node and the initial density
+     * are not changed by the simulation and are not written.
+     *
+     * @param writer the checkpoint being written.
+     */
+    public void writeCheckpoint(CheckpointWriter writer) {
+        writer.writeBoolean(isStarted);
+        bunker.writeCheckpoint(writer);
+        writer.writeChanges(speed.getTauToSpeedMap());
+        writer.writeChanges(density.getTauToDensityMap());
+        writer.writeChanges(inputFlow.getInputFlowMap());
+        writer.writeBoolean(Objects.nonNull(bunkerOutputFlow));
+        if (Objects.nonNull(bunkerOutputFlow)) {
+            writer.writeChanges(bunkerOutputFlow.getOutputFlowMap());
+        }
+        writer.writeChanges(outputFlow.getTauToFlowOutputMap());
+        transportDelay.writeCheckpoint(writer);
+    }
+
+    /**
+     * Applies the values written by {@link #writeCheckpoint(CheckpointWriter)}.
+     *
+     * @param reader the checkpoint being read.
+     */
+    public void readCheckpoint(CheckpointReader reader) {
+        isStarted = reader.readBoolean();
+        bunker.readCheckpoint(reader);
+        reader.readChanges(speed.getTauToSpeedMap());
+        reader.readChanges(density.getTauToDensityMap());
+        reader.readChanges(inputFlow.getInputFlowMap());
+        if (reader.readBoolean()) {
+            reader.readChanges(getOrCreateBunkerOutputFlow().getOutputFlowMap());
+        }
+        reader.readChanges(outputFlow.getTauToFlowOutputMap());
+        transportDelay.readCheckpoint(reader);
+    }
+
+    /**
+     * Adds a planned output from the bunker at {@code tau}. A conveyor without planned output flow gets one;
+     * until then it plans the max available output of its bunker.
+     *
+     * @param tau   the tau of the planned output.
+     * @param value the planned output from the bunker.
+     */
+    public void addPlannedBunkerOutput(double tau, double value) {
+        getOrCreateBunkerOutputFlow().setValue(tau, value);
+    }
+
+    private BunkerOutputFlow getOrCreateBunkerOutputFlow() {
+        if (Objects.isNull(bunkerOutputFlow)) {
+            bunkerOutputFlow = new BunkerOutputFlow(null);
+            bunkerOutputFlow.setTimeAxis(speed.getTauToSpeedMap().getTimeAxis());
+        }
+        return bunkerOutputFlow;
+    }
+
     private double calculateDensity(double tau, double speed) {
         return speed == 0.0
                 ? density.getMaxAvailableDensity() : this.bunker.getOutputFlowFromBunkerToConveyorBelt(tau) / speed;
@@ -146,7 +328,7 @@ public class Conveyor {
 
     private TreeMap<Double, Double> getDensityByLength(Conveyor conveyor, double tau) {
         var densityMap = new TreeMap<Double, Double>();
-        conveyor.getInitialDensity().getDensityMap().keySet().forEach(
+        conveyor.getInitialDensity().getDensityMap().keys().forEach(
                 key -> {
                     var delay = conveyor.getTransportDelay().getDelayByDeltaDistance(key);
                     var reversibleConveyorDensity = conveyor.getDensity();
@@ -0,0 +1,361 @@
+package org.pom;
+
+import lombok.Getter;
+import org.pom.utils.FixedPointFormatter;
+import org.pom.utils.io.PipelinedOutputStream;
+import org.pom.utils.io.csv.read.DecimalParser;
+import org.pom.utils.io.csv.write.CsvRowWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the results of a transport system to a CSV file one row per computed tick, see
+ * {@link AbstractResultWriter}. The cells are laid out like the tables of
+ * {@link org.pom.utils.io.csv.write.CsvWriterP}; a cell is empty if the conveyor has no value at the tau of the row.
+ * The file may be compressed with GZIP on a dedicated thread, see {@link PipelinedOutputStream#gzip(Path, int)}.
+ * <p>
+ * The rows may be formatted on several threads: they are then collected into a buffer of about
+ * {@link #BUFFER_BYTES} bytes, and at least {@link CsvRowWriter#BLOCK_ROWS} rows, whose blocks of rows are
+ * formatted concurrently on a {@link ForkJoinPool} and written in order, see {@link CsvRowWriter#writeRows}. The pool
+ * may be shared by several writers, e.g. by the segments of an output. The file is the same as the one formatted by
+ * a single thread.
+ * <p>
+ * The file of a resumed run is continued instead of written again, see {@link #append}.
+ */
+public class CsvResultWriter extends AbstractResultWriter {
+    private static final char DELIMITER = ';';
+    private static final int SCAN_BYTES = 1 << 13;
+    private static final int MAX_TAU_CELL_BYTES = 64;
+    /**
+     * The result of {@link #findRow} for a tau cell that is the formatted value of more than one tau.
+     */
+    private static final int AMBIGUOUS_ROW = -2;
+    /**
+     * The bytes of the values of the rows collected before they are formatted on several threads.
+     */
+    static final int BUFFER_BYTES = 1 << 23;
+
+    private final CsvRowWriter writer;
+    private final ForkJoinPool pool;
+    private final int columnCount;
+    private final double[] bufferValues;
+    private final boolean[] bufferPresent;
+    private final int bufferCapacity;
+    private int bufferRows;
+    /**
+     * The number of the first taus whose rows in the existing file, if they are in the tau window, are kept.
+     */
+    @Getter
+    private final int keptTaus;
+
+    /**
+     * Writes the header row. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file       the CSV file.
+     * @param locale     the locale the values are formatted with.
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param conveyors  the conveyors of the transport system.
+     * @throws IOException if the file cannot be written.
+     */
+    public CsvResultWriter(Path file, Locale locale, String cellFormat, List<Conveyor> conveyors) throws IOException {
+        this(file, Deflater.NO_COMPRESSION, null, locale, cellFormat, ResultSelection.ALL, conveyors);
+    }
+
+    /**
+     * Writes the header row. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file             the CSV file, or the GZIP file if the file is compressed.
+     * @param compressionLevel {@link Deflater#NO_COMPRESSION} to write the CSV file as it is, or the level of the
+     *                         GZIP compression, from 1 (fastest) to 9 (smallest).
+     * @param locale           the locale the values are formatted with.
+     * @param cellFormat       the format of a value, e.g. {@code %8.5f}.
+     * @param selection        the selection of the columns and the taus written.
+     * @param conveyors        the conveyors of the transport system.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the compression level is not valid.
+     */
+    public CsvResultWriter(Path file, int compressionLevel, Locale locale, String cellFormat,
+                           ResultSelection selection, List<Conveyor> conveyors) throws IOException {
+        this(file, compressionLevel, null, locale, cellFormat, selection, conveyors);
+    }
+
+    /**
+     * Writes the header row. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file             the CSV file, or the GZIP file if the file is compressed.
+     * @param compressionLevel {@link Deflater#NO_COMPRESSION} to write the CSV file as it is, or the level of the
+     *                         GZIP compression, from 1 (fastest) to 9 (smallest).
+     * @param pool             the pool formatting the rows, see {@link #newPool(int)}, or {@code null} to format them
+     *                         on the thread writing them; the writer does not shut it down.
+     * @param locale           the locale the values are formatted with.
+     * @param cellFormat       the format of a value, e.g. {@code %8.5f}.
+     * @param selection        the selection of the columns and the taus written.
+     * @param conveyors        the conveyors of the transport system.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the compression level is not valid.
+     */
+    public CsvResultWriter(Path file, int compressionLevel, ForkJoinPool pool, Locale locale, String cellFormat,
+                           ResultSelection selection, List<Conveyor> conveyors) throws IOException {
+        super(conveyors, selection);
+        this.writer = compressionLevel == Deflater.NO_COMPRESSION
+                ? new CsvRowWriter(file, DELIMITER, locale, cellFormat, getHeaders())
+                : new CsvRowWriter(new BufferedWriter(new OutputStreamWriter(
+                        PipelinedOutputStream.gzip(file, compressionLevel), StandardCharsets.UTF_8)),
+                        DELIMITER, locale, cellFormat, getHeaders());
+        this.keptTaus = 0;
+        this.columnCount = getHeaders().size();
+        this.pool = pool;
+        this.bufferCapacity = Objects.isNull(pool) ? 0 : getBufferCapacity(columnCount);
+        this.bufferValues = Objects.isNull(pool) ? null : new double[bufferCapacity * columnCount];
+        this.bufferPresent = Objects.isNull(pool) ? null : new boolean[bufferCapacity * columnCount];
+    }
+
+    private CsvResultWriter(Path file, List<Double> taus, double beforeTau, ForkJoinPool pool, Locale locale,
+                            String cellFormat, ResultSelection selection, List<Conveyor> conveyors)
+            throws IOException {
+        super(conveyors, selection);
+        var kept = Files.exists(file) ? findKeptRows(file, taus, beforeTau, locale, cellFormat) : null;
+        CsvRowWriter rowWriter = null;
+        if (Objects.nonNull(kept)) {
+            try {
+                rowWriter = CsvRowWriter.append(file, kept[0], DELIMITER, locale, cellFormat, getHeaders());
+            } catch (IllegalStateException e) {
+                rowWriter = null;
+            }
+        }
+        this.writer = Objects.isNull(rowWriter)
+                ? new CsvRowWriter(file, DELIMITER, locale, cellFormat, getHeaders())
+                : rowWriter;
+        this.keptTaus = Objects.isNull(rowWriter) ? 0 : (int) kept[1];
+        this.columnCount = getHeaders().size();
+        this.pool = pool;
+        this.bufferCapacity = Objects.isNull(pool) ? 0 : getBufferCapacity(columnCount);
+        this.bufferValues = Objects.isNull(pool) ? null : new double[bufferCapacity * columnCount];
+        this.bufferPresent = Objects.isNull(pool) ? null : new boolean[bufferCapacity * columnCount];
+    }
+
+    /**
+     * Continues the CSV file of a resumed run. The rows are written for the taus in order, so the file holds the
+     * rows of the first taus; the complete rows of the taus before {@code beforeTau}, e.g. the tau of the restored
+     * checkpoint, are the rows the resumed run would write, and are kept. The rows after them are removed and the
+     * resumed run passes the ticks from the tau at index {@link #getKeptTaus()} on. The file is searched from its end,
+     * so only the rows written after the kept ones are read. A file that does not exist, has other columns or whose
+     * cell format gives neighbouring taus the same text is written anew.
+     *
+     * @param file       the CSV file.
+     * @param taus       the taus of the transport system, in increasing order.
+     * @param beforeTau  the tau up to which, excluded, the rows are kept.
+     * @param locale     the locale the values are formatted with.
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param selection  the selection of the columns and the taus written.
+     * @param conveyors  the conveyors of the transport system.
+     * @return the writer of the next rows.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public static CsvResultWriter append(Path file, List<Double> taus, double beforeTau, Locale locale,
+                                         String cellFormat, ResultSelection selection, List<Conveyor> conveyors)
+            throws IOException {
+        return append(file, taus, beforeTau, null, locale, cellFormat, selection, conveyors);
+    }
+
+    /**
+     * Continues the CSV file of a resumed run, see {@link #append(Path, List, double, Locale, String,
+     * ResultSelection, List)}.
+     *
+     * @param file          the CSV file.
+     * @param taus          the taus of the transport system, in increasing order.
+     * @param beforeTau     the tau up to which, excluded, the rows are kept.
+     * @param pool          the pool formatting the rows, see {@link #newPool(int)}, or {@code null} to format them on
+     *                      the thread writing them; the writer does not shut it down.
+     * @param locale        the locale the values are formatted with.
+     * @param cellFormat    the format of a value, e.g. {@code %8.5f}.
+     * @param selection     the selection of the columns and the taus written.
+     * @param conveyors     the conveyors of the transport system.
+     * @return the writer of the next rows.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public static CsvResultWriter append(Path file, List<Double> taus, double beforeTau, ForkJoinPool pool,
+                                         Locale locale, String cellFormat, ResultSelection selection,
+                                         List<Conveyor> conveyors) throws IOException {
+        return new CsvResultWriter(file, taus, beforeTau, pool, locale, cellFormat, selection, conveyors);
+    }
+
+    /**
+     * @param formatThreads the threads formatting the rows: {@code 1} for the thread writing them, {@code 0} for
+     *                      one per available processor.
+     * @return the pool formatting the rows, or {@code null} if they are formatted by the thread writing them.
+     * @throws IllegalArgumentException if {@code formatThreads} is negative.
+     */
+    public static ForkJoinPool newPool(int formatThreads) {
+        if (formatThreads < 0) {
+            throw new IllegalArgumentException("The format threads must be non-negative: " + formatThreads);
+        }
+        var threadCount = formatThreads == 0 ? Runtime.getRuntime().availableProcessors() : formatThreads;
+        return threadCount == 1 ? null : new ForkJoinPool(threadCount);
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        if (Objects.nonNull(pool)) {
+            System.arraycopy(values, 0, bufferValues, bufferRows * columnCount, columnCount);
+            System.arraycopy(present, 0, bufferPresent, bufferRows * columnCount, columnCount);
+            if (++bufferRows == bufferCapacity) {
+                writeBufferedRows();
+            }
+            return;
+        }
+        for (int column = 0; column < values.length; column++) {
+            if (present[column]) {
+                writer.appendValue(values[column]);
+            } else {
+                writer.appendEmpty();
+            }
+        }
+        writer.endRow();
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        writeBufferedRows();
+        writer.flush();
+    }
+
+    /**
+     * @return the number of characters of the rows written so far, including the header row; the rows not formatted
+     * yet are counted at the widths of their columns.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writer.getWrittenChars() + (long) bufferRows * writer.getRowWidth();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        try {
+            writeBufferedRows();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeBufferedRows() throws IOException {
+        if (bufferRows > 0) {
+            writer.writeRows(bufferValues, bufferPresent, bufferRows, pool);
+            bufferRows = 0;
+        }
+    }
+
+    /**
+     * @return the rows of the buffer: whole blocks of rows whose values and presence flags take about
+     * {@link #BUFFER_BYTES} bytes, and at least one block.
+     */
+    private static int getBufferCapacity(int columnCount) {
+        var rows = BUFFER_BYTES / ((long) columnCount * (Double.BYTES + 1));
+        return (int) Math.max(rows / CsvRowWriter.BLOCK_ROWS, 1) * CsvRowWriter.BLOCK_ROWS;
+    }
+
+    /**
+     * Searches the file from its end for the last complete row whose tau cell is the formatted tau of a row
+     * before {@code beforeTau}.
+     *
+     * @return the end of the row and the number of taus up to its tau, the end of the header row and 0, or
+     * {@code null} if the file is to be written anew: no header row is found, or the tau cell of the row is also the
+     * formatted value of a neighbouring tau, so the row of the tau cannot be told from the file.
+     */
+    private static long[] findKeptRows(Path file, List<Double> taus, double beforeTau, Locale locale,
+                                       String cellFormat) throws IOException {
+        var formatter = FixedPointFormatter.compile(cellFormat, locale);
+        var parser = new DecimalParser(locale);
+        var cell = ByteBuffer.allocate(MAX_TAU_CELL_BYTES);
+        var buffer = ByteBuffer.allocate(SCAN_BYTES);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var lineEnd = previousLineFeed(channel, channel.size(), buffer) + 1;
+            while (lineEnd > 0) {
+                var lineStart = previousLineFeed(channel, lineEnd - 1, buffer) + 1;
+                if (lineStart == 0) {
+                    return new long[]{lineEnd, 0};
+                }
+                cell.clear().limit((int) Math.min(MAX_TAU_CELL_BYTES, lineEnd - lineStart));
+                while (cell.hasRemaining()) {
+                    if (channel.read(cell, lineStart + cell.position()) < 0) {
+                        break;
+                    }
+                }
+                var row = findRow(cell.flip(), taus, beforeTau, formatter, parser);
+                if (row == AMBIGUOUS_ROW) {
+                    return null;
+                }
+                if (row >= 0) {
+                    return new long[]{lineEnd, row + 1};
+                }
+                lineEnd = lineStart;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * @return the index of the tau before {@code beforeTau} whose formatted value is the first cell of the line,
+     * {@link #AMBIGUOUS_ROW} if a neighbouring tau has the same formatted value, e.g. if the cell format has fewer
+     * decimals than deltaTau, or -1.
+     */
+    private static int findRow(ByteBuffer line, List<Double> taus, double beforeTau, FixedPointFormatter formatter,
+                               DecimalParser parser) {
+        var end = 0;
+        while (end < line.limit() && line.get(end) != DELIMITER) {
+            end++;
+        }
+        var text = StandardCharsets.UTF_8.decode(line.slice(0, end)).toString().trim();
+        double value;
+        try {
+            value = parser.parse(text, 0, text.length());
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        var index = Collections.binarySearch(taus, value);
+        var insertion = index >= 0 ? index : -index - 1;
+        for (int row = Math.max(0, insertion - 1); row <= Math.min(taus.size() - 1, insertion); row++) {
+            if (taus.get(row) < beforeTau && formatter.format(taus.get(row)).trim().equals(text)) {
+                var isAmbiguous = row > 0 && formatter.format(taus.get(row - 1)).trim().equals(text)
+                        || row + 1 < taus.size() && formatter.format(taus.get(row + 1)).trim().equals(text);
+                return isAmbiguous ? AMBIGUOUS_ROW : row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the last line feed before {@code end}, or -1.
+     */
+    private static long previousLineFeed(FileChannel channel, long end, ByteBuffer buffer) throws IOException {
+        for (var blockEnd = end; blockEnd > 0; blockEnd -= buffer.capacity()) {
+            var blockStart = Math.max(0, blockEnd - buffer.capacity());
+            buffer.clear().limit((int) (blockEnd - blockStart));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, blockStart + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return blockStart + i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.ConveyorUtil;
 import org.pom.utils.MathUtil;
 import org.pom.utils.ParametersValidator;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.*;
 
@@ -16,12 +18,27 @@ import java.util.*;
 public class Density implements KeysValuesProvider<Double> {
     @Getter
     private final double maxAvailableDensity;
-    private final TreeMap<Double, Double> tauToDensityMap;
+    @Getter
+    private final DoubleSeries tauToDensityMap;
 
     @JsonCreator
     public Density(@JsonProperty("maxAvailableDensity") double maxAvailableDensity) {
+        this(maxAvailableDensity, new DoubleSeries());
+    }
+
+    private Density(double maxAvailableDensity, DoubleSeries tauToDensityMap) {
         this.maxAvailableDensity = maxAvailableDensity;
-        this.tauToDensityMap = new TreeMap<>();
+        this.tauToDensityMap = tauToDensityMap;
+    }
+
+    /**
+     * Copies the densities from {@code fromTau} on.
+     *
+     * @param fromTau The earliest tau to copy.
+     * @return A new density with the same maximum.
+     */
+    public Density copy(double fromTau) {
+        return new Density(maxAvailableDensity, tauToDensityMap.copy(fromTau));
     }
 
     public void addParametersValues(double tau, double density) {
@@ -53,14 +70,23 @@ public class Density implements KeysValuesProvider<Double> {
         return MathUtil.getValueByKey(tauToDensityMap, tau);
     }
 
+    /**
+     * Aligns the stored values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        tauToDensityMap.setTimeAxis(timeAxis);
+    }
+
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(tauToDensityMap.values());
+        return tauToDensityMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return Collections.unmodifiableCollection(tauToDensityMap.keySet());
+        return tauToDensityMap.keys();
     }
 
     public void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTime, List<Double> taus) {
@@ -0,0 +1,80 @@
+package org.pom;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the results of a transport system to several result writers in one pass, e.g. a CSV file, a binary file
+ * and the statistics of the columns, so that the rows are read from the conveyors once and no output has to be
+ * computed again from another one.
+ * <p>
+ * Every row is passed to the writers in order. A writer wrapped in an {@link AsyncResultWriter} only copies the row
+ * into its own bounded queue and writes it on its own thread, so a slow writer holds up the others only when its
+ * queue is full. The writers are closed in order, all of them even if one fails.
+ */
+public class FanOutResultWriter extends AbstractResultWriter {
+    private final List<AbstractResultWriter> writers;
+
+    /**
+     * @param writers   the writers the rows are written with; they have the same columns and selection and are
+     *                  called by this writer only.
+     * @param conveyors the conveyors of the transport system, those the writers were created with.
+     * @throws IllegalArgumentException if there is no writer or the writers have different columns.
+     */
+    public FanOutResultWriter(List<AbstractResultWriter> writers, List<Conveyor> conveyors) {
+        super(conveyors, writers.isEmpty() ? ResultSelection.ALL : writers.get(0).getSelection());
+        if (writers.isEmpty()) {
+            throw new IllegalArgumentException("There is no result writer to fan out to.");
+        }
+        writers.stream()
+                .filter(writer -> !writer.getHeaders().equals(getHeaders()))
+                .findFirst()
+                .ifPresent(writer -> {
+                    throw new IllegalArgumentException("The result writers have different columns: "
+                            + writer.getHeaders() + " and " + getHeaders());
+                });
+        this.writers = List.copyOf(writers);
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        for (var writer : writers) {
+            writer.writeRow(values, present);
+        }
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        for (var writer : writers) {
+            writer.flushRows();
+        }
+    }
+
+    /**
+     * @return the number of bytes written by every writer so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writers.stream().mapToLong(AbstractResultWriter::getWrittenBytes).sum();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        IOException failure = null;
+        for (var writer : writers) {
+            try {
+                writer.closeOutput();
+            } catch (IOException | RuntimeException e) {
+                var exception = e instanceof IOException ? (IOException) e : new IOException(e);
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.pom;
+
+/**
+ * Receives the values of a conveyor before they are evicted from a transport system with bounded history,
+ * see {@link TransportSystem#setHistorySink(HistorySink)}.
+ */
+@FunctionalInterface
+public interface HistorySink {
+    /**
+     * Evicts the values without passing them anywhere.
+     */
+    HistorySink DROP = (conveyor, fromTau, toTau) -> {
+    };
+
+    /**
+     * Called before the values of the conveyor for the taus in {@code [fromTau, toTau]} are evicted. The values are
+     * complete and can still be read, e.g. {@code conveyor.getBunker().getCapacityAtTau(tau)}.
+     *
+     * @param conveyor the conveyor.
+     * @param fromTau  the first evicted tau.
+     * @param toTau    the last evicted tau.
+     */
+    void onEvict(Conveyor conveyor, double fromTau, double toTau);
+}
@@ -5,33 +5,35 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Getter;
 import org.pom.utils.MathUtil;
+import org.pom.utils.series.DoubleSeries;
+
 import java.util.*;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class InitialDensity implements KeysValuesProvider<Double> {
     @Getter
-    private TreeMap<Double, Double> densityMap;
+    private DoubleSeries densityMap;
 
     @JsonCreator
     public InitialDensity(@JsonProperty("density") TreeMap<Double, Double> density) {
-        this.densityMap = density;
+        this.densityMap = DoubleSeries.of(density);
     }
 
-    public void setValues(TreeMap<Double, Double> densityMap) {
+    public void setValues(DoubleSeries densityMap) {
         this.densityMap = densityMap;
     }
 
-    public Double getDensityAtDistance(double deltaDistance) {
+    public double getDensityAtDistance(double deltaDistance) {
         return MathUtil.getValueByKey(densityMap, deltaDistance);
     }
 
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(densityMap.values());
+        return densityMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return Collections.unmodifiableCollection(densityMap.keySet());
+        return densityMap.keys();
     }
 }
@@ -4,46 +4,82 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Getter;
 import lombok.Setter;
 import org.pom.utils.ConveyorUtil;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
-import java.util.TreeMap;
 
 @Getter
 @Setter
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class InputFlow  implements KeysValuesProvider<Double> {
-    private TreeMap<Double, Double> inputFlowMap;
+    private DoubleSeries inputFlowMap;
 
     public InputFlow() {
-        this.inputFlowMap = new TreeMap<>();
+        this.inputFlowMap = new DoubleSeries();
+    }
+
+    /**
+     * Copies the input flows of the taus in {@code [fromTau, toTau]}, see {@link DoubleSeries#copy(double, double)}.
+     *
+     * @param fromTau The earliest tau to copy.
+     * @param toTau   The latest tau to look up in the copy.
+     * @return A new input flow.
+     */
+    public InputFlow copy(double fromTau, double toTau) {
+        var copy = new InputFlow();
+        copy.inputFlowMap = inputFlowMap.copy(fromTau, toTau);
+        return copy;
+    }
+
+    /**
+     * Aligns the stored values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        inputFlowMap.setTimeAxis(timeAxis);
     }
 
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(inputFlowMap.values());
+        return inputFlowMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return  Collections.unmodifiableCollection(inputFlowMap.keySet());
+        return inputFlowMap.keys();
     }
 
     public Double getValue(Double tau) {
-        return this.inputFlowMap.get(tau);
+        var index = this.inputFlowMap.indexOf(tau);
+        return index < 0 ? null : this.inputFlowMap.valueAt(index);
+    }
+
+    /**
+     * Retrieves the input flow at the specified tau value.
+     *
+     * @param tau          The tau value.
+     * @param defaultValue The value returned when no input flow is stored for {@code tau}.
+     * @return The input flow at {@code tau}, or {@code defaultValue} if it is absent.
+     */
+    public double getValueOrDefault(double tau, double defaultValue) {
+        var index = this.inputFlowMap.indexOf(tau);
+        return index < 0 ? defaultValue : this.inputFlowMap.valueAt(index);
     }
 
-    public void setValue(Double tau, Double value) {
+    public void setValue(double tau, double value) {
         this.inputFlowMap.put(tau, value);
     }
 
-    public void setValues(TreeMap<Double, Double> inputFlowMap) {
+    public void setValues(DoubleSeries inputFlowMap) {
+        inputFlowMap.setTimeAxis(this.inputFlowMap.getTimeAxis());
         this.inputFlowMap = inputFlowMap;
     }
 
     public int size() {
-        return  inputFlowMap.values().size();
+        return inputFlowMap.size();
     }
 
     public void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTime, List<Double> taus) {
@@ -0,0 +1,79 @@
+package org.pom;
+
+import org.pom.utils.io.npy.NpyColumnsWriter;
+import org.pom.utils.io.npy.NpzWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the results of a transport system as NumPy arrays one row per computed tick, see
+ * {@link AbstractResultWriter}: a {@code .npy} file per column in a directory, or one {@code .npz} archive,
+ * uncompressed or compressed. The arrays are named after the headers of the CSV output and a value the conveyor
+ * does not have at the tau of the row is NaN.
+ */
+public class NpyResultWriter extends AbstractResultWriter {
+    private final NpyColumnsWriter writer;
+    private long writtenBytes;
+
+    /**
+     * Creates the files. The columns are chosen from the conveyors as they are now.
+     *
+     * @param path      the directory of the {@code .npy} files, or the {@code .npz} file.
+     * @param isArchive {@code true} to write one {@code .npz} archive.
+     * @param conveyors the conveyors of the transport system.
+     * @throws IOException if the files cannot be written.
+     */
+    public NpyResultWriter(Path path, boolean isArchive, List<Conveyor> conveyors) throws IOException {
+        this(path, isArchive, Deflater.NO_COMPRESSION, ResultSelection.ALL, conveyors);
+    }
+
+    /**
+     * Creates the files. The columns are chosen from the conveyors as they are now.
+     *
+     * @param path             the directory of the {@code .npy} files, or the {@code .npz} file.
+     * @param isArchive        {@code true} to write one {@code .npz} archive.
+     * @param compressionLevel the compression level of the archive, see {@link NpzWriter}.
+     * @param selection        the selection of the columns and the taus written.
+     * @param conveyors        the conveyors of the transport system.
+     * @throws IOException              if the files cannot be written.
+     * @throws IllegalArgumentException if the {@code .npy} files are to be compressed, or the compression level
+     *                                  is not valid.
+     */
+    public NpyResultWriter(Path path, boolean isArchive, int compressionLevel, ResultSelection selection,
+                           List<Conveyor> conveyors) throws IOException {
+        super(conveyors, selection);
+        if (!isArchive && compressionLevel != Deflater.NO_COMPRESSION) {
+            throw new IllegalArgumentException("The .npy files cannot be compressed, only an .npz archive can.");
+        }
+        this.writer = isArchive
+                ? new NpzWriter(path, getHeaders(), compressionLevel)
+                : new NpyColumnsWriter(path, getHeaders());
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        writer.writeRow(values);
+        writtenBytes += (long) values.length * Double.BYTES;
+    }
+
+    /**
+     * @return the number of bytes of the values written so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        writer.close();
+    }
+}
@@ -5,13 +5,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.ConveyorUtil;
 import org.pom.utils.MathUtil;
 import org.pom.utils.ParametersValidator;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.*;
 
 /**
  * The OutputFlow class calculates and manages the output flow values of a transport system
  * based on provided bunker flow rates, speed, initial density, and transport delay mappings.
- * The class uses a TreeMap to maintain a mapping of tau values to output flow values and
+ * The class uses a {@link DoubleSeries} to maintain a mapping of tau values to output flow values and
  * provides methods to add new flow values or retrieve existing ones. It also contains helper methods
  * for flow calculations based on delay or initial density.
  */
@@ -22,7 +24,7 @@ public class OutputFlow implements KeysValuesProvider<Double> {
     private final InitialDensity initialDensity;
     private final TransportDelay delay;
     @Getter
-    private final TreeMap<Double, Double> tauToFlowOutputMap;
+    private final DoubleSeries tauToFlowOutputMap;
 
     public OutputFlow() {
         this(null, null, null, null);
@@ -41,10 +43,35 @@ public class OutputFlow implements KeysValuesProvider<Double> {
         this.speed = speed;
         this.initialDensity = initialDensity;
         this.delay = transportDelay;
-        this.tauToFlowOutputMap = new TreeMap<>();
+        this.tauToFlowOutputMap = new DoubleSeries();
         log.debug("OutputFlow initialized with Bunker, Speed, InitialDensity, and TransportDelay dependencies.");
     }
 
+    private OutputFlow(Bunker bunker, Speed speed, InitialDensity initialDensity, TransportDelay transportDelay,
+                       DoubleSeries tauToFlowOutputMap) {
+        this.bunker = bunker;
+        this.speed = speed;
+        this.initialDensity = initialDensity;
+        this.delay = transportDelay;
+        this.tauToFlowOutputMap = tauToFlowOutputMap;
+    }
+
+    /**
+     * Copies the output flows from {@code fromTau} on into an output flow computed from the given dependencies.
+     *
+     * @param bunker         The bunker of the copy.
+     * @param speed          The speed of the copy.
+     * @param initialDensity The initialDensity of the copy.
+     * @param transportDelay The TransportDelay of the copy.
+     * @param fromTau        The earliest tau to copy.
+     * @return A new output flow.
+     */
+    public OutputFlow copy(Bunker bunker, Speed speed, InitialDensity initialDensity, TransportDelay transportDelay,
+                           double fromTau) {
+        return new OutputFlow(bunker, speed, initialDensity, transportDelay,
+                tauToFlowOutputMap.copy(fromTau));
+    }
+
     /**
      * Adds a new output flow value for a given tau and delay tau.
      *
@@ -67,7 +94,7 @@ public class OutputFlow implements KeysValuesProvider<Double> {
      * @param tau The tau value.
      * @return The output flow corresponding to the given tau value.
      */
-    public Double getOutputFlowAtTau(double tau) {
+    public double getOutputFlowAtTau(double tau) {
         return MathUtil.getValueByKey(this.tauToFlowOutputMap, tau);
     }
 
@@ -81,14 +108,23 @@ public class OutputFlow implements KeysValuesProvider<Double> {
                 * this.speed.getSpeedAtTau(tau);
     }
 
+    /**
+     * Aligns the stored values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        tauToFlowOutputMap.setTimeAxis(timeAxis);
+    }
+
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(tauToFlowOutputMap.values());
+        return tauToFlowOutputMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return  Collections.unmodifiableCollection(tauToFlowOutputMap.keySet());
+        return tauToFlowOutputMap.keys();
     }
 
     public Double lastKey() {
@@ -0,0 +1,25 @@
+package org.pom;
+
+/**
+ * The format of the results the batch processing of a transport system writes to its output data path.
+ */
+public enum OutputFormat {
+    /**
+     * A CSV file, see {@link CsvResultWriter}.
+     */
+    CSV,
+    /**
+     * A columnar binary file with the extension {@code .bin}, see {@link BinaryResultWriter}, or a compressed one
+     * with the extension {@code .binz}, see {@link CompressedBinaryResultWriter}.
+     */
+    BINARY,
+    /**
+     * A directory named like the output file without its extension, with a NumPy {@code .npy} file per column,
+     * see {@link NpyResultWriter}.
+     */
+    NPY,
+    /**
+     * A NumPy archive with the extension {@code .npz}, uncompressed or compressed, see {@link NpyResultWriter}.
+     */
+    NPZ
+}
@@ -0,0 +1,151 @@
+package org.pom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregates the rows of the ticks into buckets of {@code bucketTau}, so that a long run at a fine tau step gives a
+ * small table that still shows the peaks of every column.
+ * <p>
+ * A bucket holds the ticks whose tau divided by {@code bucketTau} has the same integer part. Its row holds the tau
+ * of its first tick and, for every other column, the minimum, the maximum, the mean and the last of the values the
+ * column has in the bucket, in the columns {@code <header>.min}, {@code <header>.max}, {@code <header>.mean} and
+ * {@code <header>.last}. A column without values in the bucket has none of them. The rows are aggregated as they
+ * come, with a few values per column, and a bucket is complete when a tick of the next bucket is added. An instance
+ * is not thread-safe.
+ */
+public class ResultBuckets {
+    /**
+     * The suffixes of the headers of the aggregated columns, in the order of the columns.
+     */
+    public static final List<String> STATISTICS = List.of("min", "max", "mean", "last");
+    /**
+     * Keeps a tau that is a multiple of the bucket width in its bucket despite rounding.
+     */
+    private static final double BUCKET_MARGIN = 1.0e-9;
+
+    private final double bucketTau;
+    private final int columnCount;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final int[] count;
+    private final double[] last;
+    private double bucketStartTau = Double.NaN;
+    private long bucket;
+
+    /**
+     * @param bucketTau   the width of a bucket.
+     * @param columnCount the number of columns of a row, the first one is the tau.
+     * @throws IllegalArgumentException if {@code bucketTau} is not positive.
+     */
+    public ResultBuckets(double bucketTau, int columnCount) {
+        if (!(bucketTau > 0.0)) {
+            throw new IllegalArgumentException("The width of a bucket must be positive: " + bucketTau);
+        }
+        this.bucketTau = bucketTau;
+        this.columnCount = columnCount;
+        this.min = new double[columnCount];
+        this.max = new double[columnCount];
+        this.sum = new double[columnCount];
+        this.count = new int[columnCount];
+        this.last = new double[columnCount];
+    }
+
+    /**
+     * @param headers the headers of the columns of a row, the first one is the tau.
+     * @return the headers of the columns of a bucket.
+     */
+    public static List<String> getHeaders(List<String> headers) {
+        var bucketHeaders = new ArrayList<String>();
+        bucketHeaders.add(headers.get(0));
+        headers.subList(1, headers.size()).forEach(header ->
+                STATISTICS.forEach(statistic -> bucketHeaders.add(header + "." + statistic)));
+        return Collections.unmodifiableList(bucketHeaders);
+    }
+
+    /**
+     * @return the number of columns of a bucket.
+     */
+    public int size() {
+        return 1 + (columnCount - 1) * STATISTICS.size();
+    }
+
+    /**
+     * Adds the row of a tick. If the tick starts a new bucket, the row of the previous bucket is read first.
+     *
+     * @param tau           the tau of the tick, not less than the tau of the previous tick.
+     * @param values        the values of the row; a column without a value holds NaN.
+     * @param present       {@code true} for every column that has a value.
+     * @param bucketValues  the array receiving the values of the completed bucket, of {@link #size()} elements.
+     * @param bucketPresent the array receiving {@code true} for every column of the completed bucket that has a value.
+     * @return {@code true} if a bucket is completed and read into the arrays.
+     */
+    public boolean add(double tau, double[] values, boolean[] present, double[] bucketValues,
+                       boolean[] bucketPresent) {
+        var tauBucket = (long) Math.floor(tau / bucketTau + BUCKET_MARGIN);
+        var isCompleted = !Double.isNaN(bucketStartTau) && tauBucket != bucket;
+        if (isCompleted) {
+            read(bucketValues, bucketPresent);
+        }
+        if (Double.isNaN(bucketStartTau)) {
+            bucketStartTau = tau;
+            bucket = tauBucket;
+        }
+        for (int column = 1; column < columnCount; column++) {
+            if (!present[column]) {
+                continue;
+            }
+            var value = values[column];
+            if (count[column] == 0) {
+                min[column] = value;
+                max[column] = value;
+            } else {
+                min[column] = Math.min(min[column], value);
+                max[column] = Math.max(max[column], value);
+            }
+            sum[column] += value;
+            count[column]++;
+            last[column] = value;
+        }
+        return isCompleted;
+    }
+
+    /**
+     * Reads the row of the last bucket, if it has a tick.
+     *
+     * @param bucketValues  the array receiving the values of the bucket, of {@link #size()} elements.
+     * @param bucketPresent the array receiving {@code true} for every column of the bucket that has a value.
+     * @return {@code true} if a bucket is read into the arrays.
+     */
+    public boolean finish(double[] bucketValues, boolean[] bucketPresent) {
+        if (Double.isNaN(bucketStartTau)) {
+            return false;
+        }
+        read(bucketValues, bucketPresent);
+        return true;
+    }
+
+    /**
+     * Reads the row of the current bucket and starts the next one.
+     */
+    private void read(double[] bucketValues, boolean[] bucketPresent) {
+        bucketValues[0] = bucketStartTau;
+        bucketPresent[0] = true;
+        var index = 1;
+        for (int column = 1; column < columnCount; column++) {
+            var hasValues = count[column] > 0;
+            bucketValues[index] = hasValues ? min[column] : Double.NaN;
+            bucketValues[index + 1] = hasValues ? max[column] : Double.NaN;
+            bucketValues[index + 2] = hasValues ? sum[column] / count[column] : Double.NaN;
+            bucketValues[index + 3] = hasValues ? last[column] : Double.NaN;
+            Arrays.fill(bucketPresent, index, index + STATISTICS.size(), hasValues);
+            index += STATISTICS.size();
+        }
+        Arrays.fill(sum, 0.0);
+        Arrays.fill(count, 0);
+        bucketStartTau = Double.NaN;
+    }
+}
@@ -0,0 +1,238 @@
+package org.pom;
+
+import org.pom.utils.series.DoubleSeries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The columns of the results of a transport system: the tau followed, for every conveyor, by its input flow,
+ * bunker parameters, speed, density, output flow, planned bunker output, output coefficients of its node and delay
+ * for the conveyor length. The headers are those of {@link Constants.ColumnsNames#generateHeader(int, String)}.
+ * <p>
+ * The columns are chosen from the conveyors when the instance is created, and only those of a
+ * {@link ResultSelection} are kept: a column that is not selected is never read. A row is read into arrays owned by
+ * the caller, so reading rows creates no objects apart from the lookups of the node coefficients. An instance is not
+ * thread-safe.
+ */
+public class ResultColumns {
+    private final List<ConveyorColumns> conveyorColumns = new ArrayList<>();
+    private final List<String> headers = new ArrayList<>();
+    private final double[] bunkerParameters = new double[Bunker.PARAMETERS_NAMES.size()];
+    private final Row row = new Row();
+
+    /**
+     * Every column.
+     *
+     * @param conveyors the conveyors of the transport system.
+     */
+    public ResultColumns(List<Conveyor> conveyors) {
+        this(conveyors, ResultSelection.ALL);
+    }
+
+    /**
+     * @param conveyors the conveyors of the transport system.
+     * @param selection the selection of the columns.
+     */
+    public ResultColumns(List<Conveyor> conveyors, ResultSelection selection) {
+        headers.add(Constants.ColumnsNames.TAU);
+        conveyors.forEach(conveyor -> {
+            var columns = new ConveyorColumns(conveyor, selection);
+            columns.addHeaders(headers);
+            conveyorColumns.add(columns);
+        });
+    }
+
+    /**
+     * @return the headers of the columns, the first one is the tau.
+     */
+    public List<String> getHeaders() {
+        return Collections.unmodifiableList(headers);
+    }
+
+    /**
+     * @return the number of columns.
+     */
+    public int size() {
+        return headers.size();
+    }
+
+    /**
+     * Reads the row of a tau. A column without a value at {@code tau} gets NaN and is marked as absent.
+     *
+     * @param tau     the tau of the row.
+     * @param values  the array receiving the values, of {@link #size()} elements.
+     * @param present the array receiving {@code true} for every column that has a value at {@code tau}.
+     */
+    public void read(double tau, double[] values, boolean[] present) {
+        row.start(values, present);
+        row.put(tau);
+        for (var columns : conveyorColumns) {
+            columns.read(tau, row);
+        }
+    }
+
+    /**
+     * @return {@code true} if the conveyor has the part holding the column and the column is selected.
+     */
+    private static boolean isSelected(Object part, ResultSelection selection, int id, String name) {
+        return Objects.nonNull(part) && selection.isSelected(Constants.ColumnsNames.generateHeader(id, name));
+    }
+
+    /**
+     * The cursor over the arrays a row is read into, reused for every row.
+     */
+    private static class Row {
+        private double[] values;
+        private boolean[] present;
+        private int column;
+
+        void start(double[] values, boolean[] present) {
+            this.values = values;
+            this.present = present;
+            this.column = 0;
+        }
+
+        void put(double value) {
+            values[column] = value;
+            present[column++] = true;
+        }
+
+        void putAbsent() {
+            values[column] = Double.NaN;
+            present[column++] = false;
+        }
+
+        void put(DoubleSeries series, double tau) {
+            var index = Objects.isNull(series) ? -1 : series.indexOf(tau);
+            if (index < 0) {
+                putAbsent();
+            } else {
+                put(series.valueAt(index));
+            }
+        }
+    }
+
+    /**
+     * The columns of one conveyor.
+     */
+    private class ConveyorColumns {
+        private final Conveyor conveyor;
+        private final boolean hasInputFlow;
+        private final boolean hasBunker;
+        private final boolean[] bunkerSelection;
+        private final boolean hasSpeed;
+        private final boolean hasDensity;
+        private final boolean hasOutputFlow;
+        private final boolean hasBunkerOutputFlow;
+        private final List<Integer> outputConveyorIds;
+        private final boolean hasTransportDelay;
+
+        ConveyorColumns(Conveyor conveyor, ResultSelection selection) {
+            var id = conveyor.getId();
+            this.conveyor = conveyor;
+            this.hasInputFlow = isSelected(conveyor.getInputFlow(), selection, id, Constants.ColumnsNames.INPUT_FLOW);
+            this.bunkerSelection = new boolean[Bunker.PARAMETERS_NAMES.size()];
+            var hasBunkerParameter = false;
+            for (int i = 0; i < bunkerSelection.length; i++) {
+                bunkerSelection[i] = isSelected(conveyor.getBunker(), selection, id, Bunker.PARAMETERS_NAMES.get(i));
+                hasBunkerParameter |= bunkerSelection[i];
+            }
+            this.hasBunker = hasBunkerParameter;
+            this.hasSpeed = isSelected(conveyor.getSpeed(), selection, id, Constants.ColumnsNames.SPEED);
+            this.hasDensity = isSelected(conveyor.getDensity(), selection, id, Constants.ColumnsNames.DENSITY);
+            this.hasOutputFlow = isSelected(conveyor.getOutputFlow(), selection, id,
+                    Constants.ColumnsNames.OUTPUT_FLOW);
+            this.hasBunkerOutputFlow = isSelected(conveyor.getBunkerOutputFlow(), selection, id,
+                    Constants.ColumnsNames.BUNKER_OUTPUT_FLOW);
+            this.outputConveyorIds = Objects.nonNull(conveyor.getConveyorNode())
+                    ? conveyor.getConveyorNode().getOutputConveyorFlowMap().keySet().stream()
+                    .filter(key -> selection.isSelected(Constants.ColumnsNames.generateHeader(
+                            id, Constants.JsonParametersNames.CONVEYOR_NODE, key)))
+                    .collect(Collectors.toList())
+                    : List.of();
+            this.hasTransportDelay = isSelected(conveyor.getTransportDelay(), selection, id,
+                    Constants.ColumnsNames.DELAY_FOR_CONVEYOR_LENGTH);
+        }
+
+        void addHeaders(List<String> headers) {
+            var id = conveyor.getId();
+            if (hasInputFlow) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.INPUT_FLOW));
+            }
+            for (int i = 0; i < bunkerSelection.length; i++) {
+                if (bunkerSelection[i]) {
+                    headers.add(Constants.ColumnsNames.generateHeader(id, Bunker.PARAMETERS_NAMES.get(i)));
+                }
+            }
+            if (hasSpeed) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.SPEED));
+            }
+            if (hasDensity) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.DENSITY));
+            }
+            if (hasOutputFlow) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.OUTPUT_FLOW));
+            }
+            if (hasBunkerOutputFlow) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.BUNKER_OUTPUT_FLOW));
+            }
+            outputConveyorIds.forEach(key -> headers.add(
+                    Constants.ColumnsNames.generateHeader(id, Constants.JsonParametersNames.CONVEYOR_NODE, key)));
+            if (hasTransportDelay) {
+                headers.add(Constants.ColumnsNames.generateHeader(id, Constants.ColumnsNames.DELAY_FOR_CONVEYOR_LENGTH));
+            }
+        }
+
+        void read(double tau, Row row) {
+            if (hasInputFlow) {
+                row.put(conveyor.getInputFlow().getInputFlowMap(), tau);
+            }
+            if (hasBunker) {
+                var bunker = conveyor.getBunker();
+                var hasParameters = bunker.hasParametersAtTau(tau);
+                if (hasParameters) {
+                    bunker.getParameters(tau, bunkerParameters, 0);
+                }
+                for (int i = 0; i < bunkerParameters.length; i++) {
+                    if (!bunkerSelection[i]) {
+                        continue;
+                    }
+                    if (hasParameters) {
+                        row.put(bunkerParameters[i]);
+                    } else {
+                        row.putAbsent();
+                    }
+                }
+            }
+            if (hasSpeed) {
+                row.put(conveyor.getSpeed().getTauToSpeedMap(), tau);
+            }
+            if (hasDensity) {
+                row.put(conveyor.getDensity().getTauToDensityMap(), tau);
+            }
+            if (hasOutputFlow) {
+                row.put(conveyor.getOutputFlow().getTauToFlowOutputMap(), tau);
+            }
+            if (hasBunkerOutputFlow) {
+                row.put(conveyor.getBunkerOutputFlow().getOutputFlowMap(), tau);
+            }
+            for (var key : outputConveyorIds) {
+                var value = conveyor.getConveyorNode().getOutputConveyorFlowMap()
+                        .getOrDefault(key, Map.of()).get(tau);
+                if (Objects.isNull(value)) {
+                    row.putAbsent();
+                } else {
+                    row.put(value);
+                }
+            }
+            if (hasTransportDelay) {
+                row.put(conveyor.getTransportDelay().getTauToDelayMap(), tau);
+            }
+        }
+    }
+}
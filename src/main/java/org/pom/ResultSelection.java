@@ -0,0 +1,122 @@
+package org.pom;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The part of the results of a transport system that is written: the columns whose headers match one of the
+ * column patterns, and the rows whose tau is in the tau window. A pattern is a header in which {@code *} matches any
+ * characters, e.g. {@code *.outputFlow} for the output flow of every conveyor or {@code 1.*} for every column of
+ * conveyor 1. The tau column is always written, so the rows can be found by their tau.
+ * <p>
+ * The rows may also be aggregated into buckets of {@code bucketTau}, see {@link ResultBuckets}: a row is written
+ * per bucket instead of per tick.
+ */
+public class ResultSelection {
+    /**
+     * Every column and every row.
+     */
+    public static final ResultSelection ALL = new ResultSelection(List.of(), Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, 0.0);
+
+    private final List<Pattern> columnPatterns;
+    private final double fromTau;
+    private final double toTau;
+    private final double bucketTau;
+
+    /**
+     * @param columnPatterns the patterns of the headers of the written columns; an empty list selects every column.
+     * @param fromTau        the first tau written, or {@link Double#NEGATIVE_INFINITY}.
+     * @param toTau          the last tau written, or {@link Double#POSITIVE_INFINITY}.
+     * @throws IllegalArgumentException if the window is empty.
+     */
+    public ResultSelection(List<String> columnPatterns, double fromTau, double toTau) {
+        this(columnPatterns, fromTau, toTau, 0.0);
+    }
+
+    /**
+     * @param columnPatterns the patterns of the headers of the written columns; an empty list selects every column.
+     * @param fromTau        the first tau written, or {@link Double#NEGATIVE_INFINITY}.
+     * @param toTau          the last tau written, or {@link Double#POSITIVE_INFINITY}.
+     * @param bucketTau      the width of the buckets the rows are aggregated into, or {@code 0} for a row per tick.
+     * @throws IllegalArgumentException if the window is empty or {@code bucketTau} is negative.
+     */
+    public ResultSelection(List<String> columnPatterns, double fromTau, double toTau, double bucketTau) {
+        if (!(fromTau <= toTau)) {
+            throw new IllegalArgumentException("The tau window [" + fromTau + ", " + toTau + "] is empty.");
+        }
+        if (!(bucketTau >= 0.0)) {
+            throw new IllegalArgumentException("The width of a bucket must not be negative: " + bucketTau);
+        }
+        this.columnPatterns = columnPatterns.stream()
+                .map(ResultSelection::compile)
+                .collect(Collectors.toList());
+        this.fromTau = fromTau;
+        this.toTau = toTau;
+        this.bucketTau = bucketTau;
+    }
+
+    /**
+     * @param columnPatterns the patterns of the headers of the written columns, or {@code null} for every column.
+     * @param fromTau        the first tau written, or {@code null} for no lower bound.
+     * @param toTau          the last tau written, or {@code null} for no upper bound.
+     * @return the selection.
+     * @throws IllegalArgumentException if the window is empty.
+     */
+    public static ResultSelection of(List<String> columnPatterns, Double fromTau, Double toTau) {
+        return of(columnPatterns, fromTau, toTau, 0.0);
+    }
+
+    /**
+     * @param columnPatterns the patterns of the headers of the written columns, or {@code null} for every column.
+     * @param fromTau        the first tau written, or {@code null} for no lower bound.
+     * @param toTau          the last tau written, or {@code null} for no upper bound.
+     * @param bucketTau      the width of the buckets the rows are aggregated into, or {@code 0} for a row per tick.
+     * @return the selection.
+     * @throws IllegalArgumentException if the window is empty or {@code bucketTau} is negative.
+     */
+    public static ResultSelection of(List<String> columnPatterns, Double fromTau, Double toTau, double bucketTau) {
+        return new ResultSelection(Objects.isNull(columnPatterns) ? List.of() : columnPatterns,
+                Objects.isNull(fromTau) ? Double.NEGATIVE_INFINITY : fromTau,
+                Objects.isNull(toTau) ? Double.POSITIVE_INFINITY : toTau,
+                bucketTau);
+    }
+
+    /**
+     * @param header the header of a column.
+     * @return {@code true} if the column is written.
+     */
+    public boolean isSelected(String header) {
+        return columnPatterns.isEmpty()
+                || Constants.ColumnsNames.TAU.equals(header)
+                || columnPatterns.stream().anyMatch(pattern -> pattern.matcher(header).matches());
+    }
+
+    /**
+     * @param tau the tau of a row.
+     * @return {@code true} if the row is written.
+     */
+    public boolean contains(double tau) {
+        return tau >= fromTau && tau <= toTau;
+    }
+
+    /**
+     * @return the width of the buckets the rows are aggregated into, or {@code 0} for a row per tick.
+     */
+    public double getBucketTau() {
+        return bucketTau;
+    }
+
+    /**
+     * @return {@code true} if the rows are aggregated into buckets.
+     */
+    public boolean isBucketed() {
+        return bucketTau > 0.0;
+    }
+
+    private static Pattern compile(String columnPattern) {
+        return Pattern.compile(Pattern.quote(columnPattern).replace("*", "\\E.*\\Q"));
+    }
+}
@@ -0,0 +1,52 @@
+package org.pom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A consumer of the rows of results of a transport system other than the output files, e.g. the statistics of the
+ * columns or an export for another tool. The rows are those of {@link AbstractResultWriter}, one row of primitive
+ * values per computed tick or per bucket, and are passed to the sink by {@link ResultSinkWriter}.
+ * <p>
+ * A sink is called by one thread at a time, and may be fed with the output files in the same pass, see
+ * {@link FanOutResultWriter}. A sink named by its class in {@code output.sinks} of {@code settings.yaml} needs a
+ * public constructor without parameters.
+ */
+public interface ResultSink {
+    /**
+     * Prepares the sink, before the first row.
+     *
+     * @param file    the file of the sink, next to the output files but never one of them: the output data path
+     *                with its extension replaced by one of the sink, e.g. {@code outputData.statistics.csv} for the
+     *                statistics or {@code outputData.MySink} for a sink class {@code MySink}. The sink may write
+     *                this file, or a directory of that name.
+     * @param headers the headers of the columns, the first one is the tau.
+     * @throws IOException if the sink cannot be written.
+     */
+    void open(Path file, List<String> headers) throws IOException;
+
+    /**
+     * Consumes a row. The arrays are reused for the next row.
+     *
+     * @param values  the values of the columns; a column without a value holds NaN.
+     * @param present {@code true} for every column that has a value.
+     * @throws IOException if the sink cannot be written.
+     */
+    void writeRow(double[] values, boolean[] present) throws IOException;
+
+    /**
+     * Writes the rows consumed so far, e.g. after a checkpoint.
+     *
+     * @throws IOException if the sink cannot be written.
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * Completes the sink, after the last row.
+     *
+     * @throws IOException if the sink cannot be written.
+     */
+    void close() throws IOException;
+}
@@ -0,0 +1,55 @@
+package org.pom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Passes the results of a transport system to a {@link ResultSink} one row per computed tick, see
+ * {@link AbstractResultWriter}, so that a sink is written like the output files, e.g. on its own thread by
+ * {@link AsyncResultWriter}.
+ */
+public class ResultSinkWriter extends AbstractResultWriter {
+    private final ResultSink sink;
+    private long writtenBytes;
+
+    /**
+     * Opens the sink. The columns are chosen from the conveyors as they are now.
+     *
+     * @param sink      the sink.
+     * @param file      the file of the sink, see {@link ResultSink#open(Path, List)}.
+     * @param selection the selection of the columns and the taus written.
+     * @param conveyors the conveyors of the transport system.
+     * @throws IOException if the sink cannot be written.
+     */
+    public ResultSinkWriter(ResultSink sink, Path file, ResultSelection selection, List<Conveyor> conveyors)
+            throws IOException {
+        super(conveyors, selection);
+        this.sink = sink;
+        sink.open(file, getHeaders());
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        sink.writeRow(values, present);
+        writtenBytes += (long) values.length * Double.BYTES;
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        sink.flush();
+    }
+
+    /**
+     * @return the number of bytes of the values passed to the sink so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    @Override
+    protected void closeOutput() throws IOException {
+        sink.close();
+    }
+}
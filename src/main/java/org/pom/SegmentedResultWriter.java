@@ -0,0 +1,196 @@
+package org.pom;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes the results of a transport system to a series of segments, each one a complete output of its own written
+ * by another result writer, so that a long run gives files that can be copied, opened or plotted one at a time.
+ * <p>
+ * A segment is completed and the next one is started when it has {@code segmentRows} rows or its rows have
+ * {@code segmentBytes} bytes before any compression, see {@link AbstractResultWriter#getWrittenBytes()}. The
+ * segments are named after the output file with the number of the segment before its extension, e.g.
+ * {@code outputData.00000.csv}, {@code outputData.00001.csv}. When a segment is completed, a row is added to the
+ * index file, e.g. {@code outputData.index.csv}, with the name of the segment, its first and last tau, the number of
+ * its first row in the whole output, its number of rows and its size in bytes; a segment in the index is closed and
+ * may be moved or compressed while the run continues. The index is written anew with the first segment.
+ */
+public class SegmentedResultWriter extends AbstractResultWriter {
+    /**
+     * The headers of the columns of the index file.
+     */
+    public static final List<String> INDEX_HEADERS = List.of("segment", "fromTau", "toTau", "firstRow", "rows",
+            "bytes");
+    private static final char DELIMITER = ';';
+    private static final String LINE_END = "\r\n";
+
+    private final Path file;
+    private final SegmentFactory factory;
+    private final long segmentRows;
+    private final long segmentBytes;
+    private final BufferedWriter index;
+    private AbstractResultWriter segment;
+    private Path segmentPath;
+    private int segmentNumber;
+    private long firstRow;
+    private long rows;
+    private double fromTau;
+    private double toTau;
+    private long closedBytes;
+
+    /**
+     * Creates the index file and the first segment. The columns are chosen from the conveyors as they are now.
+     *
+     * @param file         the output file the segments and the index are named after.
+     * @param segmentRows  the rows of a segment, or {@code 0} for no limit.
+     * @param segmentBytes the bytes of the rows of a segment, or {@code 0} for no limit.
+     * @param factory      creates the writer of a segment; its writers have the columns and the selection of this
+     *                     writer and are called by this writer only.
+     * @param selection    the selection of the columns and the taus written.
+     * @param conveyors    the conveyors of the transport system.
+     * @throws IOException              if the files cannot be written.
+     * @throws IllegalArgumentException if a limit is negative or both limits are {@code 0}.
+     */
+    public SegmentedResultWriter(Path file, long segmentRows, long segmentBytes, SegmentFactory factory,
+                                 ResultSelection selection, List<Conveyor> conveyors) throws IOException {
+        super(conveyors, selection);
+        if (segmentRows < 0 || segmentBytes < 0 || segmentRows == 0 && segmentBytes == 0) {
+            throw new IllegalArgumentException("The rows (" + segmentRows + ") and the bytes (" + segmentBytes
+                    + ") of a segment must be non-negative, and one of them positive.");
+        }
+        this.file = file;
+        this.factory = factory;
+        this.segmentRows = segmentRows;
+        this.segmentBytes = segmentBytes;
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.index = Files.newBufferedWriter(getIndexPath(file));
+        try {
+            index.write(String.join(String.valueOf(DELIMITER), INDEX_HEADERS) + LINE_END);
+            startSegment();
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file          the output file the segments are named after.
+     * @param segmentNumber the number of the segment, from 0.
+     * @return the path of the segment, e.g. {@code outputData.00003.csv} for {@code outputData.csv}.
+     */
+    public static Path getSegmentPath(Path file, int segmentNumber) {
+        var name = file.getFileName().toString();
+        var dot = name.indexOf('.', 1);
+        var number = String.format(Locale.ROOT, "%05d", segmentNumber);
+        return file.resolveSibling(dot > 0
+                ? name.substring(0, dot) + "." + number + name.substring(dot)
+                : name + "." + number);
+    }
+
+    /**
+     * @param file the output file the segments are named after.
+     * @return the path of the index file, e.g. {@code outputData.index.csv} for {@code outputData.csv}.
+     */
+    public static Path getIndexPath(Path file) {
+        var name = file.getFileName().toString();
+        var dot = name.indexOf('.', 1);
+        return file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".index.csv");
+    }
+
+    @Override
+    protected void writeRow(double[] values, boolean[] present) throws IOException {
+        if (segmentRows > 0 && rows >= segmentRows
+                || segmentBytes > 0 && rows > 0 && segment.getWrittenBytes() >= segmentBytes) {
+            closeSegment();
+            startSegment();
+        }
+        segment.writeRow(values, present);
+        if (rows == 0) {
+            fromTau = values[0];
+        }
+        toTau = values[0];
+        rows++;
+    }
+
+    @Override
+    protected void flushRows() throws IOException {
+        segment.flushRows();
+        index.flush();
+    }
+
+    /**
+     * @return the number of bytes of the rows written to every segment so far.
+     */
+    @Override
+    protected long getWrittenBytes() {
+        return closedBytes + segment.getWrittenBytes();
+    }
+
+    /**
+     * Closes the last segment, adds it to the index if it has a row and closes the index.
+     */
+    @Override
+    protected void closeOutput() throws IOException {
+        try {
+            closeSegment();
+        } finally {
+            index.close();
+        }
+    }
+
+    private void startSegment() throws IOException {
+        segmentPath = getSegmentPath(file, segmentNumber);
+        segment = factory.create(segmentPath);
+        firstRow += rows;
+        rows = 0;
+    }
+
+    private void closeSegment() throws IOException {
+        closedBytes += segment.getWrittenBytes();
+        segment.closeOutput();
+        if (rows > 0) {
+            index.write(String.join(String.valueOf(DELIMITER), segmentPath.getFileName().toString(),
+                    Double.toString(fromTau), Double.toString(toTau), Long.toString(firstRow), Long.toString(rows),
+                    Long.toString(size(segmentPath))) + LINE_END);
+            index.flush();
+        }
+        segmentNumber++;
+    }
+
+    /**
+     * @return the size of a file, or of the files in a directory, e.g. of {@code .npy} files.
+     */
+    private static long size(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Files.size(path);
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            var size = 0L;
+            for (var iterator = files.iterator(); iterator.hasNext(); ) {
+                size += Files.size(iterator.next());
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Creates the writer of a segment.
+     */
+    @FunctionalInterface
+    public interface SegmentFactory {
+        /**
+         * @param path the path of the segment.
+         * @return the writer of the segment.
+         * @throws IOException if the segment cannot be written.
+         */
+        AbstractResultWriter create(Path path) throws IOException;
+    }
+}
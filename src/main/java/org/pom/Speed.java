@@ -8,6 +8,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.ConveyorUtil;
 import org.pom.utils.MathUtil;
 import org.pom.utils.ParametersValidator;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.*;
 
@@ -16,13 +18,13 @@ import java.util.*;
  * This class allows adding speed values for specific tau values, retrieving the speed for a given tau,
  * and performing validations on speed and tau ranges.
  * <p>
- * It uses a {@link TreeMap} to store the tau to speed mappings.
+ * It uses a {@link DoubleSeries} to store the tau to speed mappings.
  */
 @Slf4j
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Speed implements KeysValuesProvider<Double> {
     @Getter
-    private TreeMap<Double, Double> tauToSpeedMap;
+    private DoubleSeries tauToSpeedMap;
     private final double maxAvailableSpeed;
     private final double minAvailableSpeed;
 
@@ -43,18 +45,35 @@ public class Speed implements KeysValuesProvider<Double> {
         validateAvailableSpeed(minAvailableSpeed, maxAvailableSpeed);
         this.maxAvailableSpeed = maxAvailableSpeed;
         this.minAvailableSpeed = minAvailableSpeed;
-        this.tauToSpeedMap = tauToSpeedMap;
+        this.tauToSpeedMap = DoubleSeries.of(tauToSpeedMap);
         log.info("Speed object created with minAvailableSpeed: {} and maxAvailableSpeed: {}",
                 minAvailableSpeed, maxAvailableSpeed);
     }
 
+    private Speed(Speed source, DoubleSeries tauToSpeedMap) {
+        this.maxAvailableSpeed = source.maxAvailableSpeed;
+        this.minAvailableSpeed = source.minAvailableSpeed;
+        this.tauToSpeedMap = tauToSpeedMap;
+    }
+
+    /**
+     * Copies the speeds of the taus in {@code [fromTau, toTau]}, see {@link DoubleSeries#copy(double, double)}.
+     *
+     * @param fromTau The earliest tau to copy.
+     * @param toTau   The latest tau to look up in the copy.
+     * @return A new speed model with the same speed range.
+     */
+    public Speed copy(double fromTau, double toTau) {
+        return new Speed(this, tauToSpeedMap.copy(fromTau, toTau));
+    }
+
     /**
      * Retrieves the speed corresponding to the specified tau value.
      *
      * @param tau The tau value.
      * @return The speed corresponding to the given tau value.
      */
-    public Double getSpeedAtTau(double tau) {
+    public double getSpeedAtTau(double tau) {
         return MathUtil.getValueByKey(tauToSpeedMap, tau);
     }
 
@@ -84,18 +103,28 @@ public class Speed implements KeysValuesProvider<Double> {
         }
     }
 
-    public void setValues(TreeMap<Double, Double> tauToSpeedMap) {
+    public void setValues(DoubleSeries tauToSpeedMap) {
+        tauToSpeedMap.setTimeAxis(this.tauToSpeedMap.getTimeAxis());
         this.tauToSpeedMap = tauToSpeedMap;
     }
 
+    /**
+     * Aligns the stored values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        tauToSpeedMap.setTimeAxis(timeAxis);
+    }
+
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(tauToSpeedMap.values());
+        return tauToSpeedMap.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return Collections.unmodifiableCollection(tauToSpeedMap.keySet());
+        return tauToSpeedMap.keys();
     }
 
     public void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTime, List<Double> taus) {
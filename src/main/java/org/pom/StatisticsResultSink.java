@@ -0,0 +1,73 @@
+package org.pom;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes the statistics of every column of the results while they are written, so that the summary of a run,
+ * e.g. the peaks of the bunkers, needs no second reading of the output file. The minimum, the maximum, the mean
+ * and the last value of every column are computed like those of one bucket holding the whole run, see
+ * {@link ResultBuckets}, and are written to a CSV file by {@link #close()}: a row per column with the columns
+ * {@link #HEADERS}. A column without values has empty cells.
+ */
+public class StatisticsResultSink implements ResultSink {
+    /**
+     * The headers of the columns of the statistics file.
+     */
+    public static final List<String> HEADERS = List.of("column", "min", "max", "mean", "last");
+    private static final char DELIMITER = ';';
+    private static final String LINE_END = "\r\n";
+
+    private Path file;
+    private List<String> headers;
+    private ResultBuckets statistics;
+    private double[] values;
+    private boolean[] present;
+
+    @Override
+    public void open(Path file, List<String> headers) throws IOException {
+        this.file = file;
+        this.headers = headers;
+        this.statistics = new ResultBuckets(Double.POSITIVE_INFINITY, headers.size());
+        this.values = new double[statistics.size()];
+        this.present = new boolean[statistics.size()];
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+    }
+
+    @Override
+    public void writeRow(double[] rowValues, boolean[] rowPresent) {
+        statistics.add(rowValues[0], rowValues, rowPresent, values, present);
+    }
+
+    /**
+     * Writes the statistics file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (Objects.isNull(statistics)) {
+            return;
+        }
+        var hasRows = statistics.finish(values, present);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(String.join(String.valueOf(DELIMITER), HEADERS) + LINE_END);
+            for (int column = 1; column < headers.size(); column++) {
+                writer.write(headers.get(column));
+                for (int statistic = 0; statistic < ResultBuckets.STATISTICS.size(); statistic++) {
+                    var index = 1 + (column - 1) * ResultBuckets.STATISTICS.size() + statistic;
+                    writer.write(DELIMITER);
+                    if (hasRows && present[index]) {
+                        writer.write(Double.toString(values[index]));
+                    }
+                }
+                writer.write(LINE_END);
+            }
+        }
+    }
+}
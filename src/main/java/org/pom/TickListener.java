@@ -0,0 +1,21 @@
+package org.pom;
+
+import java.util.List;
+
+/**
+ * Receives the results of a transport system that is advanced tick by tick, see
+ * {@link TransportSystem#advanceTo(double)}.
+ */
+@FunctionalInterface
+public interface TickListener {
+
+    /**
+     * Called once for every computed tick, in increasing tau order, after every conveyor is computed at {@code tau}.
+     * The values at {@code tau} are read from the conveyors, e.g. {@code conveyor.getOutputFlow().getOutputFlowAtTau(tau)}.
+     * The real and belt output flows of a bunker at {@code tau} are completed only by the next tick.
+     *
+     * @param tau       the computed tick.
+     * @param conveyors the conveyors of the transport system.
+     */
+    void onTick(double tau, List<Conveyor> conveyors);
+}
@@ -4,6 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.pom.utils.ConveyorUtil;
 import org.pom.utils.MathUtil;
 import org.pom.utils.ParametersValidator;
+import org.pom.utils.io.checkpoint.CheckpointReader;
+import org.pom.utils.io.checkpoint.CheckpointWriter;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
 
 import java.util.*;
 
@@ -12,9 +16,10 @@ import java.util.*;
  * for a transport system. It allows adding parameters such as delay ({@code tau})
  * and speed, and calculates distances and corresponding delay values.
  *
- * <p>This class relies on utility classes {@code ParametersValidator} and {@code MathUtil}
- * for validation and calculations, respectively. It also uses a {@link TreeMap} to maintain
- * a sorted collection of delay-to-distance mappings.</p>
+ * <p>The distance travelled by the belt, {@code G(tau)}, is a prefix sum of {@code speed * deltaTau} and
+ * only grows with tau. It is kept as a primitive {@link DoubleSeries} keyed by distance, so a delay lookup is a
+ * binary search; the lookup for the conveyor length, done on every step, advances a monotone cursor
+ * instead, because {@code G(tau) - conveyorLength} never decreases.</p>
  *
  * <p>The class logs debug information using SLF4J.</p>
  */
@@ -22,19 +27,99 @@ import java.util.*;
 public class TransportDelay implements KeysValuesProvider<Double> {
 
     private final double conveyorLength;
-    private final TreeMap<Double, Map<String, Double>> delayToDistance;
-    private final TreeMap<Double, Double> distanceToDelay;
-    private final TreeMap<Double, Double> delayForConveyorLength;
+    /**
+     * G(tau) -> tau. A distance reached at several taus (the belt stood still) keeps the latest tau.
+     */
+    private final DoubleSeries distanceToDelay;
+    private final DoubleSeries delayToDistance;
+    private final DoubleSeries delayForConveyorLength;
+    private double lastTau;
+    private double lastSpeed;
+    /**
+     * The index in {@link #distanceToDelay} of the least distance not below {@code G(lastTau) - conveyorLength}.
+     */
+    private int conveyorLengthCursor;
 
     /**
-     * Constructs an empty TransportDelay object with an initialized
-     * TreeMap for managing delay-to-distance mappings.
+     * Constructs an empty TransportDelay object.
      */
     public TransportDelay(double conveyorLength) {
         this.conveyorLength = conveyorLength;
-        this.delayToDistance = new TreeMap<>();
-        this.distanceToDelay = new TreeMap<>();
-        this.delayForConveyorLength = new TreeMap<>();
+        this.distanceToDelay = new DoubleSeries();
+        this.delayToDistance = new DoubleSeries();
+        this.delayForConveyorLength = new DoubleSeries();
+    }
+
+    /**
+     * Copies the part of the state that later steps read: the distances the belt travelled within the last
+     * conveyor length, the first and the last distance by tau and the last delay for the conveyor length.
+     *
+     * @return A new TransportDelay that continues exactly like this one.
+     */
+    public TransportDelay copy() {
+        var copy = new TransportDelay(conveyorLength);
+        copy.setTimeAxis(delayToDistance.getTimeAxis());
+        if (distanceToDelay.isEmpty()) {
+            return copy;
+        }
+        var from = distanceToDelay.ceilingIndex(distanceToDelay.lastKey() - conveyorLength);
+        copy.distanceToDelay.putAll(distanceToDelay,
+                distanceToDelay.keyAt(Math.max(from - 1, 0)), Double.POSITIVE_INFINITY);
+        copy.delayToDistance.put(delayToDistance.firstKey(), delayToDistance.valueAt(0));
+        copy.delayToDistance.put(delayToDistance.lastKey(), delayToDistance.lastValue());
+        copy.delayForConveyorLength.put(delayForConveyorLength.lastKey(), delayForConveyorLength.lastValue());
+        copy.lastTau = lastTau;
+        copy.lastSpeed = lastSpeed;
+        return copy;
+    }
+
+    /**
+     * Drops the state later steps no longer read: the distances more than one conveyor length behind the last one,
+     * and the values by tau before {@code tau}, except the first distance.
+     *
+     * @param tau The earliest tau whose values are kept.
+     */
+    public void removeBefore(double tau) {
+        if (distanceToDelay.isEmpty()) {
+            return;
+        }
+        var from = distanceToDelay.ceilingIndex(distanceToDelay.lastKey() - conveyorLength) - 1;
+        if (from > 0) {
+            distanceToDelay.removeRange(0, from);
+            conveyorLengthCursor = Math.max(conveyorLengthCursor - from, 0);
+        }
+        var to = delayToDistance.ceilingIndex(tau);
+        delayToDistance.removeRange(1, Math.max(to < 0 ? delayToDistance.size() - 1 : to, 1));
+        delayForConveyorLength.removeBefore(tau);
+    }
+
+    /**
+     * Writes the values added or changed since the previous checkpoint, and the last tau and speed.
+     *
+     * @param writer The checkpoint being written.
+     */
+    public void writeCheckpoint(CheckpointWriter writer) {
+        writer.writeChanges(distanceToDelay);
+        writer.writeChanges(delayToDistance, 1);
+        writer.writeChanges(delayForConveyorLength);
+        writer.writeDouble(lastTau);
+        writer.writeDouble(lastSpeed);
+    }
+
+    /**
+     * Applies the values written by {@link #writeCheckpoint(CheckpointWriter)}. The lookup cursor for the conveyor
+     * length restarts from the distance of the last step.
+     *
+     * @param reader The checkpoint being read.
+     */
+    public void readCheckpoint(CheckpointReader reader) {
+        reader.readChanges(distanceToDelay);
+        reader.readChanges(delayToDistance, 1);
+        reader.readChanges(delayForConveyorLength);
+        lastTau = reader.readDouble();
+        lastSpeed = reader.readDouble();
+        conveyorLengthCursor = distanceToDelay.isEmpty()
+                ? 0 : Math.max(distanceToDelay.ceilingIndex(distanceToDelay.lastKey() - conveyorLength), 0);
     }
 
     /**
@@ -47,14 +132,18 @@ public class TransportDelay implements KeysValuesProvider<Double> {
      * @throws IllegalArgumentException if {@code tau} or {@code speed} are invalid.
      */
     public void addParametersValues(double tau, double speed) {
-        ParametersValidator.validateNonNegativeKeyValue(
-                "Speed", Map.of("tau", tau, "speed", speed)
-        );
+        if (tau < 0.0 || speed < 0.0) {
+            ParametersValidator.validateNonNegativeKeyValue(
+                    "Speed", Map.of("tau", tau, "speed", speed)
+            );
+        }
         var distance = calculateDistance(tau);
-        delayToDistance.put(distance, Map.of(Constants.TAU, tau, Constants.SPEED, speed));
-        distanceToDelay.put(tau, distance);
-        delayForConveyorLength.put(tau,getDelayByDeltaDistance(conveyorLength));
-        log.debug("Distance value added. Distance: {}, Tau: {}, Speed: {}", distance, tau, speed);
+        putDistance(distance, tau, speed);
+        delayToDistance.put(tau, distance);
+        delayForConveyorLength.put(tau, getDelayForDistance(conveyorLength));
+        if (log.isDebugEnabled()) {
+            log.debug("Distance value added. Distance: {}, Tau: {}, Speed: {}", distance, tau, speed);
+        }
     }
 
     /**
@@ -65,19 +154,45 @@ public class TransportDelay implements KeysValuesProvider<Double> {
      * @param deltaDistance the distance adjustment for which the delay difference is calculated.
      * @return the difference in delay values.
      */
-    public Double getDelayByDeltaDistance(double deltaDistance) {
-        var lastEntry = delayToDistance.lastEntry();
-        var distance = lastEntry.getKey() - deltaDistance;
+    public double getDelayByDeltaDistance(double deltaDistance) {
+        var distance = distanceToDelay.lastKey() - deltaDistance;
         return distance < 0.0
                 ? distance
-                :lastEntry.getValue().get(Constants.TAU)
-                - MathUtil.getValueByKey(delayToDistance, distance).get(Constants.TAU);
+                : distanceToDelay.lastValue() - MathUtil.getValueByKey(distanceToDelay, distance);
     }
 
-    public Double getDelayForConveyorLength() {
-        return delayForConveyorLength.lastEntry().getValue();
+    public double getDelayForConveyorLength() {
+        return delayForConveyorLength.lastValue();
+    }
+
+    /**
+     * @return the delay for the conveyor length at every computed tau; the series is not a copy.
+     */
+    public DoubleSeries getTauToDelayMap() {
+        return delayForConveyorLength;
+    }
+
+    /**
+     * @return the tau at which the material now leaving the conveyor entered it, or negative infinity while the
+     * belt still carries its initial load. The tau never decreases, so earlier values are not read any more.
+     */
+    public double getDelayStartTau() {
+        if (distanceToDelay.isEmpty()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        var distance = distanceToDelay.lastKey() - conveyorLength;
+        return distance < 0.0 ? Double.NEGATIVE_INFINITY : MathUtil.getValueByKey(distanceToDelay, distance);
     }
 
+    /**
+     * Aligns the tau-keyed values to the time axis of the transport system.
+     *
+     * @param timeAxis The time axis shared by all series of the transport system.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        delayToDistance.setTimeAxis(timeAxis);
+        delayForConveyorLength.setTimeAxis(timeAxis);
+    }
 
     /**
      * Calculates the difference in distance between the specified tau and the starting tau.
@@ -88,8 +203,33 @@ public class TransportDelay implements KeysValuesProvider<Double> {
      * @param tau the tau for which the delta distance is calculated.
      * @return the difference in distance between tau and the starting tau.
      */
-    public Double getDeltaDistanceFromStart(double tau) {
-        return MathUtil.getValueByKey(distanceToDelay, tau) - distanceToDelay.firstEntry().getValue();
+    public double getDeltaDistanceFromStart(double tau) {
+        return MathUtil.getValueByKey(delayToDistance, tau) - delayToDistance.valueAt(0);
+    }
+
+    /**
+     * The same lookup as {@link #getDelayByDeltaDistance(double)} for the conveyor length, with the ceiling distance
+     * found by advancing {@link #conveyorLengthCursor} instead of a binary search.
+     */
+    private double getDelayForDistance(double deltaDistance) {
+        var distance = distanceToDelay.lastKey() - deltaDistance;
+        if (distance < 0.0) {
+            return distance;
+        }
+        var last = distanceToDelay.size() - 1;
+        while (conveyorLengthCursor < last && distanceToDelay.keyAt(conveyorLengthCursor) < distance) {
+            conveyorLengthCursor++;
+        }
+        return distanceToDelay.lastValue() - distanceToDelay.valueAt(conveyorLengthCursor);
+    }
+
+    private void putDistance(double distance, double tau, double speed) {
+        if (!distanceToDelay.isEmpty() && distance < distanceToDelay.lastKey()) {
+            conveyorLengthCursor = 0;
+        }
+        distanceToDelay.put(distance, tau);
+        lastTau = tau;
+        lastSpeed = speed;
     }
 
     /**
@@ -98,39 +238,37 @@ public class TransportDelay implements KeysValuesProvider<Double> {
      * @return
      */
     private double calculateDistance(double tau) {
-        return delayToDistance.isEmpty()
+        return distanceToDelay.isEmpty()
                 ? 0.0
-                : delayToDistance.lastKey() +
-                delayToDistance.lastEntry().getValue().get(Constants.SPEED) *
-                        (tau - delayToDistance.lastEntry().getValue().get(Constants.TAU));
+                : distanceToDelay.lastKey() + lastSpeed * (tau - lastTau);
     }
 
     @Override
     public Collection<Double> values() {
-        return Collections.unmodifiableCollection(delayForConveyorLength.values());
+        return delayForConveyorLength.values();
     }
 
     @Override
     public Collection<Double> keys() {
-        return Collections.unmodifiableCollection(delayForConveyorLength.keySet());
+        return delayForConveyorLength.keys();
     }
 
     public void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTau, List<Double> taus)  {
-        if (currentTau == previousFinishTau || delayToDistance.isEmpty()) {
+        if (currentTau == previousFinishTau || distanceToDelay.isEmpty()) {
             return;
         }
-        var lastDistance = delayToDistance.lastKey();
-        var lastTau = previousFinishTau; // distanceToDelay.lastKey();
+        var lastDistance = distanceToDelay.lastKey();
+        var lastTau = previousFinishTau; // delayToDistance.lastKey();
         taus.stream().filter(tau -> lastTau < tau && tau < currentTau).forEach(
-                tau -> delayToDistance.put(lastDistance, Map.of(Constants.TAU, tau, Constants.SPEED, 0.0))
+                tau -> putDistance(lastDistance, tau, 0.0)
         );
 
-        ConveyorUtil.fillEmptyParametersByCurrentTau(currentTau, previousFinishTau, taus, distanceToDelay, lastDistance);
+        ConveyorUtil.fillEmptyParametersByCurrentTau(currentTau, previousFinishTau, taus, delayToDistance, lastDistance);
 
         var lastDelayForConveyorLengthKey = delayForConveyorLength.lastKey();
-        var lastDelayForConveyorLengthValue = delayForConveyorLength.get(lastDelayForConveyorLengthKey);
+        var lastDelayForConveyorLengthValue = delayForConveyorLength.lastValue();
         taus.stream().filter(tau -> lastTau < tau && tau < currentTau).forEach(
-                tau -> delayForConveyorLength.put(lastDistance, lastDelayForConveyorLengthValue + tau - lastDelayForConveyorLengthKey)
+                tau -> delayForConveyorLength.put(tau, lastDelayForConveyorLengthValue + tau - lastDelayForConveyorLengthKey)
         );
     }
 }
@@ -7,18 +7,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import org.pom.utils.MathUtil;
-import org.pom.utils.io.csv.write.CsvWriterP;
+import org.pom.engine.EngineFactory;
+import org.pom.engine.SimulationEngine;
+import org.pom.utils.io.checkpoint.CheckpointWriter;
 import org.pom.utils.json.ObjectMapperFactory;
+import org.pom.utils.series.TimeAxis;
 import org.pom.utils.yaml.SettingsManager;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
 
 @NoArgsConstructor(force = true)
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TransportSystem {
+    /**
+     * The name of the {@link StatisticsResultSink} in {@code output.sinks}.
+     */
+    static final String STATISTICS_SINK = "STATISTICS";
 
     @Getter
     private List<Conveyor> conveyors= new ArrayList<>();
@@ -46,13 +58,50 @@ public class TransportSystem {
     private final String initTransportSystemFile;
     private final String  cellFormat;
     private final Locale locale;
+    private SimulationEngine engine;
+    /**
+     * The conveyors by id, for the inputs offered tick by tick.
+     */
+    private final Map<Integer, Conveyor> conveyorsById = new HashMap<>();
+    private TimeAxis timeAxis;
+    private TickListener tickListener;
+    private HistorySink historySink;
+    /**
+     * The ticks of the batch processing between two evictions of the history, or {@code 0} to evict only when the
+     * rows are written, see {@code output.historyTicks}.
+     */
+    private int historyTicks;
+    /**
+     * The ticks handed to the engine by the batch processing since the last eviction of the history.
+     */
+    private int ticksSinceEviction;
+    /**
+     * The tick of the time axis that {@link #advanceTo(double)} computes next.
+     */
+    private int nextTick;
+    private Checkpoint checkpoint;
+    /**
+     * The tau of the last computed tick.
+     */
+    private double lastTau;
+    private AbstractResultWriter resultWriter;
+    /**
+     * The pool formatting the rows of every CSV output, or {@code null} if they are formatted by the thread writing
+     * them, see {@code output.formatThreads}.
+     */
+    private ForkJoinPool formatPool;
+    /**
+     * The number of {@link #taus} whose rows are passed to the {@link #resultWriter}.
+     */
+    private int publishedTaus;
 
     @JsonCreator
     public TransportSystem(
             @JsonProperty(Constants.JsonParametersNames.CONVEYORS) List<Conveyor> conveyors,
             @JsonProperty(Constants.JsonParametersNames.INIT_DATA_PATH) String initDataPath,
             @JsonProperty(Constants.JsonParametersNames.OUTPUT_DATA_PATH) String outputDataPath) {
-        this(conveyors, initDataPath, outputDataPath, 0.0, 0.0, 0.0, new HashMap<>(), "", "", Locale.getDefault());
+        this(conveyors, initDataPath, outputDataPath, 0.0, 0.0, 0.0, new HashMap<>(), "", "", Locale.getDefault(), null,
+                null, null, null, 0, 0, 0, null, Double.NEGATIVE_INFINITY, null, null, 0);
     }
 
     public TransportSystem(
@@ -63,7 +112,29 @@ public class TransportSystem {
             Double deltaTau,
             Double deltaLength
     ) {
-        this(null, "", "", researchTau, deltaTau, deltaLength, null, initTransportSystemFile, cellFormat, locale);
+        this(null, "", "", researchTau, deltaTau, deltaLength, null, initTransportSystemFile, cellFormat, locale, null,
+                null, null, null, 0, 0, 0, null, Double.NEGATIVE_INFINITY, null, null, 0);
+    }
+
+    /**
+     * Creates a transport system from conveyors built by the caller, to be advanced tick by tick with
+     * {@link #advanceTo(double)} or {@link #step(int)} while the input samples arrive.
+     *
+     * @param conveyors      the conveyors of the transport system.
+     * @param researchTau    the length of the studied interval.
+     * @param deltaTau       the step between two ticks.
+     * @param engineSettings the engine settings, {@code null} selects the sequential engine.
+     * @throws IllegalArgumentException if {@code deltaTau} is not positive.
+     */
+    public TransportSystem(List<Conveyor> conveyors, double researchTau, double deltaTau,
+                           SettingsManager.Settings.Engine engineSettings) {
+        this(new ArrayList<>(conveyors), "", "", researchTau, deltaTau, 0.0, new HashMap<>(), "", "",
+                Locale.getDefault(), null, null, null, null, 0, 0, 0, null, Double.NEGATIVE_INFINITY, null, null,
+                0);
+        if (!(deltaTau > 0.0)) {
+            throw new IllegalArgumentException("The step between two ticks must be positive: " + deltaTau);
+        }
+        initialize(engineSettings);
     }
 
     /**
@@ -98,129 +169,509 @@ public class TransportSystem {
         initDataPath = transportSystem.getInitDataPath();
         outputDataPath = transportSystem.getOutputDataPath();
 
+        this.taus.addAll(transportSystem.getTaus());
+        initialize(new SettingsManager().getEngine());
+    }
+
+    private void initialize(SettingsManager.Settings.Engine engineSettings) {
+        conveyorsById.clear();
+        conveyors.forEach(conveyor -> conveyorsById.put(conveyor.getId(), conveyor));
         addInputConveyors();
         addOutputConveyors();
-        this.taus.addAll(transportSystem.getTaus());
+        if (deltaTau > 0.0) {
+            timeAxis = new TimeAxis(deltaTau, researchTau);
+            conveyors.forEach(conveyor -> conveyor.setTimeAxis(timeAxis));
+        }
+        engine = EngineFactory.createEngine(engineSettings, conveyors);
+    }
+
+    /**
+     * Sets the listener that receives every tick computed by {@link #advanceTo(double)} and {@link #step(int)}.
+     *
+     * @param tickListener the listener, or {@code null} to publish nothing.
+     */
+    public void setTickListener(TickListener tickListener) {
+        this.tickListener = tickListener;
+    }
+
+    /**
+     * Bounds the history the conveyors keep while the transport system is advanced tick by tick. After every
+     * {@link #advanceTo(double)} and {@link #step(int)} the values that later ticks no longer read are passed to
+     * the sink and evicted, so memory grows with the transport delay instead of with the horizon.
+     * {@link HistorySink#DROP} evicts them without passing them anywhere. The batch processing evicts them after it
+     * has written the rows of the computed ticks; {@code output.historyTicks} installs {@link HistorySink#DROP} and
+     * sets how often that is, see {@link #processingTransportSystem(double, double)}.
+     *
+     * @param historySink the sink of the evicted values, or {@code null} to keep the whole history.
+     */
+    public void setHistorySink(HistorySink historySink) {
+        this.historySink = historySink;
+    }
+
+    /**
+     * Writes the state of the conveyors to a binary checkpoint file every {@code intervalTicks} computed ticks, so
+     * that a run that stops can be resumed instead of computed again. A checkpoint holds the values added or
+     * changed since the previous one and is appended to the file. With {@code resume} the state of the last
+     * checkpoint of an existing file is restored first, with the history the conveyors held, and the computation
+     * continues after its tick; the batch processing skips the restored ticks as well. The transport system must be
+     * created the same way as the one that wrote the file.
+     *
+     * @param file          the checkpoint file.
+     * @param intervalTicks the number of computed ticks between two checkpoints.
+     * @param resume        {@code true} to restore the state of an existing file and append to it, {@code false} to
+     *                      start a new file.
+     * @return {@code true} if a state was restored.
+     * @throws IllegalArgumentException if {@code intervalTicks} is not positive.
+     * @throws IllegalStateException    if a tick is already computed, or the file is not a checkpoint of this
+     *                                  transport system.
+     * @throws IOException              if the file cannot be read or written.
+     */
+    public boolean setCheckpoint(Path file, int intervalTicks, boolean resume) throws IOException {
+        if (intervalTicks <= 0) {
+            throw new IllegalArgumentException("The number of ticks between checkpoints must be positive: "
+                    + intervalTicks);
+        }
+        if (nextTick > 0 || lastTau > Double.NEGATIVE_INFINITY) {
+            throw new IllegalStateException("A checkpoint must be set before the first tick is computed.");
+        }
+        var isResumed = resume && Files.exists(file) && Files.size(file) > 0;
+        if (isResumed) {
+            lastTau = Checkpoint.restore(file, deltaTau, conveyors);
+            if (Objects.nonNull(timeAxis) && lastTau > Double.NEGATIVE_INFINITY) {
+                var tick = timeAxis.ceilingTick(lastTau);
+                nextTick = timeAxis.tauAt(tick) == lastTau ? tick + 1 : tick;
+            }
+        }
+        if (Objects.nonNull(checkpoint)) {
+            checkpoint.close();
+        }
+        checkpoint = new Checkpoint(new CheckpointWriter(file, deltaTau, isResumed), intervalTicks);
+        return lastTau > Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Adds an input flow sample of a conveyor. A conveyor without input conveyors needs a sample at every tick.
+     *
+     * @param conveyorId the id of the conveyor.
+     * @param tau        the tau of the sample.
+     * @param value      the input flow.
+     * @throws IllegalArgumentException if the conveyor is unknown.
+     */
+    public void offerInputFlow(int conveyorId, double tau, double value) {
+        getConveyorById(conveyorId).getInputFlow().setValue(tau, value);
+    }
+
+    /**
+     * Adds a speed sample of a conveyor. The speed at a tick is the one of the first sample at or after the tick.
+     *
+     * @param conveyorId the id of the conveyor.
+     * @param tau        the tau of the sample.
+     * @param speed      the speed.
+     * @throws IllegalArgumentException if the conveyor is unknown or the sample is negative.
+     */
+    public void offerSpeed(int conveyorId, double tau, double speed) {
+        getConveyorById(conveyorId).getSpeed().addParametersValues(tau, speed);
+    }
+
+    /**
+     * Adds a planned bunker output sample of a conveyor. The planned output at a tick is the one of the first
+     * sample at or after the tick; a conveyor without samples plans the max available output of its bunker.
+     *
+     * @param conveyorId the id of the conveyor.
+     * @param tau        the tau of the sample.
+     * @param value      the planned output from the bunker.
+     * @throws IllegalArgumentException if the conveyor is unknown.
+     */
+    public void offerPlannedBunkerOutput(int conveyorId, double tau, double value) {
+        getConveyorById(conveyorId).addPlannedBunkerOutput(tau, value);
+    }
+
+    /**
+     * Computes the ticks of the time axis up to {@code tau}, including a tick equal to {@code tau}, that are not
+     * computed yet, and publishes each of them to the tick listener. The input samples of a tick must be offered
+     * before it is computed.
+     *
+     * @param tau the last tau to compute.
+     * @return the number of computed ticks.
+     * @throws IllegalStateException if the transport system has no time axis, an input flow sample is missing or
+     *                               {@code tau} is after the last tick of the time axis.
+     */
+    public int advanceTo(double tau) {
+        checkTimeAxis();
+        var lastTick = nextTick;
+        while (lastTick < timeAxis.size() && timeAxis.tauAt(lastTick) <= tau) {
+            lastTick++;
+        }
+        if (lastTick == timeAxis.size() && tau > timeAxis.tauAt(lastTick - 1)) {
+            throw new IllegalStateException("The tau " + tau + " is after the last tick of the time axis: "
+                    + timeAxis.tauAt(lastTick - 1));
+        }
+        return advance(lastTick - nextTick);
+    }
+
+    /**
+     * Computes the next {@code ticks} ticks of the time axis, like {@link #advanceTo(double)}.
+     *
+     * @param ticks the number of ticks to compute.
+     * @return the number of computed ticks.
+     * @throws IllegalArgumentException if {@code ticks} is negative.
+     * @throws IllegalStateException    if the transport system has no time axis, an input flow sample is missing or
+     *                                  the ticks go past the last tick of the time axis.
+     */
+    public int step(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("The number of ticks must be non-negative: " + ticks);
+        }
+        checkTimeAxis();
+        if (ticks > timeAxis.size() - nextTick) {
+            throw new IllegalStateException("Cannot compute " + ticks + " ticks: only " + (timeAxis.size() - nextTick)
+                    + " ticks of the time axis are left.");
+        }
+        return advance(ticks);
+    }
+
+    private int advance(int ticks) {
+        var firstTick = nextTick;
+        for (int tick = firstTick; tick < firstTick + ticks; tick++) {
+            var tau = timeAxis.tauAt(tick);
+            inputConveyors.forEach(conveyor -> {
+                if (Objects.isNull(conveyor.getInputFlow().getValue(tau))) {
+                    throw new IllegalStateException(
+                            "No input flow sample of conveyor " + conveyor.getId() + " at tau " + tau);
+                }
+            });
+        }
+        for (int i = 0; i < ticks; i++) {
+            engine.step(timeAxis.tauAt(nextTick++));
+        }
+        engine.await();
+        if (Objects.nonNull(tickListener)) {
+            for (int tick = firstTick; tick < nextTick; tick++) {
+                tickListener.onTick(timeAxis.tauAt(tick), conveyors);
+            }
+        }
+        evictHistory();
+        if (ticks > 0) {
+            lastTau = timeAxis.tauAt(nextTick - 1);
+            if (Objects.nonNull(checkpoint) && checkpoint.addTicks(ticks)) {
+                checkpoint.write(lastTau, conveyors);
+            }
+        }
+        return ticks;
+    }
+
+    private void checkTimeAxis() {
+        if (Objects.isNull(timeAxis)) {
+            throw new IllegalStateException("The transport system has no time axis: deltaTau is " + deltaTau);
+        }
+    }
+
+    private Conveyor getConveyorById(int conveyorId) {
+        var conveyor = conveyorsById.get(conveyorId);
+        if (Objects.isNull(conveyor)) {
+            throw new IllegalArgumentException("Unknown conveyor: " + conveyorId);
+        }
+        return conveyor;
     }
 
+    /**
+     * Computes the taus in {@code [startTime, finishTime)}, or {@code startTime} if both are equal, and writes their
+     * rows to the output file in the format of {@code output.format} in {@code settings.yaml}, see
+     * {@link OutputFormat}. The rows are written whenever the engine has computed the ticks handed to it, after
+     * every checkpoint and at the end of the call, on a writer thread if {@code output.batchRows} is positive, see
+     * {@link AsyncResultWriter}, and compressed if {@code output.compressionLevel} is positive; the file is created
+     * by the first call and completed by {@link #close()}. Every call appends the rows of its ticks only. A run
+     * resumed from a checkpoint continues an uncompressed CSV file of ticks after its rows of the restored ticks, see
+     * {@link CsvResultWriter#append}; the other outputs are written anew. Only the columns and the taus selected by
+     * {@code output.columns}, {@code output.fromTau} and {@code output.toTau} are written, see
+     * {@link ResultSelection}, aggregated into buckets of {@code output.bucketTau} if it is positive, see
+     * {@link ResultBuckets}. If {@code output.segmentRows} or {@code output.segmentBytes} is positive, the output is
+     * split into segments with an index file, see {@link SegmentedResultWriter}; segments are written anew by a
+     * resumed run. The rows of a CSV output are formatted on {@code output.formatThreads} threads. The sinks of
+     * {@code output.sinks} are fed with the same rows in the same pass, each on its own writer thread, see
+     * {@link FanOutResultWriter}; a CSV file is then written anew by a resumed run, like the other outputs. If
+     * {@code output.historyTicks} is positive, the rows are written every {@code output.historyTicks} ticks as well
+     * and the history the later ticks no longer read is then dropped, see {@link #setHistorySink(HistorySink)}.
+     */
     public void processingTransportSystem(double startTime, double finishTime) {
-        taus.stream().filter(t -> t >= startTime && t < finishTime).
-                forEach(tau -> conveyors.forEach(conveyor -> calculatedConveyorParameters(tau, conveyor)));
+        if (Objects.isNull(resultWriter)) {
+            openResultWriter();
+        }
+        taus.stream().filter(t -> t >= startTime && t < finishTime).forEach(this::computeTick);
 
-        taus.stream().filter(t -> t == startTime && startTime == finishTime).
-                forEach(tau -> conveyors.forEach(conveyor -> calculatedConveyorParameters(tau, conveyor)));
+        taus.stream().filter(t -> t == startTime && startTime == finishTime).forEach(this::computeTick);
+        engine.await();
+        publishComputedTaus();
+        evictHistory();
+        resultWriter.flush();
+    }
 
+    private void openResultWriter() {
         SettingsManager settingsManager = new SettingsManager();
         var cellFormat = settingsManager.getPrepareDataTableFormat().getCellFormat();
         var locale = settingsManager.getApp().getLocale();
-        var table = new ArrayList<List<String>>();
-        var tauColumn = CsvWriterP.createColumn(Constants.ColumnsNames.TAU, locale, cellFormat, taus);
-        table.add(tauColumn);
-        conveyors.forEach(conveyor -> {
-                    if (Objects.nonNull(conveyor.getInputFlow())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.INPUT_FLOW), locale, cellFormat, conveyor.getInputFlow().values())
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getBunker())) {
-                        List.of(
-                                Constants.ColumnsNames.BUNKER_CAPACITY,
-                                Constants.ColumnsNames.BUNKER_OVER_MAX_CAPACITY,
-                                Constants.ColumnsNames.DENSITY_OVER_MAX_CAPACITY,
-                                Constants.ColumnsNames.BUNKER_INPUT_FLOW,
-                                Constants.ColumnsNames.BUNKER_PLANED_OUTPUT_FLOW,
-                                Constants.ColumnsNames.BUNKER_REAL_OUTPUT_FLOW,
-                                Constants.ColumnsNames.CONVEYOR_BELT_BUNKER_OUTPUT_FLOW
-                        ).forEach(key ->
-                                table.add(
-                                        CsvWriterP.createColumn(
-                                                Constants.ColumnsNames.generateHeader(conveyor.getId(), key),
-                                                locale,
-                                                cellFormat,
-                                                conveyor.getBunker().getValues(key)
-                                        )
-                                )
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getSpeed())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.SPEED), locale, cellFormat, conveyor.getSpeed().values())
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getDensity())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.DENSITY), locale, cellFormat, conveyor.getDensity().values())
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getOutputFlow())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.OUTPUT_FLOW), locale, cellFormat, conveyor.getOutputFlow().values())
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getBunkerOutputFlow())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.BUNKER_OUTPUT_FLOW), locale, cellFormat, conveyor.getBunkerOutputFlow().values())
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getConveyorNode())) {
-                        var keys = conveyor.getConveyorNode().getOutputConveyorFlowMap().keySet();
-                        keys.forEach(key ->
-                                table.add(
-                                        CsvWriterP.createColumn(
-                                                Constants.ColumnsNames.generateHeader(
-                                                        conveyor.getId(), Constants.JsonParametersNames.CONVEYOR_NODE, key
-                                                ),
-                                                locale,
-                                                cellFormat,
-                                                conveyor.getConveyorNode().values(key))
-                                )
-                        );
-                    }
-                    if (Objects.nonNull(conveyor.getTransportDelay())) {
-                        table.add(
-                                CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyor.getId(), Constants.ColumnsNames.DELAY_FOR_CONVEYOR_LENGTH), locale, cellFormat, conveyor.getTransportDelay().values())
-                        );
+        var output = settingsManager.getOutput();
+        var format = Objects.isNull(output) || Objects.isNull(output.getFormat())
+                ? OutputFormat.CSV
+                : output.getFormat();
+        var sinks = Objects.isNull(output) || Objects.isNull(output.getSinks()) ? List.<String>of() : output.getSinks();
+        var writers = new ArrayList<AbstractResultWriter>();
+        try {
+            var selection = Objects.isNull(output)
+                    ? ResultSelection.ALL
+                    : ResultSelection.of(output.getColumns(), output.getFromTau(), output.getToTau(),
+                            output.getBucketTau());
+            formatPool = Objects.isNull(output) ? null : CsvResultWriter.newPool(output.getFormatThreads());
+            var options = Objects.isNull(output)
+                    ? new OutputOptions(Deflater.NO_COMPRESSION, null, locale, cellFormat, selection, 0, 0, 0, 0)
+                    : new OutputOptions(output.getCompressionLevel(), formatPool, locale, cellFormat, selection,
+                            output.getSegmentRows(), output.getSegmentBytes(), output.getBatchRows(),
+                            output.getPendingBatches());
+            if (Objects.nonNull(output) && output.getHistoryTicks() > 0) {
+                historyTicks = output.getHistoryTicks();
+                historySink = Objects.isNull(historySink) ? HistorySink.DROP : historySink;
             }
+            writers.add(toAsync(openOutput(format, options, sinks.isEmpty()), options));
+            for (var sink : sinks) {
+                writers.add(toAsync(openSink(sink, format, options), options));
+            }
+            resultWriter = writers.size() == 1 ? writers.get(0) : new FanOutResultWriter(writers, conveyors);
+        } catch (IOException | RuntimeException e) {
+            for (var writer : writers) {
+                try {
+                    writer.closeOutput();
+                } catch (IOException | RuntimeException suppressed) {
+                    e.addSuppressed(suppressed);
                 }
-        );
-
-        var transposeTable = MathUtil.transposeMatrix(table," "::repeat);
-        File file = new File(outputDataPath);
-        var csvWriterP = new CsvWriterP("12.1", ';', file.getParent(), file.getName());
-        csvWriterP.writeToFile(transposeTable);
-    }
-
-    private void calculatedConveyorParameters(Double tau, Conveyor conveyor) {
-        var inputConveyorNumbers
-                = Collections.unmodifiableCollection(conveyor.getConveyorNode().getInputConveyorFlowMap().keySet());
-        inputConveyorNumbers.forEach(
-                inputConveyorNumber -> {
-                    var inputConveyor = getConveyorById(inputConveyorNumber);
-                    if (inputConveyor.getOutputFlow().keys().isEmpty() || inputConveyor.getOutputFlow().lastKey()< tau) {
-                        calculatedConveyorParameters(tau, inputConveyor);
-                    }
-                }
-        );
-        if(!conveyor.getOutputFlow().getTauToFlowOutputMap().containsKey(tau)) {
-            calculatedParameters(tau, conveyor);
+            }
+            if (Objects.nonNull(formatPool)) {
+                formatPool.shutdown();
+            }
+            if (e instanceof IOException) {
+                throw new UncheckedIOException("Cannot create the output file " + outputDataPath, (IOException) e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Creates the writer of the output in {@code format}: segmented, continued for a resumed run, or written anew.
+     *
+     * @param isContinued {@code true} if an uncompressed CSV file may be continued, see {@link #appendCsv}.
+     */
+    private AbstractResultWriter openOutput(OutputFormat format, OutputOptions options, boolean isContinued)
+            throws IOException {
+        var isCompressed = options.level() != Deflater.NO_COMPRESSION;
+        var file = getOutputPath(format, isCompressed);
+        if (options.segmentRows() > 0 || options.segmentBytes() > 0) {
+            var expectedRows = options.segmentRows() > 0 ? Math.min(options.segmentRows(), taus.size()) : taus.size();
+            return new SegmentedResultWriter(file, options.segmentRows(), options.segmentBytes(),
+                    path -> createResultWriter(path, format, options, expectedRows), options.selection(), conveyors);
+        }
+        if (format == OutputFormat.CSV && !isCompressed && isContinued) {
+            return appendCsv(file, options);
+        }
+        return createResultWriter(file, format, options, taus.size());
+    }
+
+    /**
+     * Creates the writer of a sink of {@code output.sinks}: an output format other than {@code output.format},
+     * {@code STATISTICS}, or the class name of a {@link ResultSink}. The file of a result sink is named after the
+     * output data path and the sink, e.g. {@code outputData.MySink} for a sink class {@code MySink}.
+     *
+     * @throws IllegalArgumentException if the sink is {@code output.format} or is not a result sink.
+     */
+    private AbstractResultWriter openSink(String sink, OutputFormat format, OutputOptions options)
+            throws IOException {
+        if (STATISTICS_SINK.equals(sink)) {
+            return new ResultSinkWriter(new StatisticsResultSink(),
+                    withExtension(Path.of(outputDataPath), ".statistics.csv"), options.selection(), conveyors);
+        }
+        var sinkFormat = Arrays.stream(OutputFormat.values())
+                .filter(value -> value.name().equals(sink))
+                .findFirst();
+        if (sinkFormat.isPresent()) {
+            if (sinkFormat.get() == format) {
+                throw new IllegalArgumentException("The sink " + sink + " is the output format.");
+            }
+            return openOutput(sinkFormat.get(), options, false);
+        }
+        ResultSink resultSink;
+        try {
+            resultSink = (ResultSink) Class.forName(sink).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Not a result sink: " + sink, e);
+        }
+        return new ResultSinkWriter(resultSink,
+                withExtension(Path.of(outputDataPath), "." + resultSink.getClass().getSimpleName()),
+                options.selection(), conveyors);
+    }
+
+    /**
+     * @return the writer writing with {@code writer} on its own thread if {@code output.batchRows} is positive.
+     */
+    private AbstractResultWriter toAsync(AbstractResultWriter writer, OutputOptions options) {
+        return options.batchRows() > 0
+                ? new AsyncResultWriter(writer, conveyors, options.batchRows(), options.pendingBatches())
+                : writer;
+    }
+
+    /**
+     * @return the path of the output in {@code format}, next to the output data path.
+     */
+    private Path getOutputPath(OutputFormat format, boolean isCompressed) {
+        var file = Path.of(outputDataPath);
+        return switch (format) {
+            case CSV -> isCompressed ? Path.of(outputDataPath + ".gz") : file;
+            case BINARY -> withExtension(file, isCompressed ? ".binz" : ".bin");
+            case NPY -> withExtension(file, "");
+            case NPZ -> withExtension(file, ".npz");
+        };
+    }
+
+    private AbstractResultWriter createResultWriter(Path file, OutputFormat format, OutputOptions options,
+                                                    long expectedRows) throws IOException {
+        var level = options.level();
+        var selection = options.selection();
+        return switch (format) {
+            case CSV -> new CsvResultWriter(file, level, options.formatPool(), options.locale(),
+                    options.cellFormat(), selection, conveyors);
+            case BINARY -> level != Deflater.NO_COMPRESSION
+                    ? new CompressedBinaryResultWriter(file, level, selection, conveyors)
+                    : new BinaryResultWriter(file, expectedRows, selection, conveyors);
+            case NPY -> new NpyResultWriter(file, false, level, selection, conveyors);
+            case NPZ -> new NpyResultWriter(file, true, level, selection, conveyors);
+        };
+    }
+
+    /**
+     * Creates the CSV file, or continues the file of the run a checkpoint was restored from: its rows of the ticks
+     * before the restored one are kept and are not passed to the writer again. A file of buckets is written anew,
+     * since the row of a bucket is not the row of a tick.
+     */
+    private CsvResultWriter appendCsv(Path file, OutputOptions options) throws IOException {
+        if (lastTau == Double.NEGATIVE_INFINITY || options.selection().isBucketed()) {
+            return new CsvResultWriter(file, Deflater.NO_COMPRESSION, options.formatPool(), options.locale(),
+                    options.cellFormat(), options.selection(), conveyors);
+        }
+        var writer = CsvResultWriter.append(file, taus, lastTau, options.formatPool(), options.locale(),
+                options.cellFormat(), options.selection(), conveyors);
+        publishedTaus = writer.getKeptTaus();
+        return writer;
+    }
+
+    /**
+     * @return the path of {@code file} with its extension, if any, replaced by {@code extension}.
+     */
+    private static Path withExtension(Path file, String extension) {
+        var name = file.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        return file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + extension);
+    }
+
+    /**
+     * Passes the computed taus, including those restored from a checkpoint, to the result writer.
+     */
+    private void publishComputedTaus() {
+        while (publishedTaus < taus.size() && taus.get(publishedTaus) <= lastTau) {
+            resultWriter.onTick(taus.get(publishedTaus++), conveyors);
+        }
+    }
+
+    /**
+     * Evicts the history the later ticks no longer read, if the history is bounded. The rows of the computed ticks
+     * must be written first.
+     */
+    private void evictHistory() {
+        if (Objects.nonNull(historySink)) {
+            conveyors.forEach(conveyor -> conveyor.evictHistory(historySink));
+        }
+        ticksSinceEviction = 0;
+    }
+
+    /**
+     * Hands a tick of the batch processing to the engine, unless it is already computed or restored from a
+     * checkpoint, and writes a checkpoint and the rows of the computed ticks, evicting the history, when a
+     * checkpoint or an eviction is due.
+     */
+    private void computeTick(double tau) {
+        if (tau <= lastTau || !engine.step(tau)) {
+            return;
+        }
+        lastTau = tau;
+        var isCheckpointDue = Objects.nonNull(checkpoint) && checkpoint.addTicks(1);
+        var isEvictionDue = historyTicks > 0 && ++ticksSinceEviction >= historyTicks;
+        if (isCheckpointDue || isEvictionDue) {
+            engine.await();
+            if (isCheckpointDue) {
+                checkpoint.write(tau, conveyors);
+            }
+            publishComputedTaus();
+            evictHistory();
         }
     }
 
-    private Conveyor getConveyorById(Integer id) {
-        return conveyors.stream().filter(conveyor -> id == conveyor.getId()).findFirst().orElse(null);
+    /**
+     * Completes the output file and releases the threads formatting it, the threads of the simulation engine and the
+     * checkpoint file. Every one of them is released even if another one fails; the first failure is thrown with the
+     * others suppressed.
+     */
+    public void close() {
+        RuntimeException failure = null;
+        if (Objects.nonNull(resultWriter)) {
+            try {
+                resultWriter.close();
+            } catch (IOException e) {
+                failure = addFailure(failure, new UncheckedIOException("Cannot write the output file "
+                        + outputDataPath, e));
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (Objects.nonNull(formatPool)) {
+            formatPool.shutdown();
+        }
+        if (Objects.nonNull(engine)) {
+            try {
+                engine.close();
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (Objects.nonNull(checkpoint)) {
+            try {
+                checkpoint.close();
+            } catch (IOException e) {
+                failure = addFailure(failure, new UncheckedIOException("Cannot close the checkpoint file", e));
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (Objects.nonNull(failure)) {
+            throw failure;
+        }
     }
 
-    private void calculatedParameters(Double tau, Conveyor conveyor) {
-        var inputFlow = conveyor.getCombinedInputFlow(tau, this::getConveyorById);
-        var speed = conveyor.getSpeed().getSpeedAtTau(tau);
-        var plannedBunkerOutput = Objects.isNull(conveyor.getBunkerOutputFlow())
-                ? conveyor.getBunker().getMaxAvailableOutput() : conveyor.getBunkerOutputFlow().getValueAtTau(tau);
-        conveyor.addParametersValues(tau, inputFlow.getValue(tau), plannedBunkerOutput, speed);
+    /**
+     * @return {@code failure} with {@code next} suppressed, or {@code next} if there is no earlier failure.
+     */
+    static RuntimeException addFailure(RuntimeException failure, RuntimeException next) {
+        if (Objects.isNull(failure)) {
+            return next;
+        }
+        failure.addSuppressed(next);
+        return failure;
     }
 
     public void addTaus(List<Double> taus) {
         this.taus.addAll(taus);
     }
 
+    /**
+     * The settings of {@code output} the result writers are created with.
+     */
+    private record OutputOptions(int level, ForkJoinPool formatPool, Locale locale, String cellFormat,
+                                 ResultSelection selection, long segmentRows, long segmentBytes, int batchRows,
+                                 int pendingBatches) {
+    }
 }
-
@@ -0,0 +1,182 @@
+package org.pom.engine;
+
+import org.pom.Conveyor;
+import org.pom.InputFlow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The {@code ConveyorScheduler} computes the conveyors of a transport system tick by tick in dependency order.
+ * <p>
+ * A conveyor needs the output flow of its input conveyors at the same tau, so the {@link org.pom.ConveyorNode}
+ * graph is sorted topologically once, when the scheduler is created. Every tick then runs the conveyors in that
+ * fixed order: there is no recursion over upstream conveyors and no probing of the output flows to find out what
+ * has already been computed. Conveyors are looked up by id in an array-indexed registry.
+ * <p>
+ * The order is deterministic: it depends only on the graph and on the order of the conveyors in the transport system.
+ */
+public class ConveyorScheduler implements SimulationEngine {
+    private final Conveyor[] conveyorsById;
+    private final List<Conveyor> order;
+    private final List<List<Conveyor>> levels;
+    private double lastTau = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param conveyors the conveyors of the transport system.
+     * @throws IllegalArgumentException if the ids are negative or not unique, an input conveyor is unknown
+     *                                  or the conveyor graph contains a cycle.
+     */
+    public ConveyorScheduler(List<Conveyor> conveyors) {
+        this.conveyorsById = createRegistry(conveyors);
+        this.order = Collections.unmodifiableList(sortTopologically(conveyors));
+        this.levels = Collections.unmodifiableList(splitIntoLevels());
+    }
+
+    /**
+     * @return the conveyors in the order they are computed within a tick.
+     */
+    public List<Conveyor> getOrder() {
+        return order;
+    }
+
+    /**
+     * Groups the conveyors by dependency level: level 0 holds the conveyors without inputs, and every other
+     * conveyor lies one level below its deepest input. Conveyors of one level do not depend on each other.
+     *
+     * @return the levels in computation order; within a level the conveyors keep their order.
+     */
+    public List<List<Conveyor>> getLevels() {
+        return levels;
+    }
+
+    public Conveyor getConveyorById(int id) {
+        return id >= 0 && id < conveyorsById.length ? conveyorsById[id] : null;
+    }
+
+    @Override
+    public boolean step(double tau) {
+        if (tau <= lastTau) {
+            return false;
+        }
+        order.forEach(conveyor -> calculateParameters(tau, conveyor));
+        lastTau = tau;
+        return true;
+    }
+
+    /**
+     * Computes the parameters of one conveyor at {@code tau}. The input conveyors must already be computed at
+     * {@code tau}.
+     *
+     * @param tau      the time point to compute.
+     * @param conveyor the conveyor to compute.
+     */
+    public void calculateParameters(double tau, Conveyor conveyor) {
+        calculateParameters(tau, conveyor, conveyor.getCombinedInputFlow(tau, this::getConveyorById));
+    }
+
+    /**
+     * Computes the parameters of one conveyor at {@code tau} with the output flows of its input conveyors supplied
+     * by the caller, for engines that do not share the series of the input conveyors between threads.
+     *
+     * @param tau            the time point to compute.
+     * @param conveyor       the conveyor to compute.
+     * @param outputFlowById the output flow at {@code tau} of the input conveyor with the given id.
+     */
+    public void calculateParameters(double tau, Conveyor conveyor, IntToDoubleFunction outputFlowById) {
+        calculateParameters(tau, conveyor, conveyor.getCombinedInputFlow(tau, this::getConveyorById, outputFlowById));
+    }
+
+    private void calculateParameters(double tau, Conveyor conveyor, InputFlow inputFlow) {
+        var speed = conveyor.getSpeed().getSpeedAtTau(tau);
+        var plannedBunkerOutput = Objects.isNull(conveyor.getBunkerOutputFlow())
+                ? conveyor.getBunker().getMaxAvailableOutput() : conveyor.getBunkerOutputFlow().getValueAtTau(tau);
+        conveyor.addParametersValues(tau, inputFlow.getValue(tau), plannedBunkerOutput, speed);
+    }
+
+    private static Conveyor[] createRegistry(List<Conveyor> conveyors) {
+        var maxId = conveyors.stream().mapToInt(Conveyor::getId).max().orElse(-1);
+        var registry = new Conveyor[maxId + 1];
+        conveyors.forEach(conveyor -> {
+            if (conveyor.getId() < 0) {
+                throw new IllegalArgumentException("The conveyor id must be non-negative: " + conveyor.getId());
+            }
+            if (Objects.nonNull(registry[conveyor.getId()])) {
+                throw new IllegalArgumentException("Duplicate conveyor id: " + conveyor.getId());
+            }
+            registry[conveyor.getId()] = conveyor;
+        });
+        return registry;
+    }
+
+    private List<List<Conveyor>> splitIntoLevels() {
+        var levelsById = new int[conveyorsById.length];
+        var result = new ArrayList<List<Conveyor>>();
+        order.forEach(conveyor -> {
+            var level = conveyor.getConveyorNode().getInputConveyorFlowMap().keySet().stream()
+                    .mapToInt(inputId -> levelsById[inputId] + 1)
+                    .max().orElse(0);
+            levelsById[conveyor.getId()] = level;
+            if (level == result.size()) {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(conveyor);
+        });
+        result.replaceAll(Collections::unmodifiableList);
+        return result;
+    }
+
+    /**
+     * Kahn's algorithm over the positions of the conveyors in the list.
+     */
+    private List<Conveyor> sortTopologically(List<Conveyor> conveyors) {
+        var positions = new int[conveyorsById.length];
+        for (int i = 0; i < conveyors.size(); i++) {
+            positions[conveyors.get(i).getId()] = i;
+        }
+        var inDegrees = new int[conveyors.size()];
+        var outputs = new ArrayList<List<Integer>>(conveyors.size());
+        conveyors.forEach(conveyor -> outputs.add(new ArrayList<>()));
+        for (int i = 0; i < conveyors.size(); i++) {
+            for (var inputId : conveyors.get(i).getConveyorNode().getInputConveyorFlowMap().keySet()) {
+                if (Objects.isNull(getConveyorById(inputId))) {
+                    throw new IllegalArgumentException("Unknown input conveyor " + inputId
+                            + " of conveyor " + conveyors.get(i).getId());
+                }
+                outputs.get(positions[inputId]).add(i);
+                inDegrees[i]++;
+            }
+        }
+
+        var ready = new ArrayDeque<Integer>();
+        for (int i = 0; i < conveyors.size(); i++) {
+            if (inDegrees[i] == 0) {
+                ready.add(i);
+            }
+        }
+        var sorted = new ArrayList<Conveyor>(conveyors.size());
+        while (!ready.isEmpty()) {
+            var position = ready.poll();
+            sorted.add(conveyors.get(position));
+            for (var output : outputs.get(position)) {
+                if (--inDegrees[output] == 0) {
+                    ready.add(output);
+                }
+            }
+        }
+        if (sorted.size() != conveyors.size()) {
+            var cycle = new ArrayList<Integer>();
+            for (int i = 0; i < conveyors.size(); i++) {
+                if (inDegrees[i] > 0) {
+                    cycle.add(conveyors.get(i).getId());
+                }
+            }
+            throw new IllegalArgumentException("The conveyor graph contains a cycle through conveyors " + cycle);
+        }
+        return sorted;
+    }
+}
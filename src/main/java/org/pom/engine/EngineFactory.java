@@ -0,0 +1,38 @@
+package org.pom.engine;
+
+import org.pom.Conveyor;
+import org.pom.utils.yaml.SettingsManager;
+
+import java.util.List;
+import java.util.Objects;
+
+public class EngineFactory {
+
+    /**
+     * Creates the engine configured by the {@code engine} section of {@code settings.yaml}.
+     * A missing section or mode selects the sequential engine.
+     *
+     * @param settings  the engine settings, may be {@code null}.
+     * @param conveyors the conveyors of the transport system.
+     * @return the engine.
+     */
+    public static SimulationEngine createEngine(SettingsManager.Settings.Engine settings, List<Conveyor> conveyors) {
+        var scheduler = new ConveyorScheduler(conveyors);
+        var mode = Objects.isNull(settings) || Objects.isNull(settings.getMode())
+                ? EngineMode.SEQUENTIAL : settings.getMode();
+        return switch (mode) {
+            case SEQUENTIAL -> scheduler;
+            case PARALLEL -> new ParallelEngine(scheduler, settings.getThreads());
+            case PIPELINED -> new PipelinedEngine(scheduler, settings.getThreads(), settings.getQueueCapacity());
+            case PARAREAL -> createPararealEngine(scheduler, settings);
+        };
+    }
+
+    private static PararealEngine createPararealEngine(ConveyorScheduler scheduler,
+                                                       SettingsManager.Settings.Engine settings) {
+        var parareal = Objects.isNull(settings.getParareal())
+                ? new SettingsManager.Settings.Parareal() : settings.getParareal();
+        return new PararealEngine(scheduler, settings.getThreads(), parareal.getSlices(), parareal.getCoarseFactor(),
+                parareal.getTolerance(), parareal.getMaxIterations());
+    }
+}
@@ -0,0 +1,24 @@
+package org.pom.engine;
+
+/**
+ * The execution modes of the simulation, selected by {@code engine.mode} in {@code settings.yaml}.
+ */
+public enum EngineMode {
+    /**
+     * All conveyors of a tick run on the calling thread in topological order.
+     */
+    SEQUENTIAL,
+    /**
+     * The conveyors of one dependency level run in parallel on a {@link java.util.concurrent.ForkJoinPool}.
+     */
+    PARALLEL,
+    /**
+     * Chains of conveyors run on their own threads, connected by bounded queues along the conveyor graph.
+     */
+    PIPELINED,
+    /**
+     * Time slices run in parallel and are corrected by a coarse solver until the boundaries converge,
+     * see {@link PararealEngine}.
+     */
+    PARAREAL
+}
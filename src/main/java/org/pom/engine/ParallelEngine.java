@@ -0,0 +1,62 @@
+package org.pom.engine;
+
+import org.pom.Conveyor;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The {@code ParallelEngine} computes a tick as a wavefront over the dependency levels of the conveyor graph.
+ * <p>
+ * Conveyors of the same level do not read each other's values, so a level is computed in parallel on a
+ * {@link ForkJoinPool}; the next level starts only when the previous one is complete. Each conveyor is computed by
+ * exactly the same code as in the sequential run and writes only its own series, so the results are identical to
+ * {@link ConveyorScheduler#step(double)} regardless of the number of threads.
+ */
+public class ParallelEngine implements SimulationEngine {
+    /**
+     * Levels with fewer conveyors are computed on the calling thread; forking them costs more than it saves.
+     */
+    static final int MIN_PARALLEL_LEVEL_SIZE = 2;
+
+    private final ConveyorScheduler scheduler;
+    private final List<List<Conveyor>> levels;
+    private final ForkJoinPool pool;
+    private double lastTau = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param scheduler the scheduler holding the order and the levels of the conveyors.
+     * @param threads   the number of worker threads; {@code 0} uses one thread per available processor.
+     * @throws IllegalArgumentException if {@code threads} is negative.
+     */
+    public ParallelEngine(ConveyorScheduler scheduler, int threads) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("The number of engine threads must be non-negative: " + threads);
+        }
+        this.scheduler = scheduler;
+        this.levels = scheduler.getLevels();
+        this.pool = new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+    }
+
+    @Override
+    public boolean step(double tau) {
+        if (tau <= lastTau) {
+            return false;
+        }
+        levels.forEach(level -> {
+            if (level.size() < MIN_PARALLEL_LEVEL_SIZE) {
+                level.forEach(conveyor -> scheduler.calculateParameters(tau, conveyor));
+            } else {
+                pool.submit(() -> level.parallelStream().forEach(conveyor -> scheduler.calculateParameters(tau, conveyor)))
+                        .join();
+            }
+        });
+        lastTau = tau;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
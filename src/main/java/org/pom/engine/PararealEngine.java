@@ -0,0 +1,291 @@
+package org.pom.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.pom.Bunker;
+import org.pom.Conveyor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code PararealEngine} computes a long study in parallel over time with the Parareal method.
+ * <p>
+ * {@link #step(double)} only collects the ticks; {@link #await()} splits them into slices and iterates. The fine
+ * solver, the sequential model at every tick, runs all slices in parallel, each from the predicted state at the
+ * start of its slice. The coarse solver, the same model stepped only every {@code coarseFactor} ticks, then corrects
+ * the predictions slice after slice: {@code U(j+1) = F(U(j)) + G(U(j)) - G(previous U(j))}.
+ * <p>
+ * The state at a slice boundary is a copy of the conveyors that keeps only the history the next steps can read,
+ * see {@link Conveyor#copy(Conveyor, double)}. The correction applies to the bunker parameters of that history, back to the tau
+ * at which the material now leaving each conveyor entered it. The transport delay depends on the speeds only; the
+ * coarse solver advances it at every tick, so it is the same in both solvers and the history has the same length.
+ * <p>
+ * The iterations stop when no bunker parameter at a boundary changes by more than the tolerance, or after the
+ * maximal number of iterations. After as many iterations as there are slices every slice starts from the exact
+ * state, and with a zero tolerance the values are identical to the sequential run. The values of every slice are
+ * taken over from its last fine run.
+ */
+@Slf4j
+public class PararealEngine implements SimulationEngine {
+    static final int DEFAULT_COARSE_FACTOR = 10;
+    private static final int PARAMETERS_COUNT = Bunker.PARAMETERS_NAMES.size();
+
+    private final List<Conveyor> conveyors;
+    private final ForkJoinPool pool;
+    private final int slices;
+    private final int coarseFactor;
+    private final double tolerance;
+    private final int maxIterations;
+    private double[] taus = new double[16];
+    private int tauCount;
+    private double lastTau = Double.NEGATIVE_INFINITY;
+    private int iterations;
+
+    /**
+     * @param scheduler     the scheduler holding the order of the conveyors.
+     * @param threads       the number of worker threads; {@code 0} uses one thread per available processor.
+     * @param slices        the number of time slices; {@code 0} uses one slice per thread.
+     * @param coarseFactor  the number of ticks per step of the coarse solver; {@code 0} selects the default.
+     * @param tolerance     the largest change of a bunker parameter at a slice boundary that ends the iterations.
+     * @param maxIterations the maximal number of iterations; {@code 0} allows one iteration per slice.
+     * @throws IllegalArgumentException if a parameter is negative.
+     */
+    public PararealEngine(ConveyorScheduler scheduler, int threads, int slices, int coarseFactor, double tolerance,
+                          int maxIterations) {
+        if (threads < 0 || slices < 0 || coarseFactor < 0 || maxIterations < 0 || !(tolerance >= 0.0)) {
+            throw new IllegalArgumentException("The Parareal parameters must be non-negative: threads " + threads
+                    + ", slices " + slices + ", coarseFactor " + coarseFactor + ", tolerance " + tolerance
+                    + ", maxIterations " + maxIterations);
+        }
+        var threadCount = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.conveyors = scheduler.getOrder();
+        this.pool = new ForkJoinPool(threadCount);
+        this.slices = slices == 0 ? threadCount : slices;
+        this.coarseFactor = coarseFactor == 0 ? DEFAULT_COARSE_FACTOR : coarseFactor;
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @return the number of iterations of the last {@link #await()}.
+     */
+    int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Collects the tick; it is computed by {@link #await()}.
+     */
+    @Override
+    public boolean step(double tau) {
+        if (tau <= lastTau) {
+            return false;
+        }
+        if (tauCount == taus.length) {
+            taus = Arrays.copyOf(taus, tauCount + (tauCount >> 1));
+        }
+        taus[tauCount++] = tau;
+        lastTau = tau;
+        return true;
+    }
+
+    @Override
+    public void await() {
+        if (tauCount == 0) {
+            return;
+        }
+        var run = new Run(Math.min(slices, tauCount));
+        run.iterate();
+        run.takeOver();
+        tauCount = 0;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static double distance(double[] values, double[] previousValues) {
+        var distance = 0.0;
+        for (int i = 0; i < values.length; i++) {
+            if (Double.compare(values[i], previousValues[i]) != 0) {
+                distance = Math.max(distance, Math.abs(values[i] - previousValues[i]));
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Copies the conveyors of a state with the input data of the transport system.
+     */
+    private List<Conveyor> copy(List<Conveyor> state, double lastInputTau) {
+        return IntStream.range(0, state.size())
+                .mapToObj(i -> state.get(i).copy(conveyors.get(i), lastInputTau))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The conveyors at a slice boundary and the bunker parameters the correction applies to.
+     */
+    private record State(List<Conveyor> conveyors, double[] values) {
+    }
+
+    /**
+     * One Parareal computation of the collected ticks.
+     */
+    private final class Run {
+        private final int sliceCount;
+        /**
+         * The index of the first tick of every slice, and {@link #tauCount} at the end.
+         */
+        private final int[] bounds;
+        /**
+         * The index of the first tick of the corrected history, by boundary and conveyor.
+         */
+        private final int[][] histories;
+        /**
+         * The predicted state at the start of every slice.
+         */
+        private final State[] states;
+        /**
+         * The coarse solution at the end of every slice, from its current start state.
+         */
+        private final State[] coarse;
+        /**
+         * The last fine solution at the end of every slice.
+         */
+        private final State[] fine;
+
+        private Run(int sliceCount) {
+            this.sliceCount = sliceCount;
+            this.bounds = new int[sliceCount + 1];
+            for (int j = 0; j <= sliceCount; j++) {
+                bounds[j] = (int) ((long) tauCount * j / sliceCount);
+            }
+            this.histories = new int[sliceCount + 1][];
+            this.states = new State[sliceCount + 1];
+            this.coarse = new State[sliceCount + 1];
+            this.fine = new State[sliceCount];
+        }
+
+        private void iterate() {
+            states[0] = new State(conveyors, null);
+            for (int j = 1; j < sliceCount; j++) {
+                coarse[j] = propagate(states[j - 1], j - 1, true);
+                states[j] = coarse[j];
+            }
+
+            var lastIteration = maxIterations == 0 ? sliceCount : Math.min(maxIterations, sliceCount);
+            var change = 0.0;
+            for (iterations = 1; ; iterations++) {
+                // The slices before the first one started from the exact state in an earlier iteration.
+                var first = iterations - 1;
+                pool.submit(() -> IntStream.range(first, sliceCount).parallel()
+                        .forEach(j -> fine[j] = propagate(states[j], j, false))).join();
+                change = 0.0;
+                for (int j = first + 1; j < sliceCount; j++) {
+                    var predicted = j == first + 1 ? coarse[j] : propagate(states[j - 1], j - 1, true);
+                    var values = fine[j - 1].values().clone();
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] += predicted.values()[i] - coarse[j].values()[i];
+                    }
+                    change = Math.max(change, distance(values, states[j].values()));
+                    states[j] = correct(fine[j - 1], j, values);
+                    coarse[j] = predicted;
+                }
+                if (change <= tolerance || iterations == lastIteration) {
+                    break;
+                }
+            }
+            if (!(change <= tolerance)) {
+                log.warn("Parareal stopped after {} iterations with a change of {} above the tolerance {}",
+                        iterations, change, tolerance);
+            }
+        }
+
+        /**
+         * Puts the values of the last fine solution of every slice into the conveyors of the transport system.
+         */
+        private void takeOver() {
+            for (int j = 0; j < sliceCount; j++) {
+                var result = fine[j].conveyors();
+                for (int i = 0; i < conveyors.size(); i++) {
+                    conveyors.get(i).copyRows(result.get(i), taus[bounds[j]], taus[bounds[j + 1] - 1]);
+                }
+            }
+        }
+
+        /**
+         * Computes one slice from a copy of its start state, with every tick or, for the coarse solver, with the
+         * first tick, every {@code coarseFactor}-th tick after it and the last one.
+         */
+        private State propagate(State start, int slice, boolean isCoarse) {
+            var from = bounds[slice];
+            var to = bounds[slice + 1];
+            var copies = copy(start.conveyors(), taus[to - 1]);
+            var scheduler = new ConveyorScheduler(copies);
+            for (int i = from; i < to; i++) {
+                var tau = taus[i];
+                if (!isCoarse || (i - from) % coarseFactor == 0 || i == to - 1) {
+                    scheduler.step(tau);
+                } else {
+                    copies.forEach(conveyor -> conveyor.getTransportDelay()
+                            .addParametersValues(tau, conveyor.getSpeed().getSpeedAtTau(tau)));
+                }
+            }
+            return new State(copies, slice + 1 < sliceCount ? getValues(copies, slice + 1) : null);
+        }
+
+        private State correct(State state, int boundary, double[] values) {
+            var copies = copy(state.conveyors(), taus[bounds[boundary + 1] - 1]);
+            var history = histories[boundary];
+            var offset = 0;
+            for (int i = 0; i < copies.size(); i++) {
+                var bunker = copies.get(i).getBunker();
+                for (int tick = history[i]; tick < bounds[boundary]; tick++) {
+                    bunker.setParameters(taus[tick], values, offset);
+                    offset += PARAMETERS_COUNT;
+                }
+            }
+            return new State(copies, values);
+        }
+
+        private double[] getValues(List<Conveyor> copies, int boundary) {
+            var history = getHistory(copies, boundary);
+            var size = 0;
+            for (var start : history) {
+                size += (bounds[boundary] - start) * PARAMETERS_COUNT;
+            }
+            var values = new double[size];
+            var offset = 0;
+            for (int i = 0; i < copies.size(); i++) {
+                var bunker = copies.get(i).getBunker();
+                for (int tick = history[i]; tick < bounds[boundary]; tick++) {
+                    bunker.getParameters(taus[tick], values, offset);
+                    offset += PARAMETERS_COUNT;
+                }
+            }
+            return values;
+        }
+
+        /**
+         * The history of a boundary is fixed by the first state computed for it, which is always on the calling
+         * thread; the transport delay is the same in every later state.
+         */
+        private int[] getHistory(List<Conveyor> copies, int boundary) {
+            if (histories[boundary] == null) {
+                var history = new int[copies.size()];
+                for (int i = 0; i < copies.size(); i++) {
+                    var startTau = copies.get(i).getTransportDelay().getDelayStartTau();
+                    var index = Arrays.binarySearch(taus, 0, bounds[boundary], startTau);
+                    history[i] = Math.max((index < 0 ? -index - 1 : index) - 1, 0);
+                }
+                histories[boundary] = history;
+            }
+            return histories[boundary];
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.pom.engine;
+
+import org.pom.Conveyor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * The {@code PipelinedEngine} runs the stages of chains of conveyors on different threads and lets upstream stages
+ * run ahead of downstream ones.
+ * <p>
+ * The conveyor graph is cut into chains: a conveyor joins the chain of its input when it is the only input and the
+ * input feeds no other conveyor. The consecutive stages of a chain are dealt to consecutive worker threads, and
+ * every worker computes its conveyors tick after tick in topological order. The output flow of a conveyor crosses
+ * to a conveyor on another thread through a bounded {@link SpscDoubleQueue}, one per edge, so no series is shared
+ * between threads. An upstream stage can be up to the queue capacity ticks ahead of its consumers; a deep serial
+ * chain therefore keeps several cores busy, which level-by-level parallelism cannot do.
+ * <p>
+ * {@link #step(double)} only hands the tick to the workers; {@link #await()} waits until every accepted tick is
+ * computed. The values are identical to the sequential run: every conveyor is computed by the same code from the
+ * same input values.
+ */
+public class PipelinedEngine implements SimulationEngine {
+    static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final ConveyorScheduler scheduler;
+    private final List<Worker> workers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean closed;
+    private long acceptedTicks;
+    private double lastTau = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param scheduler     the scheduler holding the order of the conveyors.
+     * @param threads       the maximal number of worker threads; {@code 0} uses one per available processor.
+     * @param queueCapacity the capacity of the queues between threads; {@code 0} selects the default capacity.
+     * @throws IllegalArgumentException if {@code threads} or {@code queueCapacity} is negative.
+     */
+    public PipelinedEngine(ConveyorScheduler scheduler, int threads, int queueCapacity) {
+        if (threads < 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("The number of engine threads (" + threads
+                    + ") and the queue capacity (" + queueCapacity + ") must be non-negative.");
+        }
+        this.scheduler = scheduler;
+        var capacity = queueCapacity == 0 ? DEFAULT_QUEUE_CAPACITY : queueCapacity;
+        var workerCount = Math.min(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads,
+                scheduler.getOrder().size());
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(capacity));
+        }
+
+        var lanesById = splitIntoChains(scheduler.getOrder());
+        var stagesById = new Stage[lanesById.length];
+        scheduler.getOrder().forEach(conveyor -> {
+            var worker = lanesById[conveyor.getId()] % workerCount;
+            var inputIds = conveyor.getConveyorNode().getInputConveyorFlowMap().keySet().stream()
+                    .mapToInt(Integer::intValue).toArray();
+            var stage = new Stage(conveyor, worker, inputIds);
+            for (int i = 0; i < inputIds.length; i++) {
+                var input = stagesById[inputIds[i]];
+                if (input.worker != worker) {
+                    stage.inputQueues[i] = new SpscDoubleQueue(capacity);
+                    input.outputQueues.add(stage.inputQueues[i]);
+                }
+            }
+            stagesById[conveyor.getId()] = stage;
+            workers.get(worker).stages.add(stage);
+        });
+
+        for (int i = 0; i < workers.size(); i++) {
+            var thread = new Thread(workers.get(i), "conveyor-pipeline-" + i);
+            thread.setDaemon(true);
+            workers.get(i).thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Hands the tick to the workers and returns without waiting for it to be computed.
+     */
+    @Override
+    public boolean step(double tau) {
+        if (tau <= lastTau) {
+            return false;
+        }
+        try {
+            workers.forEach(worker -> put(worker.taus, tau));
+        } catch (CancellationException e) {
+            throw failed();
+        }
+        acceptedTicks++;
+        lastTau = tau;
+        return true;
+    }
+
+    @Override
+    public void await() {
+        for (var worker : workers) {
+            for (int spins = 0; worker.completedTicks != acceptedTicks; spins++) {
+                if (failure.get() != null || closed) {
+                    throw failed();
+                }
+                backOff(spins);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (var worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param conveyorId the id of a conveyor.
+     * @return the index of the worker thread that computes the conveyor.
+     */
+    int getWorker(int conveyorId) {
+        for (int i = 0; i < workers.size(); i++) {
+            for (var stage : workers.get(i).stages) {
+                if (stage.conveyor.getId() == conveyorId) {
+                    return i;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown conveyor: " + conveyorId);
+    }
+
+    /**
+     * Assigns every conveyor a lane: a conveyor that starts a chain takes the lane after the last one of the
+     * previous chain, and the next stage of a chain takes the lane after the one of its input. The worker of a
+     * conveyor is its lane modulo the number of workers, so the consecutive stages of a chain run on different
+     * workers.
+     *
+     * @return the lane by conveyor id.
+     */
+    private static int[] splitIntoChains(List<Conveyor> order) {
+        var maxId = order.stream().mapToInt(Conveyor::getId).max().orElse(-1);
+        var consumers = new int[maxId + 1];
+        order.forEach(conveyor -> conveyor.getConveyorNode().getInputConveyorFlowMap().keySet()
+                .forEach(inputId -> consumers[inputId]++));
+        var lanes = new int[maxId + 1];
+        var nextLane = 0;
+        for (var conveyor : order) {
+            var inputIds = conveyor.getConveyorNode().getInputConveyorFlowMap().keySet();
+            if (inputIds.size() == 1 && consumers[inputIds.iterator().next()] == 1) {
+                lanes[conveyor.getId()] = lanes[inputIds.iterator().next()] + 1;
+                nextLane = Math.max(nextLane, lanes[conveyor.getId()] + 1);
+            } else {
+                lanes[conveyor.getId()] = nextLane++;
+            }
+        }
+        return lanes;
+    }
+
+    private void put(SpscDoubleQueue queue, double value) {
+        for (int spins = 0; !queue.offer(value); spins++) {
+            checkRunning();
+            backOff(spins);
+        }
+    }
+
+    private double take(SpscDoubleQueue queue) {
+        for (int spins = 0; queue.isEmpty(); spins++) {
+            checkRunning();
+            backOff(spins);
+        }
+        return queue.poll();
+    }
+
+    private void checkRunning() {
+        if (closed || failure.get() != null) {
+            throw new CancellationException();
+        }
+    }
+
+    private static void backOff(int spins) {
+        if (spins < SPINS_BEFORE_PARKING) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private IllegalStateException failed() {
+        return new IllegalStateException("The pipelined engine is " + (closed ? "closed." : "failed."), failure.get());
+    }
+
+    /**
+     * One conveyor on its worker, with the queues of the edges that cross to other workers.
+     */
+    private final class Stage implements IntToDoubleFunction {
+        private final Conveyor conveyor;
+        private final int worker;
+        private final int[] inputIds;
+        /**
+         * The queue of each input conveyor, or {@code null} when the input runs on the same worker.
+         */
+        private final SpscDoubleQueue[] inputQueues;
+        private final double[] inputValues;
+        private final List<SpscDoubleQueue> outputQueues = new ArrayList<>();
+
+        private Stage(Conveyor conveyor, int worker, int[] inputIds) {
+            this.conveyor = conveyor;
+            this.worker = worker;
+            this.inputIds = inputIds;
+            this.inputQueues = new SpscDoubleQueue[inputIds.length];
+            this.inputValues = new double[inputIds.length];
+        }
+
+        private void compute(double tau) {
+            for (int i = 0; i < inputIds.length; i++) {
+                inputValues[i] = inputQueues[i] == null
+                        ? scheduler.getConveyorById(inputIds[i]).getOutputFlow().getOutputFlowAtTau(tau)
+                        : take(inputQueues[i]);
+            }
+            scheduler.calculateParameters(tau, conveyor, this);
+            if (!outputQueues.isEmpty()) {
+                var outputFlow = conveyor.getOutputFlow().getOutputFlowAtTau(tau);
+                for (var queue : outputQueues) {
+                    put(queue, outputFlow);
+                }
+            }
+        }
+
+        @Override
+        public double applyAsDouble(int inputId) {
+            for (int i = 0; i < inputIds.length; i++) {
+                if (inputIds[i] == inputId) {
+                    return inputValues[i];
+                }
+            }
+            throw new IllegalArgumentException("Unknown input conveyor " + inputId + " of conveyor " + conveyor.getId());
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final List<Stage> stages = new ArrayList<>();
+        private final SpscDoubleQueue taus;
+        private volatile long completedTicks;
+        private Thread thread;
+
+        private Worker(int queueCapacity) {
+            this.taus = new SpscDoubleQueue(queueCapacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    var tau = take(taus);
+                    for (var stage : stages) {
+                        stage.compute(tau);
+                    }
+                    completedTicks++;
+                }
+            } catch (CancellationException e) {
+                // The engine is closed or another worker failed.
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.pom.engine;
+
+/**
+ * Advances the conveyors of a transport system one tick at a time.
+ * <p>
+ * Every engine produces the same values as the sequential {@link ConveyorScheduler}; engines differ only in how
+ * the work is spread over threads. The series of the conveyors may be read once {@link #await()} returns.
+ */
+public interface SimulationEngine extends AutoCloseable {
+
+    /**
+     * Computes the parameters of every conveyor at {@code tau}. Taus are expected in increasing order;
+     * a tau that is not after the last accepted one has already been computed and is skipped.
+     *
+     * @param tau the time point to compute.
+     * @return {@code true} if the tick was accepted.
+     */
+    boolean step(double tau);
+
+    /**
+     * Waits until every accepted tick is computed. The default implementation returns at once, for engines that
+     * compute a tick before {@link #step(double)} returns.
+     *
+     * @throws IllegalStateException if the computation failed on a worker thread.
+     */
+    default void await() {
+    }
+
+    /**
+     * Releases the threads of the engine. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
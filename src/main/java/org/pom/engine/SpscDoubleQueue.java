@@ -0,0 +1,78 @@
+package org.pom.engine;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A bounded single-producer/single-consumer queue of primitive {@code double} values.
+ * <p>
+ * The values live in a ring buffer whose capacity is a power of two. Exactly one thread may call {@link #offer}
+ * and exactly one other thread may call {@link #poll}; the two threads synchronize only through the volatile head
+ * and tail counters, so neither side takes a lock or allocates. The queue never blocks: callers decide how to wait
+ * when it is full or empty.
+ */
+public class SpscDoubleQueue {
+    private final double[] buffer;
+    private final int mask;
+    /**
+     * The number of values taken so far; written only by the consumer.
+     */
+    private volatile long head;
+    /**
+     * The number of values added so far; written only by the producer.
+     */
+    private volatile long tail;
+
+    /**
+     * @param capacity the minimal number of values the queue holds; rounded up to a power of two.
+     * @throws IllegalArgumentException if {@code capacity} is not positive or too large.
+     */
+    public SpscDoubleQueue(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("The queue capacity must lie between 1 and 2^30: " + capacity);
+        }
+        var size = Integer.highestOneBit(capacity);
+        size = size < capacity ? size << 1 : size;
+        this.buffer = new double[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Adds a value; called by the producer thread only.
+     *
+     * @param value the value to add.
+     * @return {@code false} if the queue is full and the value was not added.
+     */
+    public boolean offer(double value) {
+        var currentTail = tail;
+        if (currentTail - head == buffer.length) {
+            return false;
+        }
+        buffer[(int) currentTail & mask] = value;
+        tail = currentTail + 1;
+        return true;
+    }
+
+    /**
+     * Takes the oldest value; called by the consumer thread only.
+     *
+     * @return the oldest value.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public double poll() {
+        var currentHead = head;
+        if (currentHead == tail) {
+            throw new NoSuchElementException("The queue is empty.");
+        }
+        var value = buffer[(int) currentHead & mask];
+        head = currentHead + 1;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+}
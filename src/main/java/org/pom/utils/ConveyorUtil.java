@@ -1,5 +1,7 @@
 package org.pom.utils;
 
+import org.pom.utils.series.DoubleSeries;
+
 import java.util.List;
 import java.util.TreeMap;
 
@@ -14,4 +16,14 @@ public class ConveyorUtil {
                 tau -> treeMap.put(tau, defaultValue)
         );
     }
+
+    public static void fillEmptyParametersByCurrentTau(double currentTau, double previousFinishTime, List<Double> taus, DoubleSeries series, double defaultValue) {
+        if(currentTau == previousFinishTime  || series.isEmpty()){
+            return;
+        }
+        var lastTau = series.lastKey();
+        taus.stream().filter(tau -> lastTau <= tau && tau < currentTau).forEach(
+                tau -> series.put(tau, defaultValue)
+        );
+    }
 }
@@ -0,0 +1,119 @@
+package org.pom.utils;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Formats doubles like {@code String.format(locale, cellFormat, value)} for a fixed-point cell format such as
+ * {@code %8.5f}, writing the digits straight into a {@link StringBuilder}.
+ * <p>
+ * The format is parsed once. A value is scaled by {@code 10^precision} and rounded half up, which is what
+ * {@link java.util.Formatter} does with the decimal digits of the value, and the digits of the rounded long are
+ * appended without creating any object. A value whose scaled fraction is too close to one half to be rounded
+ * safely in double arithmetic, a value too large for a long, NaN, an infinity, and any format other than
+ * {@code %[width][.precision]f} are passed to {@link String#format(Locale, String, Object...)} instead, so the
+ * result is always the same. An instance is not thread-safe.
+ */
+public class FixedPointFormatter {
+    private static final Pattern FIXED_POINT = Pattern.compile("%([1-9]\\d*)?(?:\\.(\\d+))?f");
+    private static final int DEFAULT_PRECISION = 6;
+    /**
+     * Scaled values up to this bound are represented with an error far below {@link #HALF_MARGIN}.
+     */
+    private static final double MAX_SCALED = 1.0e9;
+    private static final double HALF_MARGIN = 1.0e-6;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final Locale locale;
+    private final String cellFormat;
+    private final boolean isFixedPoint;
+    private final int width;
+    private final int precision;
+    private final char decimalSeparator;
+    private final char[] digits = new char[24];
+
+    private FixedPointFormatter(Locale locale, String cellFormat, boolean isFixedPoint, int width, int precision,
+                                char decimalSeparator) {
+        this.locale = locale;
+        this.cellFormat = cellFormat;
+        this.isFixedPoint = isFixedPoint;
+        this.width = width;
+        this.precision = precision;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param locale     the locale the values are formatted with.
+     * @return the formatter of {@code cellFormat}.
+     */
+    public static FixedPointFormatter compile(String cellFormat, Locale locale) {
+        var matcher = FIXED_POINT.matcher(cellFormat);
+        var symbols = Objects.isNull(locale) ? null : DecimalFormatSymbols.getInstance(locale);
+        if (!matcher.matches() || (Objects.nonNull(symbols) && symbols.getZeroDigit() != '0')) {
+            return new FixedPointFormatter(locale, cellFormat, false, 0, 0, '.');
+        }
+        var width = matcher.group(1) == null ? 0 : Integer.parseInt(matcher.group(1));
+        var precision = matcher.group(2) == null ? DEFAULT_PRECISION : Integer.parseInt(matcher.group(2));
+        var isFixedPoint = precision < POWERS_OF_TEN.length;
+        return new FixedPointFormatter(locale, cellFormat, isFixedPoint, width, precision,
+                Objects.isNull(symbols) ? '.' : symbols.getDecimalSeparator());
+    }
+
+    /**
+     * @param value the value.
+     * @return the formatted value.
+     */
+    public String format(double value) {
+        var target = new StringBuilder();
+        format(value, target);
+        return target.toString();
+    }
+
+    /**
+     * Appends the formatted value.
+     *
+     * @param value  the value.
+     * @param target the builder the value is appended to.
+     */
+    public void format(double value, StringBuilder target) {
+        var scaled = Math.abs(value) * POWERS_OF_TEN[isFixedPoint ? precision : 0];
+        if (!isFixedPoint || !(scaled < MAX_SCALED)) {
+            target.append(String.format(locale, cellFormat, value));
+            return;
+        }
+        var rounded = (long) scaled;
+        var fraction = scaled - rounded;
+        if (Math.abs(fraction - 0.5) < HALF_MARGIN) {
+            target.append(String.format(locale, cellFormat, value));
+            return;
+        }
+        if (fraction > 0.5) {
+            rounded++;
+        }
+
+        var position = digits.length;
+        for (int i = 0; i < precision; i++) {
+            digits[--position] = (char) ('0' + rounded % 10);
+            rounded /= 10;
+        }
+        if (precision > 0) {
+            digits[--position] = decimalSeparator;
+        }
+        do {
+            digits[--position] = (char) ('0' + rounded % 10);
+            rounded /= 10;
+        } while (rounded > 0);
+        if (Double.compare(value, 0.0) < 0) {
+            digits[--position] = '-';
+        }
+        for (int i = digits.length - position; i < width; i++) {
+            target.append(' ');
+        }
+        target.append(digits, position, digits.length - position);
+    }
+}
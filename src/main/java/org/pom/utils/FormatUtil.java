@@ -4,9 +4,19 @@ import java.util.Locale;
 
 public class FormatUtil {
     public static String getString(Locale locale, String value, String cellFormat, String header) {
+        return String.format(locale, "%" + getColumnWidth(cellFormat, header) + "s", value);
+    }
+
+    /**
+     * @param cellFormat the format of a cell, e.g. {@code %8.5f}.
+     * @param header     the header of the column.
+     * @return the width the cells of the column are padded to: the width of {@code cellFormat}, or the length of
+     * the header if it is longer.
+     */
+    public static int getColumnWidth(String cellFormat, String header) {
         var columnWidth = Integer.parseInt(cellFormat
                         .replace("%","")
                         .split("\\.")[0]);
-        return String.format(locale, "%" + (Math.max(header.length(), columnWidth)) + "s", value);
+        return Math.max(header.length(), columnWidth);
     }
 }
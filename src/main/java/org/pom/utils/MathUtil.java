@@ -1,5 +1,8 @@
 package org.pom.utils;
 
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.SortedKeys;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeMap;
@@ -23,6 +26,33 @@ public class MathUtil {
         return treeMap.get(treeMap.ceilingKey(key));
     }
 
+    public static double getValueByKey(DoubleSeries series, double key) {
+        return series.valueAt(getIndexByKey(series, key));
+    }
+
+    /**
+     * Finds the position of the key, or of the least greater key, with the same rules as
+     * {@link #getValueByKey(TreeMap, double)}.
+     */
+    public static int getIndexByKey(SortedKeys keys, double key) {
+        var index = keys.indexOf(key);
+        if (index >= 0) {
+            return index;
+        }
+
+        var firstKey = keys.keyAt(0);
+        var lastKey = keys.keyAt(keys.size() - 1);
+        if (firstKey > key || lastKey < key) {
+            throw new IllegalArgumentException(
+                    "The specified key value " + key
+                            + " must lie between the minimum " + firstKey
+                            + "  and maximum "+ lastKey + " keys in the map."
+            );
+        }
+
+        return keys.ceilingIndex(key);
+    }
+
     public static <T> List<List<T>> transposeMatrix(List<List<T>> matrix, Function<Integer, T> defaultValue) {
         if (matrix.isEmpty()) return new ArrayList<>();
 
@@ -0,0 +1,233 @@
+package org.pom.utils.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An output stream that passes the written bytes to another stream on a dedicated thread, e.g. a compressing
+ * stream, so that compressing and writing the file overlap with producing the bytes.
+ * <p>
+ * The bytes are collected in chunks; a full chunk is handed to the thread through a bounded queue, and the
+ * producer waits only when {@link #PENDING_CHUNKS} chunks are not written yet. {@link #flush()} hands the current
+ * chunk over and waits until the stream is flushed; {@link #close()} waits until every byte is written and closes
+ * the stream. An error of the thread is thrown by the next call that hands it a chunk.
+ */
+public class PipelinedOutputStream extends OutputStream {
+    static final int CHUNK_SIZE = 1 << 16;
+    static final int PENDING_CHUNKS = 4;
+    private static final Chunk CLOSE = new Chunk(0);
+
+    private final OutputStream output;
+    private final BlockingQueue<Chunk> filledChunks = new ArrayBlockingQueue<>(PENDING_CHUNKS);
+    private final BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(PENDING_CHUNKS + 1);
+    private final Semaphore flushed = new Semaphore(0);
+    private final Thread thread;
+    private volatile IOException failure;
+    private Chunk chunk = new Chunk(CHUNK_SIZE);
+    private boolean closed;
+
+    /**
+     * Starts the thread.
+     *
+     * @param output the stream the bytes are written to; it is called by the thread only.
+     * @param name   the name of the thread.
+     */
+    public PipelinedOutputStream(OutputStream output, String name) {
+        this.output = output;
+        this.thread = new Thread(this::writeChunks, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Creates a GZIP file compressed on a dedicated thread.
+     *
+     * @param file  the file; its directory is created if it does not exist.
+     * @param level the compression level of {@link Deflater}, from 1 (fastest) to 9 (smallest), or
+     *              {@link Deflater#DEFAULT_COMPRESSION}.
+     * @return the stream of the uncompressed bytes.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the level is not valid.
+     */
+    public static PipelinedOutputStream gzip(Path file, int level) throws IOException {
+        if (level != Deflater.DEFAULT_COMPRESSION
+                && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Not a compression level: " + level);
+        }
+        var output = new BufferedOutputStream(newOutputStream(file), CHUNK_SIZE);
+        try {
+            return new PipelinedOutputStream(new GZIPOutputStream(output, CHUNK_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            }, "gzip-" + file.getFileName());
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a file written on a dedicated thread.
+     *
+     * @param file the file; its directory is created if it does not exist.
+     * @return the stream of the bytes of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static PipelinedOutputStream file(Path file) throws IOException {
+        return new PipelinedOutputStream(new BufferedOutputStream(newOutputStream(file), CHUNK_SIZE),
+                "write-" + file.getFileName());
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (chunk.size == chunk.bytes.length) {
+            handOver(chunk);
+        }
+        chunk.bytes[chunk.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (chunk.size == chunk.bytes.length) {
+                handOver(chunk);
+            }
+            var size = Math.min(len, chunk.bytes.length - chunk.size);
+            System.arraycopy(b, off, chunk.bytes, chunk.size, size);
+            chunk.size += size;
+            off += size;
+            len -= size;
+        }
+    }
+
+    /**
+     * Hands the collected bytes to the thread and waits until it has written and flushed them.
+     */
+    @Override
+    public void flush() throws IOException {
+        chunk.flush = true;
+        handOver(chunk);
+        try {
+            flushed.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the thread " + thread.getName());
+        }
+        throwFailure();
+    }
+
+    /**
+     * Waits until the thread has written every byte, then closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (thread.isAlive()) {
+                if (failure == null) {
+                    handOver(chunk);
+                }
+                filledChunks.put(CLOSE);
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the thread " + thread.getName());
+        } finally {
+            output.close();
+        }
+        throwFailure();
+    }
+
+    private static OutputStream newOutputStream(Path file) throws IOException {
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        return Files.newOutputStream(file);
+    }
+
+    /**
+     * Hands a chunk to the thread and continues with a free chunk.
+     */
+    private void handOver(Chunk filled) throws IOException {
+        throwFailure();
+        try {
+            filledChunks.put(filled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the thread " + thread.getName());
+        }
+        var free = freeChunks.poll();
+        chunk = free == null ? new Chunk(CHUNK_SIZE) : free;
+    }
+
+    private void throwFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("The thread " + thread.getName() + " failed", failure);
+        }
+    }
+
+    /**
+     * The loop of the thread. After an error the chunks are only returned, so the producer never waits for a failed
+     * stream.
+     */
+    private void writeChunks() {
+        while (true) {
+            Chunk filled;
+            try {
+                filled = filledChunks.take();
+            } catch (InterruptedException e) {
+                failure = new InterruptedIOException("The thread " + thread.getName() + " was interrupted");
+                return;
+            }
+            if (filled == CLOSE) {
+                return;
+            }
+            if (failure == null) {
+                try {
+                    output.write(filled.bytes, 0, filled.size);
+                    if (filled.flush) {
+                        output.flush();
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                } catch (RuntimeException e) {
+                    failure = new IOException(e);
+                }
+            }
+            if (filled.flush) {
+                flushed.release();
+            }
+            filled.size = 0;
+            filled.flush = false;
+            freeChunks.offer(filled);
+        }
+    }
+
+    /**
+     * The bytes handed to the thread at once.
+     */
+    private static class Chunk {
+        private final byte[] bytes;
+        private int size;
+        private boolean flush;
+
+        Chunk(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.pom.utils.io.binary;
+
+/**
+ * The layout of a columnar binary file.
+ * <p>
+ * The file starts with a header: the magic number, the format version, the number of columns, the number of rows,
+ * the row stride, the offset of the data and the names of the columns, each as its length and its UTF-8 bytes. The
+ * data starts at the first multiple of 8 after the header; column {@code i} holds the rows as contiguous doubles
+ * from {@code dataOffset + i * rowStride * 8}. The stride equals the number of rows once the file is closed and
+ * may be larger while it is written. All numbers are little-endian.
+ */
+final class ColumnarFileFormat {
+    static final long MAGIC = 0x5453524553554C54L;
+    static final int VERSION = 1;
+    static final int VERSION_OFFSET = 8;
+    static final int COLUMN_COUNT_OFFSET = 12;
+    static final int ROW_COUNT_OFFSET = 16;
+    static final int ROW_STRIDE_OFFSET = 24;
+    static final int DATA_OFFSET_OFFSET = 32;
+    static final int NAMES_OFFSET = 40;
+
+    private ColumnarFileFormat() {
+    }
+}
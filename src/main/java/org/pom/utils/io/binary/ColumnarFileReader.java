@@ -0,0 +1,172 @@
+package org.pom.utils.io.binary;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.pom.utils.io.binary.ColumnarFileFormat.*;
+
+/**
+ * Reads a columnar binary file written by {@link ColumnarFileWriter}. Every column is mapped into memory when it
+ * is first read, and is returned as a read-only view of the mapped file; nothing is copied.
+ * <p>
+ * The first column is the key of the rows, e.g. the tau, and must be increasing; the rows of a key range are
+ * found by a binary search in it. The file must not be written while it is read, since the writer moves its
+ * columns; the written rows of a file that was not closed can be read once its writer has stopped.
+ */
+public class ColumnarFileReader implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final List<String> columnNames = new ArrayList<>();
+    private final int rowCount;
+    private final long rowStride;
+    private final long dataOffset;
+    private final DoubleBuffer[] columns;
+
+    /**
+     * @param file the columnar binary file.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the file is not a columnar binary file, or a column is too large to be
+     *                               mapped.
+     */
+    public ColumnarFileReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < NAMES_OFFSET) {
+                throw new IllegalStateException("Not a columnar binary file: " + file);
+            }
+            var fixedHeader = channel.map(FileChannel.MapMode.READ_ONLY, 0, NAMES_OFFSET)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (fixedHeader.getLong(0) != MAGIC || fixedHeader.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IllegalStateException("Not a columnar binary file: " + file);
+            }
+            var columnCount = fixedHeader.getInt(COLUMN_COUNT_OFFSET);
+            var rows = fixedHeader.getLong(ROW_COUNT_OFFSET);
+            this.rowStride = fixedHeader.getLong(ROW_STRIDE_OFFSET);
+            this.dataOffset = fixedHeader.getLong(DATA_OFFSET_OFFSET);
+            if (rows * Double.BYTES > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The columns of " + file + " are too large to be mapped: " + rows
+                        + " rows");
+            }
+            this.rowCount = (int) rows;
+            var names = channel.map(FileChannel.MapMode.READ_ONLY, NAMES_OFFSET, dataOffset - NAMES_OFFSET)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int column = 0; column < columnCount; column++) {
+                var name = new byte[names.getInt()];
+                names.get(name);
+                columnNames.add(new String(name, StandardCharsets.UTF_8));
+            }
+            this.columns = new DoubleBuffer[columnCount];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param name the name of a column.
+     * @return the index of the column.
+     * @throws IllegalArgumentException if the file has no such column.
+     */
+    public int columnIndex(String name) {
+        var index = columnNames.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("The file " + file + " has no column " + name);
+        }
+        return index;
+    }
+
+    /**
+     * @param name the name of a column.
+     * @return a read-only view of all rows of the column.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file has no such column.
+     */
+    public DoubleBuffer column(String name) throws IOException {
+        return column(columnIndex(name));
+    }
+
+    /**
+     * @param index the index of a column.
+     * @return a read-only view of all rows of the column.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public DoubleBuffer column(int index) throws IOException {
+        if (columns[index] == null) {
+            columns[index] = channel.map(FileChannel.MapMode.READ_ONLY,
+                            dataOffset + index * rowStride * Double.BYTES, (long) rowCount * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asDoubleBuffer();
+        }
+        return columns[index].duplicate();
+    }
+
+    /**
+     * @param name    the name of a column.
+     * @param fromKey the first key of the range.
+     * @param toKey   the last key of the range.
+     * @return a read-only view of the rows of the column whose key is in {@code [fromKey, toKey]}.
+     * @throws IOException              if the file cannot be mapped.
+     * @throws IllegalArgumentException if the file has no such column.
+     */
+    public DoubleBuffer column(String name, double fromKey, double toKey) throws IOException {
+        var from = ceilingRow(fromKey);
+        var to = Math.max(higherRow(toKey), from);
+        return column(name).position(from).limit(to).slice();
+    }
+
+    /**
+     * @param key the key.
+     * @return the first row whose key is not less than {@code key}, or the row count if there is none.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public int ceilingRow(double key) throws IOException {
+        return search(key, false);
+    }
+
+    /**
+     * @param key the key.
+     * @return the first row whose key is greater than {@code key}, or the row count if there is none.
+     * @throws IOException if the file cannot be mapped.
+     */
+    public int higherRow(double key) throws IOException {
+        return search(key, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int search(double key, boolean isHigher) throws IOException {
+        var keys = column(0);
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            var middle = (low + high) >>> 1;
+            var value = keys.get(middle);
+            if (value < key || (isHigher && value == key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,207 @@
+package org.pom.utils.io.binary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.pom.utils.io.binary.ColumnarFileFormat.*;
+
+/**
+ * Writes a table of doubles row by row to a columnar binary file, see {@link ColumnarFileFormat}.
+ * <p>
+ * The rows are collected in a block per column and every full block is written after the rows of its column
+ * already in the file, so a column stays contiguous and the memory the writer needs does not grow with the
+ * number of rows. Every column has room for {@code rowStride} rows; when the rows outgrow it the columns are
+ * moved apart, and {@link #close()} moves them together. The row count in the header is updated with every
+ * written block, so the rows of a file whose writing stopped before it was closed can still be read. A file must
+ * not be read while it is written: a reader that mapped it would see its columns moved under it.
+ */
+public class ColumnarFileWriter implements AutoCloseable {
+    static final int BLOCK_ROWS = 1 << 13;
+    private static final int COPY_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final int columnCount;
+    private final long dataOffset;
+    private final ByteBuffer[] blocks;
+    private final ByteBuffer field = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer copyBuffer;
+    private long rowStride;
+    private long writtenRows;
+    private int bufferedRows;
+
+    /**
+     * @param file         the file; its directory is created if it does not exist.
+     * @param columnNames  the names of the columns.
+     * @param expectedRows the number of rows the columns get room for at first.
+     * @throws IOException if the file cannot be written.
+     */
+    public ColumnarFileWriter(Path file, List<String> columnNames, long expectedRows) throws IOException {
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.columnCount = columnNames.size();
+        this.rowStride = Math.max(expectedRows, BLOCK_ROWS);
+        this.blocks = new ByteBuffer[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            blocks[column] = ByteBuffer.allocate(BLOCK_ROWS * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        var names = columnNames.stream().map(name -> name.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+        var headerSize = NAMES_OFFSET;
+        for (var name : names) {
+            headerSize += Integer.BYTES + name.length;
+        }
+        this.dataOffset = (headerSize + Long.BYTES - 1) / Long.BYTES * Long.BYTES;
+        var header = ByteBuffer.allocate((int) dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC)
+                .putInt(VERSION)
+                .putInt(columnCount)
+                .putLong(0L)
+                .putLong(rowStride)
+                .putLong(dataOffset);
+        for (var name : names) {
+            header.putInt(name.length).put(name);
+        }
+
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            writeFully(header.clear(), 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param values the values of the columns.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the row does not have a value for every column.
+     */
+    public void writeRow(double[] values) throws IOException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("The row has " + values.length + " values instead of " + columnCount);
+        }
+        if (bufferedRows == BLOCK_ROWS) {
+            flush();
+        }
+        var index = bufferedRows * Double.BYTES;
+        for (int column = 0; column < columnCount; column++) {
+            blocks[column].putDouble(index, values[column]);
+        }
+        bufferedRows++;
+    }
+
+    /**
+     * @return the number of appended rows.
+     */
+    public long getRowCount() {
+        return writtenRows + bufferedRows;
+    }
+
+    /**
+     * Writes the collected rows to the file and updates the row count in the header.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void flush() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        ensureStride(writtenRows + bufferedRows);
+        for (int column = 0; column < columnCount; column++) {
+            var block = blocks[column];
+            block.clear().limit(bufferedRows * Double.BYTES);
+            writeFully(block, columnOffset(column, rowStride) + writtenRows * Double.BYTES);
+        }
+        writtenRows += bufferedRows;
+        bufferedRows = 0;
+        writeField(ROW_COUNT_OFFSET, writtenRows);
+    }
+
+    /**
+     * Writes the collected rows, moves the columns together and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            if (rowStride != writtenRows) {
+                for (int column = 1; column < columnCount; column++) {
+                    move(columnOffset(column, rowStride), columnOffset(column, writtenRows),
+                            writtenRows * Double.BYTES);
+                }
+                rowStride = writtenRows;
+                writeField(ROW_STRIDE_OFFSET, rowStride);
+                channel.truncate(columnOffset(columnCount, rowStride));
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Moves the columns apart so that every column has room for {@code rows} rows.
+     */
+    private void ensureStride(long rows) throws IOException {
+        if (rows <= rowStride) {
+            return;
+        }
+        var stride = Math.max(rows, 2 * rowStride);
+        for (int column = columnCount - 1; column > 0; column--) {
+            move(columnOffset(column, rowStride), columnOffset(column, stride), writtenRows * Double.BYTES);
+        }
+        rowStride = stride;
+        writeField(ROW_STRIDE_OFFSET, rowStride);
+    }
+
+    private long columnOffset(int column, long stride) {
+        return dataOffset + column * stride * Double.BYTES;
+    }
+
+    /**
+     * Copies {@code length} bytes within the file; the ranges may overlap.
+     */
+    private void move(long from, long to, long length) throws IOException {
+        if (from == to || length == 0) {
+            return;
+        }
+        if (copyBuffer == null) {
+            copyBuffer = ByteBuffer.allocate(COPY_SIZE);
+        }
+        var isBackward = to > from;
+        for (long done = 0; done < length; ) {
+            var size = (int) Math.min(COPY_SIZE, length - done);
+            var offset = isBackward ? length - done - size : done;
+            copyBuffer.clear().limit(size);
+            while (copyBuffer.hasRemaining()) {
+                if (channel.read(copyBuffer, from + offset + copyBuffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+            writeFully(copyBuffer.flip(), to + offset);
+            done += size;
+        }
+    }
+
+    private void writeField(int offset, long value) throws IOException {
+        field.clear().putLong(0, value);
+        writeFully(field, offset);
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.pom.utils.io.binary;
+
+/**
+ * The layout of a compressed columnar binary file.
+ * <p>
+ * The file starts with a header: the magic number, the format version, the number of columns and the names of the
+ * columns, each as its length and its UTF-8 bytes. Blocks of rows follow until the end of the file: the number of
+ * rows of the block and, for every column, the length and the bytes of its compressed values. The values of a
+ * column in a block are filtered before they are compressed: every double is replaced by the XOR of its bits with
+ * the bits of the previous double of the block, the first one with zero. The neighbouring values of a column
+ * differ little, so the filtered values start with many zero bits and compress well with
+ * {@link java.util.zip.Deflater}.
+ * All numbers are big-endian, as written by {@link java.io.DataOutputStream}.
+ */
+final class CompressedColumnarFileFormat {
+    static final long MAGIC = 0x5453524553554C5AL;
+    static final int VERSION = 1;
+
+    private CompressedColumnarFileFormat() {
+    }
+}
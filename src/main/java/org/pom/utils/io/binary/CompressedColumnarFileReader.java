@@ -0,0 +1,160 @@
+package org.pom.utils.io.binary;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.pom.utils.io.binary.CompressedColumnarFileFormat.*;
+
+/**
+ * Reads a compressed columnar binary file written by {@link CompressedColumnarFileWriter}. A column is read by
+ * decompressing its values in every block and skipping the values of the other columns.
+ */
+public class CompressedColumnarFileReader {
+    private final Path file;
+    private final List<String> columnNames = new ArrayList<>();
+    private final int rowCount;
+
+    /**
+     * Reads the header and counts the rows.
+     *
+     * @param file the compressed columnar binary file.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the file is not a compressed columnar binary file, or has too many rows to
+     *                               be read into an array.
+     */
+    public CompressedColumnarFileReader(Path file) throws IOException {
+        this.file = file;
+        try (var input = open()) {
+            long rows = 0;
+            for (var blockRows = readBlockRows(input); blockRows > 0; blockRows = readBlockRows(input)) {
+                rows += blockRows;
+                for (int column = 0; column < columnNames.size(); column++) {
+                    input.skipNBytes(input.readInt());
+                }
+            }
+            if (rows > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("The columns of " + file + " are too large to be read: " + rows
+                        + " rows");
+            }
+            this.rowCount = (int) rows;
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(columnNames);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param name the name of a column.
+     * @return the values of the column.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the file has no such column.
+     */
+    public double[] column(String name) throws IOException {
+        var index = columnNames.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: " + name);
+        }
+        var values = new double[rowCount];
+        var bytes = new byte[CompressedColumnarFileWriter.BLOCK_ROWS * Long.BYTES];
+        var inflater = new Inflater();
+        try (var input = open()) {
+            var row = 0;
+            for (var blockRows = readBlockRows(input); blockRows > 0; blockRows = readBlockRows(input)) {
+                for (int column = 0; column < columnNames.size(); column++) {
+                    var length = input.readInt();
+                    if (column != index) {
+                        input.skipNBytes(length);
+                        continue;
+                    }
+                    if (bytes.length < blockRows * Long.BYTES) {
+                        bytes = new byte[blockRows * Long.BYTES];
+                    }
+                    inflater.reset();
+                    inflater.setInput(input.readNBytes(length));
+                    if (inflate(inflater, bytes, blockRows * Long.BYTES) != blockRows * Long.BYTES) {
+                        throw new IllegalStateException("A block of " + file + " is damaged");
+                    }
+                    long bits = 0;
+                    for (int i = 0; i < blockRows; i++) {
+                        long filtered = 0;
+                        for (int b = i * Long.BYTES; b < (i + 1) * Long.BYTES; b++) {
+                            filtered = (filtered << Byte.SIZE) | (bytes[b] & 0xFF);
+                        }
+                        bits ^= filtered;
+                        values[row + i] = Double.longBitsToDouble(bits);
+                    }
+                }
+                row += blockRows;
+            }
+        } finally {
+            inflater.end();
+        }
+        return values;
+    }
+
+    private DataInputStream open() throws IOException {
+        var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try {
+            if (input.readLong() != MAGIC || input.readInt() != VERSION) {
+                throw new IllegalStateException("Not a compressed columnar binary file: " + file);
+            }
+            var columnCount = input.readInt();
+            var names = new ArrayList<String>();
+            for (int column = 0; column < columnCount; column++) {
+                names.add(new String(input.readNBytes(input.readInt()), StandardCharsets.UTF_8));
+            }
+            if (columnNames.isEmpty()) {
+                columnNames.addAll(names);
+            }
+            return input;
+        } catch (EOFException e) {
+            input.close();
+            throw new IllegalStateException("Not a compressed columnar binary file: " + file, e);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of rows of the next block, or 0 at the end of the file.
+     */
+    private static int readBlockRows(DataInputStream input) throws IOException {
+        try {
+            return input.readInt();
+        } catch (EOFException e) {
+            return 0;
+        }
+    }
+
+    private int inflate(Inflater inflater, byte[] bytes, int length) {
+        try {
+            var size = 0;
+            while (size < length && !inflater.finished()) {
+                var inflated = inflater.inflate(bytes, size, length - size);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                size += inflated;
+            }
+            return size;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("A block of " + file + " is damaged", e);
+        }
+    }
+}
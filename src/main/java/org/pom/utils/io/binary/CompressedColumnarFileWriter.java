@@ -0,0 +1,148 @@
+package org.pom.utils.io.binary;
+
+import org.pom.utils.io.PipelinedOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.pom.utils.io.binary.CompressedColumnarFileFormat.*;
+
+/**
+ * Writes a table of doubles row by row to a compressed columnar binary file, see
+ * {@link CompressedColumnarFileFormat}.
+ * <p>
+ * The rows are collected in a block of filtered values per column; every full block is compressed column by
+ * column and appended to the file, so the memory the writer needs does not grow with the number of rows. The
+ * compressed bytes are written to the file on a dedicated thread, see {@link PipelinedOutputStream}. The file is
+ * read with {@link CompressedColumnarFileReader}.
+ */
+public class CompressedColumnarFileWriter implements AutoCloseable {
+    static final int BLOCK_ROWS = 1 << 13;
+
+    private final DataOutputStream output;
+    private final Deflater deflater;
+    private final int columnCount;
+    private final byte[][] blocks;
+    private final long[] previousBits;
+    private byte[] compressed = new byte[BLOCK_ROWS * Long.BYTES];
+    private long writtenRows;
+    private int bufferedRows;
+
+    /**
+     * @param file        the file; its directory is created if it does not exist.
+     * @param columnNames the names of the columns.
+     * @param level       the compression level of {@link Deflater}, from 0 (none) to 9 (smallest).
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the level is not valid.
+     */
+    public CompressedColumnarFileWriter(Path file, List<String> columnNames, int level) throws IOException {
+        this.deflater = new Deflater(level);
+        this.columnCount = columnNames.size();
+        this.blocks = new byte[columnCount][BLOCK_ROWS * Long.BYTES];
+        this.previousBits = new long[columnCount];
+        this.output = new DataOutputStream(PipelinedOutputStream.file(file));
+        try {
+            output.writeLong(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(columnCount);
+            for (var name : columnNames) {
+                var bytes = name.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            deflater.end();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param values the values of the columns.
+     * @throws IOException              if the file cannot be written.
+     * @throws IllegalArgumentException if the row does not have a value for every column.
+     */
+    public void writeRow(double[] values) throws IOException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("The row has " + values.length + " values instead of " + columnCount);
+        }
+        if (bufferedRows == BLOCK_ROWS) {
+            writeBlock();
+        }
+        var index = bufferedRows * Long.BYTES;
+        for (int column = 0; column < columnCount; column++) {
+            var bits = Double.doubleToRawLongBits(values[column]);
+            var filtered = bits ^ previousBits[column];
+            previousBits[column] = bits;
+            var block = blocks[column];
+            for (int shift = Long.SIZE - Byte.SIZE, i = index; shift >= 0; shift -= Byte.SIZE, i++) {
+                block[i] = (byte) (filtered >>> shift);
+            }
+        }
+        bufferedRows++;
+    }
+
+    /**
+     * @return the number of appended rows.
+     */
+    public long getRowCount() {
+        return writtenRows + bufferedRows;
+    }
+
+    /**
+     * Compresses the collected rows into a block and writes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void flush() throws IOException {
+        writeBlock();
+        output.flush();
+    }
+
+    /**
+     * Writes the collected rows and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBlock();
+        } finally {
+            try {
+                output.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        output.writeInt(bufferedRows);
+        for (int column = 0; column < columnCount; column++) {
+            deflater.reset();
+            deflater.setInput(blocks[column], 0, bufferedRows * Long.BYTES);
+            deflater.finish();
+            var length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            output.writeInt(length);
+            output.write(compressed, 0, length);
+        }
+        writtenRows += bufferedRows;
+        bufferedRows = 0;
+        Arrays.fill(previousBits, 0L);
+    }
+}
@@ -0,0 +1,25 @@
+package org.pom.utils.io.checkpoint;
+
+/**
+ * The layout of a checkpoint file.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: the magic number, the format version, the step of
+ * the time axis and the committed length. The segments follow, one per checkpoint; a segment holds its size, the
+ * tau of the last computed tick and the values written by the model. Only the first committed length bytes are
+ * read, so a segment that was not completed before the process died is ignored. All numbers are big-endian.
+ */
+final class CheckpointFormat {
+    static final long MAGIC = 0x5453434B50540000L;
+    static final int VERSION = 1;
+    static final int VERSION_OFFSET = 8;
+    static final int DELTA_TAU_OFFSET = 16;
+    static final int COMMITTED_LENGTH_OFFSET = 24;
+    static final int HEADER_SIZE = 32;
+    /**
+     * The size of the segment size and of the tau that start every segment.
+     */
+    static final int SEGMENT_HEADER_SIZE = 16;
+
+    private CheckpointFormat() {
+    }
+}
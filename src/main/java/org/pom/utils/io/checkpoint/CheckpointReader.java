@@ -0,0 +1,198 @@
+package org.pom.utils.io.checkpoint;
+
+import org.pom.utils.series.AbstractSeries;
+import org.pom.utils.series.ColumnarSeries;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.pom.utils.io.checkpoint.CheckpointFormat.*;
+
+/**
+ * Reads the committed checkpoints of a checkpoint file in the order they were written, see {@link CheckpointWriter}.
+ * Every segment is mapped into memory and read in place.
+ * <p>
+ * The changes of a series are applied on top of the values read from the earlier checkpoints: the rows before the
+ * first key the series held when the checkpoint was written are removed, and the changed rows are put. After the
+ * last checkpoint the series holds the same rows as when it was written, and is marked as unchanged.
+ */
+public class CheckpointReader implements AutoCloseable {
+    private final Path file;
+    private final FileChannel channel;
+    private final double deltaTau;
+    private final TimeAxis timeAxis;
+    private final long committedLength;
+    private long nextSegment = HEADER_SIZE;
+    private MappedByteBuffer segment;
+    private double tau;
+
+    /**
+     * @param file the checkpoint file.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the file is not a checkpoint file.
+     */
+    public CheckpointReader(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalStateException("Not a checkpoint file: " + file);
+            }
+            var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong(0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IllegalStateException("Not a checkpoint file: " + file);
+            }
+            this.deltaTau = header.getDouble(DELTA_TAU_OFFSET);
+            this.committedLength = header.getLong(COMMITTED_LENGTH_OFFSET);
+            this.timeAxis = deltaTau > 0.0 ? new TimeAxis(deltaTau, 0.0) : null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the step of the time axis the checkpoints were written with, {@code 0} if there was none.
+     */
+    public double getDeltaTau() {
+        return deltaTau;
+    }
+
+    /**
+     * @return the tau of the last computed tick of the current checkpoint.
+     */
+    public double getTau() {
+        return tau;
+    }
+
+    /**
+     * Moves to the next committed checkpoint.
+     *
+     * @return {@code false} if there is none.
+     * @throws IOException           if the file cannot be read.
+     * @throws IllegalStateException if the file is damaged.
+     */
+    public boolean nextSegment() throws IOException {
+        if (nextSegment >= committedLength) {
+            return false;
+        }
+        var sizeBuffer = ByteBuffer.allocate(Long.BYTES);
+        while (sizeBuffer.hasRemaining()) {
+            if (channel.read(sizeBuffer, nextSegment + sizeBuffer.position()) < 0) {
+                throw damaged();
+            }
+        }
+        var size = sizeBuffer.getLong(0);
+        if (size < SEGMENT_HEADER_SIZE || size > committedLength - nextSegment || size > Integer.MAX_VALUE) {
+            throw damaged();
+        }
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, nextSegment, size);
+        segment.position(Long.BYTES);
+        tau = segment.getDouble();
+        nextSegment += size;
+        return true;
+    }
+
+    public int readInt() {
+        return segment.getInt();
+    }
+
+    public double readDouble() {
+        return segment.getDouble();
+    }
+
+    public boolean readBoolean() {
+        return segment.get() != 0;
+    }
+
+    /**
+     * Applies the changes written by {@link CheckpointWriter#writeChanges(DoubleSeries)} to the series.
+     *
+     * @param series the series.
+     */
+    public void readChanges(DoubleSeries series) {
+        readChanges(series, 0);
+    }
+
+    /**
+     * Applies the changes written by {@link CheckpointWriter#writeChanges(DoubleSeries, int)} to the series; the
+     * first {@code keptRows} rows are kept when earlier rows are removed.
+     *
+     * @param series   the series.
+     * @param keptRows the number of leading rows the series keeps.
+     */
+    public void readChanges(DoubleSeries series, int keptRows) {
+        var keys = readKeys(series, keptRows);
+        for (var key : keys) {
+            series.put(key, segment.getDouble());
+        }
+        series.resetChanges();
+    }
+
+    /**
+     * Applies the changes written by {@link CheckpointWriter#writeChanges(ColumnarSeries)} to the series.
+     *
+     * @param series the series.
+     * @throws IllegalStateException if the series has another number of columns.
+     */
+    public void readChanges(ColumnarSeries series) {
+        var columnCount = segment.getInt();
+        if (columnCount != series.columnCount()) {
+            throw new IllegalStateException("The checkpoint file " + file + " holds " + columnCount
+                    + " columns instead of " + series.columnCount());
+        }
+        var keys = readKeys(series, 0);
+        var rows = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = series.row(keys[i]);
+        }
+        for (int column = 0; column < columnCount; column++) {
+            for (var row : rows) {
+                series.set(column, row, segment.getDouble());
+            }
+        }
+        series.resetChanges();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Removes the rows the series did not hold any more when the checkpoint was written, and reads the keys of the
+     * changed rows.
+     */
+    private double[] readKeys(AbstractSeries series, int keptRows) {
+        var firstKey = segment.getDouble();
+        var from = Math.min(keptRows, series.size());
+        var to = Double.isNaN(firstKey) ? -1 : series.ceilingIndex(firstKey);
+        series.removeRange(from, Math.max(to < 0 ? series.size() : to, from));
+
+        var keys = new double[segment.getInt()];
+        if (segment.get() != 0) {
+            if (timeAxis == null) {
+                throw damaged();
+            }
+            var firstTick = segment.getInt();
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = timeAxis.tauAt(firstTick + i);
+            }
+        } else {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = segment.getDouble();
+            }
+        }
+        return keys;
+    }
+
+    private IllegalStateException damaged() {
+        return new IllegalStateException("The checkpoint file " + file + " is damaged.");
+    }
+}
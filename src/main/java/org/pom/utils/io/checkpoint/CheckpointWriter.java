@@ -0,0 +1,298 @@
+package org.pom.utils.io.checkpoint;
+
+import org.pom.utils.series.AbstractSeries;
+import org.pom.utils.series.ColumnarSeries;
+import org.pom.utils.series.DoubleSeries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.pom.utils.io.checkpoint.CheckpointFormat.*;
+
+/**
+ * Appends checkpoints to a checkpoint file through memory-mapped windows, see {@link CheckpointFormat}.
+ * <p>
+ * A checkpoint is a segment started by {@link #beginSegment(double)} and published by {@link #commit()}, which
+ * updates the committed length in the header after the segment is complete. A series is written incrementally:
+ * only the rows added or changed since the previous checkpoint, see {@link AbstractSeries#firstChangedRow()},
+ * together with the first key the series still holds. Writing copies the values into the page cache and returns;
+ * the operating system writes the pages back, so a checkpoint survives the death of the process without the
+ * simulation waiting for the disk.
+ * <p>
+ * A window is mapped past the committed length, so the file grows in steps of {@link #WINDOW_SIZE} bytes while it is
+ * written; {@link #close()} releases the windows and truncates the file to the committed length.
+ */
+public class CheckpointWriter implements AutoCloseable {
+    static final int WINDOW_SIZE = 1 << 22;
+    /**
+     * The instance of {@code sun.misc.Unsafe} and its {@code invokeCleaner} method, which unmaps a buffer, or
+     * {@code null} if they are not available.
+     */
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe;
+        Method invokeCleaner;
+        try {
+            var unsafeClass = Class.forName("sun.misc.Unsafe");
+            var field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final double deltaTau;
+    private final List<AbstractSeries> writtenSeries = new ArrayList<>();
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long committedLength;
+    private MappedByteBuffer segmentWindow;
+    private int segmentIndex = -1;
+
+    /**
+     * @param file     the checkpoint file.
+     * @param deltaTau the step of the time axis of the series, {@code 0} if they are not tick-indexed.
+     * @param append   {@code true} to append to the checkpoints of an existing file, {@code false} to discard them.
+     * @throws IOException           if the file cannot be opened.
+     * @throws IllegalStateException if the file to append to is not a checkpoint file written with {@code deltaTau}.
+     */
+    public CheckpointWriter(Path file, double deltaTau, boolean append) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.deltaTau = deltaTau;
+        try {
+            var isEmpty = channel.size() == 0;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (append && !isEmpty) {
+                checkHeader(file);
+                this.committedLength = header.getLong(COMMITTED_LENGTH_OFFSET);
+            } else {
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putDouble(DELTA_TAU_OFFSET, deltaTau);
+                header.putLong(COMMITTED_LENGTH_OFFSET, HEADER_SIZE);
+                header.putLong(0, MAGIC);
+                this.committedLength = HEADER_SIZE;
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a checkpoint after the last committed one.
+     *
+     * @param tau the tau of the last computed tick.
+     * @throws IllegalStateException if the previous checkpoint is not committed.
+     */
+    public void beginSegment(double tau) {
+        if (segmentIndex >= 0) {
+            throw new IllegalStateException("The previous checkpoint is not committed.");
+        }
+        if (window == null || position() != committedLength || window.remaining() < SEGMENT_HEADER_SIZE) {
+            map(committedLength, SEGMENT_HEADER_SIZE);
+        }
+        segmentWindow = window;
+        segmentIndex = window.position();
+        window.putLong(0L);
+        window.putDouble(tau);
+        writtenSeries.clear();
+    }
+
+    public void writeInt(int value) {
+        ensure(Integer.BYTES);
+        window.putInt(value);
+    }
+
+    public void writeDouble(double value) {
+        ensure(Double.BYTES);
+        window.putDouble(value);
+    }
+
+    public void writeBoolean(boolean value) {
+        ensure(1);
+        window.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Writes the rows of the series added or changed since the previous checkpoint.
+     *
+     * @param series the series.
+     */
+    public void writeChanges(DoubleSeries series) {
+        writeChanges(series, 0);
+    }
+
+    /**
+     * Writes the rows of the series added or changed since the previous checkpoint, for a series whose first
+     * {@code keptRows} rows are kept when earlier rows are removed, see
+     * {@link CheckpointReader#readChanges(DoubleSeries, int)}.
+     *
+     * @param series   the series.
+     * @param keptRows the number of leading rows the series keeps.
+     */
+    public void writeChanges(DoubleSeries series, int keptRows) {
+        var from = writeKeys(series, keptRows);
+        for (int row = from; row < series.size(); row++) {
+            writeDouble(series.valueAt(row));
+        }
+    }
+
+    /**
+     * Writes the rows of the series added or changed since the previous checkpoint.
+     *
+     * @param series the series.
+     */
+    public void writeChanges(ColumnarSeries series) {
+        writeInt(series.columnCount());
+        var from = writeKeys(series, 0);
+        for (int column = 0; column < series.columnCount(); column++) {
+            for (int row = from; row < series.size(); row++) {
+                writeDouble(series.get(column, row));
+            }
+        }
+    }
+
+    /**
+     * Publishes the checkpoint and marks the written series as unchanged.
+     *
+     * @throws IllegalStateException if no checkpoint is started.
+     */
+    public void commit() {
+        if (segmentIndex < 0) {
+            throw new IllegalStateException("No checkpoint is started.");
+        }
+        var end = position();
+        segmentWindow.putLong(segmentIndex, end - committedLength);
+        header.putLong(COMMITTED_LENGTH_OFFSET, end);
+        committedLength = end;
+        if (segmentWindow != window) {
+            unmap(segmentWindow);
+        }
+        segmentWindow = null;
+        segmentIndex = -1;
+        writtenSeries.forEach(AbstractSeries::resetChanges);
+        writtenSeries.clear();
+    }
+
+    /**
+     * Releases the windows and truncates the file to the committed length; a checkpoint that is not committed is
+     * discarded. If a window cannot be released, e.g. because {@code sun.misc.Unsafe} is not available, the file
+     * keeps the bytes after the committed length, which are not read.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (segmentWindow != null && segmentWindow != window) {
+                unmap(segmentWindow);
+            }
+            if (window != null) {
+                unmap(window);
+            }
+            unmap(header);
+            window = null;
+            segmentWindow = null;
+            segmentIndex = -1;
+            try {
+                channel.truncate(committedLength);
+            } catch (IOException e) {
+                // A window is still mapped, which some systems do not allow to truncate; the padding is not read.
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the first key the series holds after its kept rows and the keys of the changed rows.
+     *
+     * @return the first changed row.
+     */
+    private int writeKeys(AbstractSeries series, int keptRows) {
+        var from = series.firstChangedRow();
+        var count = series.size() - from;
+        writeDouble(series.size() > keptRows ? series.keyAt(keptRows) : Double.NaN);
+        writeInt(count);
+        var isTickIndexed = count > 0 && series.isTickIndexed()
+                && Double.compare(series.getTimeAxis().getDeltaTau(), deltaTau) == 0;
+        writeBoolean(isTickIndexed);
+        if (isTickIndexed) {
+            writeInt(series.getTimeAxis().tickOf(series.keyAt(from)));
+        } else {
+            for (int row = from; row < series.size(); row++) {
+                writeDouble(series.keyAt(row));
+            }
+        }
+        writtenSeries.add(series);
+        return from;
+    }
+
+    private void checkHeader(Path file) {
+        if (header.getLong(0) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IllegalStateException("Not a checkpoint file: " + file);
+        }
+        if (Double.compare(header.getDouble(DELTA_TAU_OFFSET), deltaTau) != 0) {
+            throw new IllegalStateException("The checkpoint file " + file + " was written with deltaTau "
+                    + header.getDouble(DELTA_TAU_OFFSET) + " instead of " + deltaTau);
+        }
+    }
+
+    private long position() {
+        return windowStart + window.position();
+    }
+
+    private void ensure(int bytes) {
+        if (segmentIndex < 0) {
+            throw new IllegalStateException("No checkpoint is started.");
+        }
+        if (window.remaining() < bytes) {
+            map(position(), bytes);
+        }
+    }
+
+    private void map(long start, int bytes) {
+        var previous = window;
+        try {
+            window = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(WINDOW_SIZE, bytes));
+            windowStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot extend the checkpoint file", e);
+        }
+        if (previous != null && previous != segmentWindow) {
+            unmap(previous);
+        }
+    }
+
+    /**
+     * Releases the mapping of a buffer that is no longer used, instead of waiting for the garbage collector, so
+     * that the file can be truncated; the buffer must not be accessed afterwards.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // The mapping is released when the buffer is garbage collected.
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.pom.utils.io.csv.read;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * Parses numbers written with the decimal separator of a locale into doubles, with the same results as
+ * {@code NumberFormat.getInstance(locale).parse(text).doubleValue()}.
+ * <p>
+ * A plain number, an optional minus sign followed by digits with at most one decimal separator, of up to 15
+ * significant digits and 22 fraction digits, is parsed without creating any object: its digits form a long that
+ * is exactly a double and is divided by an exact power of ten, which rounds correctly. Any other text, e.g. with
+ * grouping separators, an exponent or more digits, is passed to the {@link NumberFormat}. Numbers are parsed from
+ * characters or from the UTF-8 bytes of a buffer, e.g. a mapped file. An instance is not thread-safe.
+ */
+public class DecimalParser {
+    private static final int MAX_SIGNIFICANT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final NumberFormat format;
+    private final char decimalSeparator;
+    private final boolean hasAsciiDigits;
+    private final boolean hasAsciiSeparator;
+
+    /**
+     * @param locale the locale the numbers are written with.
+     */
+    public DecimalParser(Locale locale) {
+        this.format = NumberFormat.getInstance(locale);
+        var symbols = DecimalFormatSymbols.getInstance(locale);
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.hasAsciiDigits = symbols.getZeroDigit() == '0';
+        this.hasAsciiSeparator = decimalSeparator < 0x80;
+    }
+
+    /**
+     * @param text  the text holding the number.
+     * @param start the index of the first character of the number.
+     * @param end   the index after the last character of the number.
+     * @return the number.
+     * @throws IllegalArgumentException if the text does not start with a number.
+     */
+    public double parse(CharSequence text, int start, int end) {
+        var value = hasAsciiDigits ? parsePlain(text, null, start, end) : Double.NaN;
+        return Double.isNaN(value) ? parseWithFormat(text.subSequence(start, end).toString()) : value;
+    }
+
+    /**
+     * @param bytes the buffer holding the number in UTF-8; its position and limit are not used or changed.
+     * @param start the index of the first byte of the number.
+     * @param end   the index after the last byte of the number.
+     * @return the number.
+     * @throws IllegalArgumentException if the text does not start with a number.
+     */
+    public double parse(ByteBuffer bytes, int start, int end) {
+        var value = hasAsciiDigits && hasAsciiSeparator ? parsePlain(null, bytes, start, end) : Double.NaN;
+        return Double.isNaN(value)
+                ? parseWithFormat(StandardCharsets.UTF_8.decode(bytes.slice(start, end - start)).toString())
+                : value;
+    }
+
+    /**
+     * Parses the characters of {@code text}, or the bytes of {@code bytes} if {@code text} is {@code null}.
+     *
+     * @return the plain number, or NaN if the text is not a plain number.
+     */
+    private double parsePlain(CharSequence text, ByteBuffer bytes, int start, int end) {
+        var index = start;
+        var isNegative = index < end && charAt(text, bytes, index) == '-';
+        if (isNegative) {
+            index++;
+        }
+        long mantissa = 0;
+        var digits = 0;
+        var significantDigits = 0;
+        var fractionDigits = 0;
+        var isFraction = false;
+        for (; index < end; index++) {
+            var c = charAt(text, bytes, index);
+            if (c >= '0' && c <= '9') {
+                if (isFraction) {
+                    fractionDigits++;
+                }
+                digits++;
+                if (mantissa > 0 || c != '0') {
+                    significantDigits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (significantDigits > MAX_SIGNIFICANT_DIGITS) {
+                    return Double.NaN;
+                }
+            } else if (c == decimalSeparator && !isFraction) {
+                isFraction = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.NaN;
+        }
+        var value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return isNegative ? -value : value;
+    }
+
+    private double parseWithFormat(String number) {
+        try {
+            return format.parse(number).doubleValue();
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Not a number: " + number, e);
+        }
+    }
+
+    /**
+     * @return the character of {@code text}, or the byte of {@code bytes} if {@code text} is {@code null}; a byte
+     * that is not ASCII never matches a digit or an ASCII decimal separator.
+     */
+    private static char charAt(CharSequence text, ByteBuffer bytes, int index) {
+        return text != null ? text.charAt(index) : (char) (bytes.get(index) & 0xFF);
+    }
+}
@@ -0,0 +1,230 @@
+package org.pom.utils.io.csv.read;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The numeric columns of an initialization CSV file, e.g. {@code initData.csv}, read in one pass and found by
+ * their headers.
+ * <p>
+ * The first line holds the headers; a column is found by its trimmed header, the first one if several are equal.
+ * The cells are trimmed, surrounding double quotes are removed and empty cells are skipped, so a column holds the
+ * values of its non-empty cells in file order.
+ * <p>
+ * The file is read as UTF-8 through {@link FileChannel#map}: the lines after the header are split into chunks on
+ * line boundaries, every chunk is mapped and tokenized in parallel, and its cells are parsed by
+ * {@link DecimalParser} from the mapped bytes straight into primitive arrays. No string is created for a cell, so
+ * the heap holds the parsed values only, whatever the size of the file.
+ */
+public class InitDataTable {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = 1 << 28;
+    private static final int SCAN_BYTES = 8192;
+
+    private final Map<String, Integer> columnIndexes;
+    private final double[][] columns;
+
+    private InitDataTable(Map<String, Integer> columnIndexes, double[][] columns) {
+        this.columnIndexes = columnIndexes;
+        this.columns = columns;
+    }
+
+    /**
+     * @param file      the CSV file.
+     * @param delimiter the delimiter of the cells, an ASCII character.
+     * @param locale    the locale the numbers are written with.
+     * @return the columns of the file.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the delimiter is not ASCII or a non-empty cell is not a number.
+     */
+    public static InitDataTable read(Path file, char delimiter, Locale locale) throws IOException {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("The delimiter is not an ASCII character: " + delimiter);
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var columnIndexes = new HashMap<String, Integer>();
+            if (size == 0) {
+                return new InitDataTable(columnIndexes, new double[0][]);
+            }
+            var headerEnd = nextLineStart(channel, 0);
+            var header = readHeader(channel, headerEnd);
+            var columnCount = 0;
+            for (int start = 0, end; start <= header.length(); start = end + 1) {
+                end = cellEnd(header, start, delimiter);
+                columnIndexes.putIfAbsent(cellText(header, start, end), columnCount++);
+            }
+
+            var chunkStarts = splitIntoChunks(channel, headerEnd, size);
+            var count = columnCount;
+            var blocks = IntStream.range(0, chunkStarts.size() - 1).parallel()
+                    .mapToObj(chunk -> parseChunk(channel, chunkStarts.get(chunk), chunkStarts.get(chunk + 1), count,
+                            (byte) delimiter, locale))
+                    .collect(Collectors.toList());
+            return new InitDataTable(columnIndexes, concatenate(blocks, columnCount));
+        }
+    }
+
+    /**
+     * @param name the header of a column.
+     * @return the values of the column, not a copy, or {@code null} if the file has no such column.
+     */
+    public double[] getColumn(String name) {
+        var index = columnIndexes.get(name);
+        return index == null ? null : columns[index];
+    }
+
+    /**
+     * @return the offsets of the chunks followed by the size of the file; every chunk holds whole lines.
+     */
+    private static List<Long> splitIntoChunks(FileChannel channel, long start, long size) throws IOException {
+        var chunkBytes = Math.min(MAX_CHUNK_BYTES,
+                Math.max(MIN_CHUNK_BYTES, size / (4L * Runtime.getRuntime().availableProcessors())));
+        var chunkStarts = new ArrayList<Long>();
+        chunkStarts.add(start);
+        for (var position = start; position < size; ) {
+            var next = nextLineStart(channel, Math.min(size, position + chunkBytes));
+            if (next - position > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("A line is too long to be read at " + position);
+            }
+            chunkStarts.add(next);
+            position = next;
+        }
+        return chunkStarts;
+    }
+
+    /**
+     * @return the offset after the first line feed at or after {@code position}, or the size of the file.
+     */
+    private static long nextLineStart(FileChannel channel, long position) throws IOException {
+        var buffer = ByteBuffer.allocate(SCAN_BYTES);
+        for (var offset = position; ; offset += buffer.limit()) {
+            buffer.clear();
+            if (channel.read(buffer, offset) < 0) {
+                return channel.size();
+            }
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+        }
+    }
+
+    private static String readHeader(FileChannel channel, long headerEnd) throws IOException {
+        if (headerEnd > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The header line is too long to be read.");
+        }
+        var bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+        return StandardCharsets.UTF_8.decode(bytes).toString().stripTrailing();
+    }
+
+    /**
+     * Maps a chunk of lines and parses its cells into one growing array per column.
+     */
+    private static ColumnBlock[] parseChunk(FileChannel channel, long start, long end, int columnCount,
+                                            byte delimiter, Locale locale) {
+        ByteBuffer bytes;
+        try {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var parser = new DecimalParser(locale);
+        var block = new ColumnBlock[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            block[column] = new ColumnBlock();
+        }
+        var limit = bytes.limit();
+        for (int lineStart = 0; lineStart < limit; ) {
+            var lineEnd = lineStart;
+            while (lineEnd < limit && bytes.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            var column = 0;
+            for (int cellStart = lineStart, cellEnd; cellStart <= lineEnd && column < columnCount;
+                 cellStart = cellEnd + 1, column++) {
+                cellEnd = cellStart;
+                while (cellEnd < lineEnd && bytes.get(cellEnd) != delimiter) {
+                    cellEnd++;
+                }
+                var from = cellStart;
+                var to = cellEnd;
+                while (from < to && (bytes.get(from) & 0xFF) <= ' ') {
+                    from++;
+                }
+                while (to > from && (bytes.get(to - 1) & 0xFF) <= ' ') {
+                    to--;
+                }
+                if (to - from >= 2 && bytes.get(from) == '"' && bytes.get(to - 1) == '"') {
+                    from++;
+                    to--;
+                }
+                if (from < to) {
+                    block[column].add(parser.parse(bytes, from, to));
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return block;
+    }
+
+    private static double[][] concatenate(List<ColumnBlock[]> blocks, int columnCount) {
+        var columns = new double[columnCount][];
+        for (int column = 0; column < columnCount; column++) {
+            var size = 0;
+            for (var block : blocks) {
+                size += block[column].size;
+            }
+            var values = new double[size];
+            var position = 0;
+            for (var block : blocks) {
+                System.arraycopy(block[column].values, 0, values, position, block[column].size);
+                position += block[column].size;
+            }
+            columns[column] = values;
+        }
+        return columns;
+    }
+
+    private static int cellEnd(String line, int start, char delimiter) {
+        var end = line.indexOf(delimiter, start);
+        return end < 0 ? line.length() : end;
+    }
+
+    private static String cellText(String line, int start, int end) {
+        var text = line.substring(start, end).trim();
+        return text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+                ? text.substring(1, text.length() - 1)
+                : text;
+    }
+
+    /**
+     * The values of one column in a block of lines.
+     */
+    private static class ColumnBlock {
+        private double[] values = new double[16];
+        private int size;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.pom.utils.io.csv.write;
+
+import org.pom.utils.FixedPointFormatter;
+import org.pom.utils.FormatUtil;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Writes a table of numbers to a CSV file one row at a time, in the layout of {@link CsvWriterP#createColumn}
+ * tables written by {@link CsvWriterP#writeToFile(List)}: every cell is padded to the width of its column, the
+ * cells are separated by the delimiter and the rows end with {@code "\r\n"}.
+ * <p>
+ * The header row is written when the writer is created. A row is formatted into a buffer that is reused for every
+ * row, see {@link FixedPointFormatter}, so the memory the writer needs does not grow with the number of rows and
+ * a row is written without creating any object. Many rows may also be written at once by
+ * {@link #writeRows(double[], boolean[], int, ForkJoinPool)}, which formats blocks of them concurrently.
+ */
+public class CsvRowWriter implements AutoCloseable {
+    private static final String LINE_END = "\r\n";
+    /**
+     * The rows formatted by one task of {@link #writeRows(double[], boolean[], int, ForkJoinPool)}.
+     */
+    public static final int BLOCK_ROWS = 512;
+
+    private final Writer writer;
+    private final char delimiter;
+    private final Locale locale;
+    private final String cellFormat;
+    private final FixedPointFormatter formatter;
+    private final int[] widths;
+    private final StringBuilder row = new StringBuilder();
+    private final StringBuilder cell = new StringBuilder();
+    private char[] rowChars = new char[0];
+    private int column;
+    private long writtenChars;
+
+    /**
+     * @param file       the CSV file; its directory is created if it does not exist.
+     * @param delimiter  the delimiter of the cells.
+     * @param locale     the locale the values are formatted with.
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param headers    the headers of the columns.
+     * @throws IOException if the file cannot be written.
+     */
+    public CsvRowWriter(Path file, char delimiter, Locale locale, String cellFormat, List<String> headers)
+            throws IOException {
+        this(newWriter(file), delimiter, locale, cellFormat, headers);
+    }
+
+    /**
+     * @param writer     the writer of the CSV text, e.g. of a compressed stream; it is closed by {@link #close()},
+     *                   or if the header row cannot be written.
+     * @param delimiter  the delimiter of the cells.
+     * @param locale     the locale the values are formatted with.
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param headers    the headers of the columns.
+     * @throws IOException if the header row cannot be written.
+     */
+    public CsvRowWriter(Writer writer, char delimiter, Locale locale, String cellFormat, List<String> headers)
+            throws IOException {
+        this(writer, true, delimiter, locale, cellFormat, headers);
+    }
+
+    private CsvRowWriter(Writer writer, boolean writesHeader, char delimiter, Locale locale, String cellFormat,
+                         List<String> headers) throws IOException {
+        this.writer = writer;
+        try {
+            this.delimiter = delimiter;
+            this.locale = locale;
+            this.cellFormat = cellFormat;
+            this.formatter = FixedPointFormatter.compile(cellFormat, locale);
+            this.widths = headers.stream().mapToInt(header -> FormatUtil.getColumnWidth(cellFormat, header))
+                    .toArray();
+            if (writesHeader) {
+                headers.forEach(this::appendCell);
+                endRow();
+            }
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Continues a file written with the same columns: the rows after {@code position} are removed and the next rows
+     * are appended.
+     *
+     * @param file       the CSV file.
+     * @param position   the end of the last row that is kept, at or after the end of the header row.
+     * @param delimiter  the delimiter of the cells.
+     * @param locale     the locale the values are formatted with.
+     * @param cellFormat the format of a value, e.g. {@code %8.5f}.
+     * @param headers    the headers of the columns.
+     * @return the writer of the next rows.
+     * @throws IOException           if the file cannot be read or written.
+     * @throws IllegalStateException if the file does not start with the header row of the columns, or
+     *                               {@code position} is before its end.
+     */
+    public static CsvRowWriter append(Path file, long position, char delimiter, Locale locale, String cellFormat,
+                                      List<String> headers) throws IOException {
+        var header = new StringWriter();
+        new CsvRowWriter(header, delimiter, locale, cellFormat, headers).close();
+        var expected = header.toString().getBytes(StandardCharsets.UTF_8);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var actual = ByteBuffer.allocate(expected.length);
+            while (actual.hasRemaining()) {
+                if (channel.read(actual, actual.position()) < 0) {
+                    break;
+                }
+            }
+            if (position < expected.length || !Arrays.equals(actual.array(), expected)) {
+                throw new IllegalStateException("The file " + file + " does not start with the header row of the "
+                        + "columns.");
+            }
+            channel.truncate(position);
+        }
+        return new CsvRowWriter(Files.newBufferedWriter(file, StandardOpenOption.APPEND), false, delimiter, locale,
+                cellFormat, headers);
+    }
+
+    /**
+     * Appends a value to the current row.
+     *
+     * @param value the value.
+     */
+    public void appendValue(double value) {
+        cell.setLength(0);
+        formatter.format(value, cell);
+        appendCell(cell);
+    }
+
+    /**
+     * Appends a cell without a value to the current row.
+     */
+    public void appendEmpty() {
+        appendCell("");
+    }
+
+    /**
+     * Writes rows of values, the same text as {@link #appendValue(double)}, {@link #appendEmpty()} and
+     * {@link #endRow()} for every row. Blocks of {@link #BLOCK_ROWS} rows are formatted concurrently on
+     * {@code pool}, each with its own {@link FixedPointFormatter}, and written in order.
+     *
+     * @param values  the values of the rows, one row after another, a value for every column.
+     * @param present {@code true} for every cell that has a value, laid out like {@code values}.
+     * @param rows    the number of rows.
+     * @param pool    the pool the blocks are formatted on, or {@code null} to format them on the calling thread.
+     * @throws IOException           if the file cannot be written.
+     * @throws IllegalStateException if the current row is not empty.
+     */
+    public void writeRows(double[] values, boolean[] present, int rows, ForkJoinPool pool) throws IOException {
+        if (column != 0) {
+            throw new IllegalStateException("The current row already has " + column + " cells.");
+        }
+        var blocks = new StringBuilder[(rows + BLOCK_ROWS - 1) / BLOCK_ROWS];
+        if (Objects.isNull(pool) || blocks.length < 2) {
+            for (int block = 0; block < blocks.length; block++) {
+                blocks[block] = formatBlock(values, present, block, rows, formatter);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, blocks.length).parallel()
+                    .forEach(block -> blocks[block] = formatBlock(values, present, block, rows,
+                            FixedPointFormatter.compile(cellFormat, locale)))).join();
+        }
+        for (var block : blocks) {
+            if (rowChars.length < block.length()) {
+                rowChars = new char[block.capacity()];
+            }
+            block.getChars(0, block.length(), rowChars, 0);
+            writer.write(rowChars, 0, block.length());
+            writtenChars += block.length();
+        }
+    }
+
+    /**
+     * @return the number of characters of a row whose values fit the widths of their columns.
+     */
+    public int getRowWidth() {
+        return Arrays.stream(widths).sum() + widths.length - 1 + LINE_END.length();
+    }
+
+    /**
+     * Writes the current row.
+     *
+     * @throws IOException           if the file cannot be written.
+     * @throws IllegalStateException if the row does not have a cell for every column.
+     */
+    public void endRow() throws IOException {
+        if (column != widths.length) {
+            throw new IllegalStateException("The row has " + column + " cells instead of " + widths.length);
+        }
+        row.append(LINE_END);
+        if (rowChars.length < row.length()) {
+            rowChars = new char[row.capacity()];
+        }
+        row.getChars(0, row.length(), rowChars, 0);
+        writer.write(rowChars, 0, row.length());
+        writtenChars += row.length();
+        row.setLength(0);
+        column = 0;
+    }
+
+    /**
+     * @return the number of characters of the rows written by this writer, including the header row; the number of
+     * bytes in the file if the values are formatted with ASCII characters.
+     */
+    public long getWrittenChars() {
+        return writtenChars;
+    }
+
+    /**
+     * Writes the buffered rows to the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static Writer newWriter(Path file) throws IOException {
+        var directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        return Files.newBufferedWriter(file);
+    }
+
+    private void appendCell(CharSequence text) {
+        if (column == widths.length) {
+            throw new IllegalStateException("The row already has a cell for every column.");
+        }
+        appendCell(row, text, column);
+        column++;
+    }
+
+    private void appendCell(StringBuilder target, CharSequence text, int cellColumn) {
+        if (cellColumn > 0) {
+            target.append(delimiter);
+        }
+        for (int i = text.length(); i < widths[cellColumn]; i++) {
+            target.append(' ');
+        }
+        target.append(text);
+    }
+
+    /**
+     * @return the text of the rows of a block.
+     */
+    private StringBuilder formatBlock(double[] values, boolean[] present, int block, int rows,
+                                      FixedPointFormatter blockFormatter) {
+        var firstRow = block * BLOCK_ROWS;
+        var lastRow = Math.min(rows, firstRow + BLOCK_ROWS);
+        var text = new StringBuilder((lastRow - firstRow) * getRowWidth());
+        var blockCell = new StringBuilder();
+        for (int index = firstRow * widths.length; index < lastRow * widths.length; index++) {
+            var cellColumn = index % widths.length;
+            blockCell.setLength(0);
+            if (present[index]) {
+                blockFormatter.format(values[index], blockCell);
+            }
+            appendCell(text, blockCell, cellColumn);
+            if (cellColumn == widths.length - 1) {
+                text.append(LINE_END);
+            }
+        }
+        return text;
+    }
+}
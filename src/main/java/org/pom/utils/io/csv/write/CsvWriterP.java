@@ -1,6 +1,7 @@
 package org.pom.utils.io.csv.write;
 
 
+import org.pom.utils.FixedPointFormatter;
 import org.pom.utils.FormatUtil;
 import org.pom.utils.io.csv.base.AbstractCsvP;
 
@@ -33,11 +34,12 @@ public class CsvWriterP extends AbstractCsvP {
 
     public static List<String> createColumn(String header, Locale locale, String cellFormat, Collection<Double> values) {
         var column = new ArrayList<String>();
+        var formatter = FixedPointFormatter.compile(cellFormat, locale);
         column.add(FormatUtil.getString(locale, header, cellFormat, header));
         values.forEach(value -> column.add(
                 FormatUtil.getString(
                         locale,
-                        String.format(locale, cellFormat, value),
+                        formatter.format(value),
                         cellFormat,
                         header
                 )
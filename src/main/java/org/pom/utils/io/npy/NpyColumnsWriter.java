@@ -0,0 +1,79 @@
+package org.pom.utils.io.npy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a table of doubles row by row to a directory, one {@code <column name>.npy} file per column, see
+ * {@link NpyWriter}.
+ */
+public class NpyColumnsWriter implements AutoCloseable {
+    private final List<NpyWriter> writers = new ArrayList<>();
+
+    /**
+     * @param directory   the directory of the files; it is created if it does not exist.
+     * @param columnNames the names of the columns.
+     * @throws IOException if a file cannot be written.
+     */
+    public NpyColumnsWriter(Path directory, List<String> columnNames) throws IOException {
+        Files.createDirectories(directory);
+        try {
+            for (var name : columnNames) {
+                writers.add(new NpyWriter(directory.resolve(name + ".npy")));
+            }
+        } catch (IOException | RuntimeException e) {
+            closeWriters();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param values the values of the columns.
+     * @throws IOException              if a file cannot be written.
+     * @throws IllegalArgumentException if the row does not have a value for every column.
+     */
+    public void writeRow(double[] values) throws IOException {
+        if (values.length != writers.size()) {
+            throw new IllegalArgumentException("The row has " + values.length + " values instead of "
+                    + writers.size());
+        }
+        for (int column = 0; column < values.length; column++) {
+            writers.get(column).write(values[column]);
+        }
+    }
+
+    /**
+     * Writes the buffered values and the current lengths to the files.
+     *
+     * @throws IOException if a file cannot be written.
+     */
+    public void flush() throws IOException {
+        for (var writer : writers) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeWriters();
+    }
+
+    private void closeWriters() throws IOException {
+        IOException failure = null;
+        for (var writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.pom.utils.io.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a one-dimensional array of doubles to a NumPy {@code .npy} file (format version 1.0, dtype {@code <f8}),
+ * value by value, so that it can be read with {@code numpy.load(file, mmap_mode="r")}.
+ * <p>
+ * The header has a fixed size of {@link #HEADER_SIZE} bytes, enough for any length, and is rewritten with the
+ * current length whenever the buffered values are written; the values follow it as little-endian doubles.
+ */
+public class NpyWriter implements AutoCloseable {
+    static final int HEADER_SIZE = 128;
+    private static final byte[] MAGIC = {(byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0};
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long writtenLength;
+
+    /**
+     * @param file the {@code .npy} file.
+     * @throws IOException if the file cannot be written.
+     */
+    public NpyWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        try {
+            writeHeader();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value the value.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(double value) throws IOException {
+        if (!block.hasRemaining()) {
+            writeBlock();
+        }
+        block.putDouble(value);
+    }
+
+    /**
+     * @return the number of appended values.
+     */
+    public long getLength() {
+        return writtenLength + block.position() / Double.BYTES;
+    }
+
+    /**
+     * Writes the buffered values and the current length to the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    public void flush() throws IOException {
+        writeBlock();
+        writeHeader();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @param length the length of the array.
+     * @return the header of an array of {@code length} doubles, padded with spaces to {@link #HEADER_SIZE} bytes.
+     */
+    static byte[] header(long length) {
+        var dictionary = "{'descr': '<f8', 'fortran_order': False, 'shape': (" + length + ",), }";
+        var header = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        var dictionaryLength = HEADER_SIZE - MAGIC.length - Short.BYTES;
+        header[MAGIC.length] = (byte) dictionaryLength;
+        header[MAGIC.length + 1] = (byte) (dictionaryLength >>> 8);
+        var text = dictionary.getBytes(StandardCharsets.US_ASCII);
+        var start = MAGIC.length + Short.BYTES;
+        System.arraycopy(text, 0, header, start, text.length);
+        for (int i = start + text.length; i < HEADER_SIZE - 1; i++) {
+            header[i] = ' ';
+        }
+        header[HEADER_SIZE - 1] = '\n';
+        return header;
+    }
+
+    private void writeBlock() throws IOException {
+        block.flip();
+        var position = HEADER_SIZE + writtenLength * Double.BYTES;
+        writtenLength += block.remaining() / Double.BYTES;
+        while (block.hasRemaining()) {
+            position += channel.write(block, position);
+        }
+        block.clear();
+    }
+
+    private void writeHeader() throws IOException {
+        var header = ByteBuffer.wrap(header(writtenLength));
+        var position = 0L;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+}
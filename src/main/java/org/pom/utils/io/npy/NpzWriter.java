@@ -0,0 +1,126 @@
+package org.pom.utils.io.npy;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a table of doubles row by row to a NumPy {@code .npz} archive with one {@code .npy} entry per column, like
+ * {@code numpy.savez}, or {@code numpy.savez_compressed} if the entries are compressed, so that
+ * {@code numpy.load(file)[column name]} returns a column.
+ * <p>
+ * The columns are written to {@code .npy} files in a temporary directory next to the archive, see
+ * {@link NpyColumnsWriter}, and are stored in the archive and deleted by {@link #close()}.
+ */
+public class NpzWriter extends NpyColumnsWriter {
+    private static final int COPY_SIZE = 1 << 16;
+
+    private final Path archive;
+    private final Path directory;
+    private final List<String> columnNames;
+    private final int level;
+
+    /**
+     * Writes an uncompressed archive.
+     *
+     * @param archive     the {@code .npz} file.
+     * @param columnNames the names of the columns.
+     * @throws IOException if the files cannot be written.
+     */
+    public NpzWriter(Path archive, List<String> columnNames) throws IOException {
+        this(archive, columnNames, Deflater.NO_COMPRESSION);
+    }
+
+    /**
+     * @param archive     the {@code .npz} file.
+     * @param columnNames the names of the columns.
+     * @param level       {@link Deflater#NO_COMPRESSION} to store the entries uncompressed, or the compression level
+     *                    of the entries, from 1 (fastest) to 9 (smallest).
+     * @throws IOException              if the files cannot be written.
+     * @throws IllegalArgumentException if the level is not valid.
+     */
+    public NpzWriter(Path archive, List<String> columnNames, int level) throws IOException {
+        this(checkLevel(level), archive, createDirectory(archive), columnNames);
+    }
+
+    private NpzWriter(int level, Path archive, Path directory, List<String> columnNames) throws IOException {
+        super(directory, columnNames);
+        this.archive = archive;
+        this.directory = directory;
+        this.columnNames = List.copyOf(columnNames);
+        this.level = level;
+    }
+
+    /**
+     * Stores the columns in the archive and deletes the temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+            try (var output = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive)))) {
+                output.setLevel(level);
+                var buffer = new byte[COPY_SIZE];
+                for (var name : columnNames) {
+                    store(output, name + ".npy", buffer);
+                }
+            }
+        } finally {
+            for (var name : columnNames) {
+                Files.deleteIfExists(directory.resolve(name + ".npy"));
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static int checkLevel(int level) {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Not a compression level: " + level);
+        }
+        return level;
+    }
+
+    private static Path createDirectory(Path archive) throws IOException {
+        var parent = archive.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        return Files.createTempDirectory(parent, archive.getFileName() + ".");
+    }
+
+    private void store(ZipOutputStream output, String entryName, byte[] buffer) throws IOException {
+        var file = directory.resolve(entryName);
+        if (level != Deflater.NO_COMPRESSION) {
+            output.putNextEntry(new ZipEntry(entryName));
+            copy(file, output, buffer);
+            output.closeEntry();
+            return;
+        }
+        var crc = new CRC32();
+        try (var input = Files.newInputStream(file)) {
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        var entry = new ZipEntry(entryName);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(Files.size(file));
+        entry.setCompressedSize(Files.size(file));
+        entry.setCrc(crc.getValue());
+        output.putNextEntry(entry);
+        copy(file, output, buffer);
+        output.closeEntry();
+    }
+
+    private static void copy(Path file, ZipOutputStream output, byte[] buffer) throws IOException {
+        try (var input = Files.newInputStream(file)) {
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+}
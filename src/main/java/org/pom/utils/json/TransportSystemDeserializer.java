@@ -10,13 +10,11 @@ import lombok.SneakyThrows;
 import org.pom.Constants;
 import org.pom.Conveyor;
 import org.pom.TransportSystem;
-import org.pom.utils.MathUtil;
-import org.pom.utils.io.csv.read.CsvReaderP;
+import org.pom.utils.io.csv.read.InitDataTable;
+import org.pom.utils.series.DoubleSeries;
 import org.pom.utils.yaml.SettingsManager;
 
-import java.io.File;
-import java.text.NumberFormat;
-import java.text.ParseException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -45,13 +43,10 @@ public class TransportSystemDeserializer extends StdDeserializer<TransportSystem
         String initDataPath = root.get("initDataPath").asText();
         String outputDataPath = root.get("outputDataPath").asText();
 
-        File file = new File(initDataPath);
-        CsvReaderP csvReaderP = new CsvReaderP("%8.3f ", ';',file.getParent(), file.getName());
-        List<List<String>> table = csvReaderP.readFromFile();
-        var transposeTable = MathUtil.transposeMatrix(table," "::repeat);
+        var table = InitDataTable.read(Path.of(initDataPath), ';', locale);
 
-        var ksis = extractRowByName(Constants.ColumnsNames.KSI, transposeTable);
-        var taus = extractRowByName(Constants.ColumnsNames.TAU, transposeTable);
+        var ksis = table.getColumn(Constants.ColumnsNames.KSI);
+        var taus = table.getColumn(Constants.ColumnsNames.TAU);
 
 
         Map<Integer, Conveyor> conveyors = new TreeMap<>();
@@ -60,32 +55,28 @@ public class TransportSystemDeserializer extends StdDeserializer<TransportSystem
             for (JsonNode conveyorNode : conveyorsNode) {
                 Conveyor conveyor = mapper.treeToValue(conveyorNode, Conveyor.class);
                 var conveyorId = conveyor.getId();
-                var initialDensityValues = extractRowByName(
-                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.INITIAL_DENSITY),
-                        transposeTable);
+                var initialDensityValues = table.getColumn(
+                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.INITIAL_DENSITY));
                 if (initialDensityValues != null) {
-                    conveyor.getInitialDensity().setValues(convertToTreeMap(ksis, initialDensityValues));
+                    conveyor.getInitialDensity().setValues(DoubleSeries.of(ksis, initialDensityValues));
                 }
 
-                var inputFlowValues = extractRowByName(
-                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.JsonParametersNames.INPUT_FLOW),
-                        transposeTable);
+                var inputFlowValues = table.getColumn(
+                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.JsonParametersNames.INPUT_FLOW));
                 if (inputFlowValues != null) {
-                    conveyor.getInputFlow().setValues(convertToTreeMap(taus, inputFlowValues));
+                    conveyor.getInputFlow().setValues(DoubleSeries.of(taus, inputFlowValues));
                 }
 
-                var bunkerOutputFlowValues = extractRowByName(
-                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.BUNKER_OUTPUT_FLOW),
-                        transposeTable);
+                var bunkerOutputFlowValues = table.getColumn(
+                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.BUNKER_OUTPUT_FLOW));
                 if (bunkerOutputFlowValues != null) {
-                    conveyor.getBunkerOutputFlow().setValues(convertToTreeMap(taus, bunkerOutputFlowValues));
+                    conveyor.getBunkerOutputFlow().setValues(DoubleSeries.of(taus, bunkerOutputFlowValues));
                 }
 
-                var speedValues = extractRowByName(
-                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.SPEED),
-                        transposeTable);
+                var speedValues = table.getColumn(
+                        Constants.ColumnsNames.generateHeader(conveyorId, Constants.ColumnsNames.SPEED));
                 if (speedValues != null) {
-                    conveyor.getSpeed().setValues(convertToTreeMap(taus, speedValues));
+                    conveyor.getSpeed().setValues(DoubleSeries.of(taus, speedValues));
                 }
                 conveyors.put(conveyorId, conveyor);
             }
@@ -98,9 +89,9 @@ public class TransportSystemDeserializer extends StdDeserializer<TransportSystem
                     functionConfigKey -> {
                         var outputConveyor = conveyors.get(functionConfigKey);
 
-                        var inputFlowValues = extractRowByName(
-                                Constants.ColumnsNames.generateHeader(conveyorId, Constants.JsonParametersNames.CONVEYOR_NODE, functionConfigKey),
-                                transposeTable);
+                        var inputFlowValues = table.getColumn(
+                                Constants.ColumnsNames.generateHeader(conveyorId,
+                                        Constants.JsonParametersNames.CONVEYOR_NODE, functionConfigKey));
                         var inputFlowMap
                                 = Objects.nonNull(inputFlowValues)
                                 ? convertToTreeMap(taus, inputFlowValues) : new TreeMap<Double, Double>();
@@ -112,32 +103,13 @@ public class TransportSystemDeserializer extends StdDeserializer<TransportSystem
 
         TransportSystem transportSystem
                 = new TransportSystem(new ArrayList<>(conveyors.values()), initDataPath,outputDataPath);
-        transportSystem.addTaus(taus);
+        transportSystem.addTaus(Arrays.stream(taus).boxed().collect(Collectors.toList()));
         return transportSystem;
     }
 
-    private List<Double> extractRowByName(String rowName, List<List<String>> transposeTable) {
-        NumberFormat format = NumberFormat.getInstance(locale);
-        var stringsRow = transposeTable.stream().filter(column -> rowName.equals(column.get(0).trim())).findFirst().orElse(null);
-        if (stringsRow == null) {
-            return null;
-        }
-        stringsRow.remove(0);
-        var withoutStringsRow = stringsRow.stream().map(String::trim).filter(cell -> !cell.isEmpty()).collect(Collectors.toList());
-
-        List<Double> correctRow = withoutStringsRow.stream().map(cell-> {
-            try {
-                return format.parse(cell).doubleValue();
-            } catch (ParseException e) {
-                throw new RuntimeException(e);
-            }
-        }).collect(Collectors.toList());
-        return correctRow;
-    }
-
-    public static TreeMap<Double, Double> convertToTreeMap(List<Double> keys, List<Double> values) {
+    public static TreeMap<Double, Double> convertToTreeMap(double[] keys, double[] values) {
         TreeMap<Double, Double> result = new TreeMap<>();
-        IntStream.range(0, values.size()).forEach(i -> result.put(keys.get(i), values.get(i)));
+        IntStream.range(0, values.length).forEach(i -> result.put(keys[i], values[i]));
         return result;
     }
 }
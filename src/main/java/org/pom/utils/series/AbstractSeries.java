@@ -0,0 +1,327 @@
+package org.pom.utils.series;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The key column shared by the primitive series types.
+ * <p>
+ * A series keeps its keys either explicitly, in an ascending {@code double[]}, or implicitly, as a run of
+ * consecutive ticks of a {@link TimeAxis}. A series attached to an axis stays in the implicit form as long as
+ * every key lies on the grid right after the previous one; it then stores no keys at all and finds a row by
+ * index arithmetic. A key that breaks the run switches the series to explicit keys, so any sequence of keys
+ * is still supported. Keys are compared with {@link Double#compare(double, double)}, the same ordering a
+ * {@link java.util.TreeMap TreeMap&lt;Double, Double&gt;} uses.
+ */
+public abstract class AbstractSeries implements SortedKeys {
+    protected static final int DEFAULT_CAPACITY = 16;
+
+    private TimeAxis timeAxis;
+    private int firstTick;
+    private double[] keys;
+    private int size;
+    private int capacity;
+    /**
+     * The first row added or changed since the last {@link #resetChanges()}, or {@link #size} if there is none.
+     */
+    private int firstChangedRow;
+
+    protected AbstractSeries(int initialCapacity) {
+        this.capacity = Math.max(initialCapacity, 1);
+        this.keys = new double[capacity];
+    }
+
+    /**
+     * Resizes the value storage of the series.
+     *
+     * @param capacity the new number of rows.
+     */
+    protected abstract void resizeRows(int capacity);
+
+    /**
+     * Moves rows of the value storage, with the semantics of {@link System#arraycopy}.
+     */
+    protected abstract void moveRows(int from, int to, int length);
+
+    /**
+     * Resets the values of a newly created row.
+     */
+    protected abstract void clearRow(int row);
+
+    /**
+     * Aligns the series to the time axis. The existing keys are dropped in favour of tick indexing when they form
+     * a run of consecutive ticks; otherwise the series keeps explicit keys.
+     *
+     * @param timeAxis the time axis, or {@code null} to keep explicit keys.
+     */
+    public void setTimeAxis(TimeAxis timeAxis) {
+        if (keys == null) {
+            materializeKeys();
+        }
+        this.timeAxis = timeAxis;
+        if (timeAxis == null) {
+            return;
+        }
+        var tick = size == 0 ? 0 : timeAxis.tickOf(keys[0]);
+        if (tick < 0) {
+            return;
+        }
+        for (int row = 1; row < size; row++) {
+            if (timeAxis.tickOf(keys[row]) != tick + row) {
+                return;
+            }
+        }
+        this.firstTick = tick;
+        this.keys = null;
+    }
+
+    public TimeAxis getTimeAxis() {
+        return timeAxis;
+    }
+
+    /**
+     * @return {@code true} if the rows of the series are addressed by the ticks of its time axis.
+     */
+    public boolean isTickIndexed() {
+        return keys == null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the row of the key, creating it when the key is new. Appending a key after the last one is the fast
+     * path; an out-of-order key is inserted at its sorted position.
+     *
+     * @param key the key of the row.
+     * @return the index of the row.
+     */
+    protected int addRow(double key) {
+        if (keys == null) {
+            var tick = timeAxis.tickOf(key);
+            if (tick >= 0 && (size == 0 || (tick >= firstTick && tick - firstTick <= size))) {
+                if (size == 0) {
+                    firstTick = tick;
+                }
+                var row = tick - firstTick;
+                if (row == size) {
+                    appendRow();
+                }
+                markChanged(row);
+                return row;
+            }
+            materializeKeys();
+        }
+        if (size == 0 || Double.compare(key, keys[size - 1]) > 0) {
+            var row = appendRow();
+            keys[row] = key;
+            markChanged(row);
+            return row;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            markChanged(index);
+            return index;
+        }
+        int insertionPoint = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, insertionPoint, keys, insertionPoint + 1, size - insertionPoint);
+        moveRows(insertionPoint, insertionPoint + 1, size - insertionPoint);
+        keys[insertionPoint] = key;
+        clearRow(insertionPoint);
+        size++;
+        markChanged(insertionPoint);
+        return insertionPoint;
+    }
+
+    @Override
+    public int indexOf(double key) {
+        if (keys == null) {
+            var tick = timeAxis.tickOf(key);
+            var row = tick - firstTick;
+            return tick >= 0 && row >= 0 && row < size ? row : -1;
+        }
+        if (size > 0 && Double.compare(key, keys[size - 1]) == 0) {
+            return size - 1;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index : -1;
+    }
+
+    public boolean containsKey(double key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int ceilingIndex(double key) {
+        if (keys == null) {
+            var row = Math.max(timeAxis.ceilingTick(key) - firstTick, 0);
+            return row < size ? row : -1;
+        }
+        if (size > 0 && Double.compare(key, keys[size - 1]) == 0) {
+            return size - 1;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            return index;
+        }
+        int insertionPoint = -index - 1;
+        return insertionPoint < size ? insertionPoint : -1;
+    }
+
+    @Override
+    public double keyAt(int index) {
+        checkIndex(index);
+        return keys == null ? timeAxis.tauAt(firstTick + index) : keys[index];
+    }
+
+    public double firstKey() {
+        checkNotEmpty();
+        return keyAt(0);
+    }
+
+    public double lastKey() {
+        checkNotEmpty();
+        return keyAt(size - 1);
+    }
+
+    public void clear() {
+        size = 0;
+        firstChangedRow = 0;
+    }
+
+    /**
+     * @return the first row added or changed since the last {@link #resetChanges()}; the rows after it may have
+     * changed as well. {@link #size()} if no row has changed.
+     */
+    public int firstChangedRow() {
+        return Math.min(firstChangedRow, size);
+    }
+
+    /**
+     * Marks every row as unchanged, see {@link #firstChangedRow()}.
+     */
+    public void resetChanges() {
+        firstChangedRow = size;
+    }
+
+    /**
+     * Removes the rows whose keys are less than {@code key}; the later rows move to the front. A tick-indexed
+     * series stays tick-indexed.
+     *
+     * @param key the least key to keep.
+     * @return the number of removed rows.
+     */
+    public int removeBefore(double key) {
+        var count = ceilingIndex(key);
+        count = count < 0 ? size : count;
+        removeRange(0, count);
+        return count;
+    }
+
+    /**
+     * Removes the rows {@code [from, to)}; the later rows move up. Removing rows after the first one switches a
+     * tick-indexed series to explicit keys.
+     *
+     * @param from the first row to remove.
+     * @param to   the row after the last one to remove.
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for series of size "
+                    + size);
+        }
+        if (from == to) {
+            return;
+        }
+        if (keys == null && from == 0) {
+            firstTick += to;
+        } else {
+            if (keys == null) {
+                materializeKeys();
+            }
+            System.arraycopy(keys, to, keys, from, size - to);
+        }
+        moveRows(to, from, size - to);
+        size -= to - from;
+        if (firstChangedRow >= to) {
+            firstChangedRow -= to - from;
+        } else if (firstChangedRow > from) {
+            firstChangedRow = from;
+        }
+    }
+
+    /**
+     * @return a read-only view of the keys in ascending order; the view is not a copy and follows later updates.
+     */
+    public List<Double> keys() {
+        return new ColumnView() {
+            @Override
+            public Double get(int index) {
+                return keyAt(index);
+            }
+        };
+    }
+
+    /**
+     * Records that the row is added or changed, see {@link #firstChangedRow()}.
+     */
+    protected void markChanged(int row) {
+        if (row < firstChangedRow) {
+            firstChangedRow = row;
+        }
+    }
+
+    protected void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for series of size " + size);
+        }
+    }
+
+    protected void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("The series is empty.");
+        }
+    }
+
+    private int appendRow() {
+        ensureCapacity(size + 1);
+        clearRow(size);
+        return size++;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > capacity) {
+            capacity = Math.max(minCapacity, capacity + (capacity >> 1));
+            if (keys != null) {
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            resizeRows(capacity);
+        }
+    }
+
+    private void materializeKeys() {
+        keys = new double[capacity];
+        for (int row = 0; row < size; row++) {
+            keys[row] = timeAxis.tauAt(firstTick + row);
+        }
+    }
+
+    /**
+     * A read-only list over one column of the series; the view is not a copy and follows later updates.
+     */
+    protected abstract class ColumnView extends AbstractList<Double> {
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
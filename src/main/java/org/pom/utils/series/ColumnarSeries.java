@@ -0,0 +1,116 @@
+package org.pom.utils.series;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A struct-of-arrays table of primitive {@code double} columns that share one ascending key column.
+ * <p>
+ * Every key owns one row, and each quantity is stored in its own growable {@code double[]} indexed by row.
+ * Updating a row touches only primitive arrays, so steady appends allocate nothing beyond amortized growth.
+ * Keys follow the same rules as {@link DoubleSeries}: increasing keys are appended, an existing key reuses
+ * its row, and an out-of-order key is inserted at its sorted position.
+ */
+public class ColumnarSeries extends AbstractSeries {
+    private final double[][] columns;
+
+    public ColumnarSeries(int columnCount) {
+        this(columnCount, DEFAULT_CAPACITY);
+    }
+
+    public ColumnarSeries(int columnCount, int initialCapacity) {
+        super(initialCapacity);
+        this.columns = new double[columnCount][Math.max(initialCapacity, 1)];
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the row of the key, creating it when the key is new. A new row starts with zeros in every column.
+     *
+     * @param key the key of the row.
+     * @return the index of the row.
+     */
+    public int row(double key) {
+        return addRow(key);
+    }
+
+    public double get(int column, int row) {
+        checkIndex(row);
+        return columns[column][row];
+    }
+
+    public void set(int column, int row, double value) {
+        checkIndex(row);
+        columns[column][row] = value;
+        markChanged(row);
+    }
+
+    /**
+     * Copies the rows whose keys are not below {@code fromKey}, together with the row before them. The copy keeps
+     * the time axis.
+     *
+     * @param fromKey the least key a lookup in the copy may ask for.
+     * @return a new series with the copied rows.
+     */
+    public ColumnarSeries copy(double fromKey) {
+        var copy = new ColumnarSeries(columns.length);
+        copy.setTimeAxis(getTimeAxis());
+        var from = ceilingIndex(fromKey);
+        from = from < 0 ? size() - 1 : from;
+        copy.putAll(this, Math.max(from - 1, 0), size());
+        return copy;
+    }
+
+    /**
+     * Puts the rows {@code [fromRow, toRow)} of {@code source} into this series.
+     *
+     * @param source  the series to copy from, with the same number of columns.
+     * @param fromRow the first row to copy.
+     * @param toRow   the row after the last one to copy.
+     */
+    public void putAll(ColumnarSeries source, int fromRow, int toRow) {
+        for (int i = Math.max(fromRow, 0); i < toRow; i++) {
+            var row = row(source.keyAt(i));
+            for (int column = 0; column < columns.length; column++) {
+                columns[column][row] = source.columns[column][i];
+            }
+        }
+    }
+
+    /**
+     * @param column the index of the column.
+     * @return a read-only view of the column; the view is not a copy and follows later updates.
+     */
+    public List<Double> column(int column) {
+        return new ColumnView() {
+            @Override
+            public Double get(int row) {
+                return ColumnarSeries.this.get(column, row);
+            }
+        };
+    }
+
+    @Override
+    protected void resizeRows(int capacity) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], capacity);
+        }
+    }
+
+    @Override
+    protected void moveRows(int from, int to, int length) {
+        for (double[] column : columns) {
+            System.arraycopy(column, from, column, to, length);
+        }
+    }
+
+    @Override
+    protected void clearRow(int row) {
+        for (double[] column : columns) {
+            column[row] = 0.0;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.pom.utils.series;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * A sorted mapping of primitive {@code double} keys to primitive {@code double} values.
+ * <p>
+ * Keys and values are kept in two parallel growable arrays, so a point costs 16 bytes and neither
+ * lookups nor updates box. The series is optimized for the way the model fills it: keys almost always
+ * arrive in increasing order and are appended in amortized constant time. Out-of-order keys are still
+ * supported and are inserted at their sorted position, an existing key is overwritten in place.
+ * A series attached to a {@link TimeAxis} drops the key array and is addressed by tick, see {@link AbstractSeries}.
+ */
+public class DoubleSeries extends AbstractSeries {
+    private double[] values;
+
+    public DoubleSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleSeries(int initialCapacity) {
+        super(initialCapacity);
+        this.values = new double[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Creates a series holding the entries of the given map. A {@code null} map yields an empty series.
+     *
+     * @param map the key-value pairs to copy.
+     * @return a new series with the same entries.
+     */
+    public static DoubleSeries of(Map<Double, Double> map) {
+        if (map == null) {
+            return new DoubleSeries();
+        }
+        var sortedMap = map instanceof SortedMap ? map : new TreeMap<>(map);
+        var series = new DoubleSeries(sortedMap.size());
+        sortedMap.forEach(series::put);
+        return series;
+    }
+
+    /**
+     * Creates a series from parallel lists of keys and values. Only the first {@code values.size()} keys are used.
+     *
+     * @param keys   the keys of the series.
+     * @param values the values of the series.
+     * @return a new series with the same entries.
+     */
+    public static DoubleSeries of(List<Double> keys, List<Double> values) {
+        var series = new DoubleSeries(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            series.put(keys.get(i), values.get(i));
+        }
+        return series;
+    }
+
+    /**
+     * Creates a series from parallel arrays of keys and values. Only the first {@code values.length} keys are used.
+     *
+     * @param keys   the keys of the series.
+     * @param values the values of the series.
+     * @return a new series with the same entries.
+     */
+    public static DoubleSeries of(double[] keys, double[] values) {
+        var series = new DoubleSeries(values.length);
+        for (int i = 0; i < values.length; i++) {
+            series.put(keys[i], values[i]);
+        }
+        return series;
+    }
+
+    /**
+     * Associates the value with the key. Appending a key greater than {@link #lastKey()} is the fast path.
+     *
+     * @param key   the key.
+     * @param value the value.
+     */
+    public void put(double key, double value) {
+        var row = addRow(key);
+        values[row] = value;
+    }
+
+    /**
+     * Copies a range of the series. The copy holds the entries whose keys lie in {@code [fromKey, toKey]} and the
+     * first entry after {@code toKey}, so a ceiling lookup of any key in the range finds the same value as in this
+     * series. The copy keeps the time axis.
+     *
+     * @param fromKey the least key to copy.
+     * @param toKey   the greatest key to look up in the copy.
+     * @return a new series with the entries of the range.
+     */
+    public DoubleSeries copy(double fromKey, double toKey) {
+        var copy = new DoubleSeries();
+        copy.setTimeAxis(getTimeAxis());
+        var from = ceilingIndex(fromKey);
+        if (from < 0) {
+            return copy;
+        }
+        var to = ceilingIndex(toKey);
+        to = to < 0 ? size() - 1 : to;
+        for (int i = from; i <= to; i++) {
+            copy.put(keyAt(i), values[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the end of the series: the entries from the first key not less than {@code fromKey} on. The copy keeps
+     * the time axis.
+     *
+     * @param fromKey the least key to copy.
+     * @return a new series with the entries from {@code fromKey} on.
+     */
+    public DoubleSeries copy(double fromKey) {
+        var copy = new DoubleSeries();
+        copy.setTimeAxis(getTimeAxis());
+        var from = ceilingIndex(fromKey);
+        for (int i = Math.max(from, 0); from >= 0 && i < size(); i++) {
+            copy.put(keyAt(i), values[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * Puts the entries of {@code source} whose keys lie in {@code [fromKey, toKey]} into this series.
+     *
+     * @param source  the series to copy from.
+     * @param fromKey the least key to copy.
+     * @param toKey   the greatest key to copy.
+     */
+    public void putAll(DoubleSeries source, double fromKey, double toKey) {
+        var from = source.ceilingIndex(fromKey);
+        for (int i = from; i >= 0 && i < source.size() && source.keyAt(i) <= toKey; i++) {
+            put(source.keyAt(i), source.values[i]);
+        }
+    }
+
+    public double valueAt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void setValueAt(int index, double value) {
+        checkIndex(index);
+        values[index] = value;
+        markChanged(index);
+    }
+
+    public double lastValue() {
+        checkNotEmpty();
+        return values[size() - 1];
+    }
+
+    /**
+     * @return a read-only view of the values in key order; the view is not a copy and follows later updates.
+     */
+    public List<Double> values() {
+        return new ColumnView() {
+            @Override
+            public Double get(int index) {
+                return valueAt(index);
+            }
+        };
+    }
+
+    @Override
+    protected void resizeRows(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    protected void moveRows(int from, int to, int length) {
+        System.arraycopy(values, from, values, to, length);
+    }
+
+    @Override
+    protected void clearRow(int row) {
+        values[row] = 0.0;
+    }
+}
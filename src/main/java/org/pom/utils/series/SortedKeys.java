@@ -0,0 +1,22 @@
+package org.pom.utils.series;
+
+/**
+ * Position-based access to an ascending sequence of primitive {@code double} keys.
+ */
+public interface SortedKeys {
+    int size();
+
+    double keyAt(int index);
+
+    /**
+     * @param key the key to search for.
+     * @return the index of the key, or {@code -1} if the key is absent.
+     */
+    int indexOf(double key);
+
+    /**
+     * @param key the key to search for.
+     * @return the index of the least key greater than or equal to {@code key}, or {@code -1} if there is none.
+     */
+    int ceilingIndex(double key);
+}
@@ -0,0 +1,101 @@
+package org.pom.utils.series;
+
+import java.math.BigDecimal;
+
+/**
+ * A uniform time grid shared by every series of a transport system.
+ * <p>
+ * The axis is built once from {@code deltaTau} and {@code researchTau} and maps a tau value to its integer tick,
+ * so a series aligned to the axis is addressed by array index instead of by a floating-point key. The tau of a
+ * tick is the double nearest to the decimal value {@code tick * deltaTau}, the same double that parsing the tau
+ * column of {@code initData.csv} yields, so grid taus compare exactly with the taus read from the input data.
+ * A tau that is not exactly a grid tau, such as a sum accumulated by {@code tau += deltaTau}, has no tick.
+ */
+public class TimeAxis {
+    /**
+     * The largest number of decimal places of {@code deltaTau} for which grid taus are computed as decimals.
+     */
+    private static final int MAX_DECIMAL_SCALE = 15;
+
+    private final double deltaTau;
+    private final int size;
+    /**
+     * {@code deltaTau * 10^scale} when {@code deltaTau} is a short decimal, otherwise {@code 0}.
+     */
+    private final long stepUnits;
+    private final double unitsPerTau;
+
+    /**
+     * @param deltaTau    The step of the grid.
+     * @param researchTau The length of the studied interval; the grid covers {@code [0, researchTau]}.
+     * @throws IllegalArgumentException if {@code deltaTau} is not positive or {@code researchTau} is negative.
+     */
+    public TimeAxis(double deltaTau, double researchTau) {
+        if (!(deltaTau > 0.0) || researchTau < 0.0) {
+            throw new IllegalArgumentException("Invalid time axis: deltaTau (" + deltaTau
+                    + ") must be positive and researchTau (" + researchTau + ") must be non-negative.");
+        }
+        this.deltaTau = deltaTau;
+        this.size = (int) Math.round(researchTau / deltaTau) + 1;
+
+        var decimal = new BigDecimal(Double.toString(deltaTau)).stripTrailingZeros();
+        var scale = Math.max(decimal.scale(), 0);
+        var units = decimal.movePointRight(scale).toBigIntegerExact();
+        if (scale <= MAX_DECIMAL_SCALE && units.bitLength() < 32) {
+            this.stepUnits = units.longValueExact();
+            this.unitsPerTau = Math.pow(10.0, scale);
+        } else {
+            this.stepUnits = 0;
+            this.unitsPerTau = 1.0;
+        }
+    }
+
+    public double getDeltaTau() {
+        return deltaTau;
+    }
+
+    /**
+     * @return The number of ticks in {@code [0, researchTau]}.
+     */
+    public int size() {
+        return size;
+    }
+
+    public double tauAt(int tick) {
+        // Both operands are exact integers, so the quotient is the double nearest to the decimal tau.
+        return stepUnits > 0 ? (tick * stepUnits) / unitsPerTau : tick * deltaTau;
+    }
+
+    /**
+     * @param tau The tau value.
+     * @return The tick whose tau equals {@code tau}, or {@code -1} if {@code tau} does not lie on the grid.
+     */
+    public int tickOf(double tau) {
+        var tick = Math.round(tau / deltaTau);
+        return tick >= 0 && tick <= Integer.MAX_VALUE && Double.compare(tauAt((int) tick), tau) == 0
+                ? (int) tick : -1;
+    }
+
+    /**
+     * Ticks past the grid are counted as well, so that a series holding more ticks than {@link #size()} is still
+     * addressed by its real ticks.
+     *
+     * @param tau The tau value.
+     * @return The least tick whose tau is greater than or equal to {@code tau}, even past the last tick of the
+     * grid, or {@link Integer#MAX_VALUE} if no {@code int} tick is that large.
+     */
+    public int ceilingTick(double tau) {
+        var estimate = Math.ceil(tau / deltaTau);
+        if (!(estimate < Integer.MAX_VALUE)) {
+            return Integer.MAX_VALUE;
+        }
+        var tick = (int) Math.max(estimate, 0.0);
+        while (tick > 0 && tauAt(tick - 1) >= tau) {
+            tick--;
+        }
+        while (tick < Integer.MAX_VALUE && tauAt(tick) < tau) {
+            tick++;
+        }
+        return tick;
+    }
+}
@@ -1,6 +1,8 @@
 package org.pom.utils.yaml;
 
 import lombok.Getter;
+import org.pom.OutputFormat;
+import org.pom.engine.EngineMode;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
@@ -67,6 +69,18 @@ public class SettingsManager {
         return settings.prepareDataTableFormat;
     }
 
+    public Settings.Engine getEngine() {
+        return settings.engine;
+    }
+
+    public Settings.Checkpoint getCheckpoint() {
+        return settings.checkpoint;
+    }
+
+    public Settings.Output getOutput() {
+        return settings.output;
+    }
+
     public void setAppName(String name) {
         settings.app.name = name;
     }
@@ -84,6 +98,9 @@ public class SettingsManager {
     public static class Settings {
         public App app;
         public PrepareDataTableFormat prepareDataTableFormat;
+        public Engine engine;
+        public Checkpoint checkpoint;
+        public Output output;
 
         @Getter
         public static class App {
@@ -102,6 +119,46 @@ public class SettingsManager {
             public String cellFormat;
         }
 
+        @Getter
+        public static class Engine {
+            public EngineMode mode;
+            public int threads;
+            public int queueCapacity;
+            public Parareal parareal;
+        }
+
+        @Getter
+        public static class Parareal {
+            public int slices;
+            public int coarseFactor;
+            public double tolerance;
+            public int maxIterations;
+        }
+
+        @Getter
+        public static class Checkpoint {
+            public String directory;
+            public int intervalTicks;
+            public boolean resume;
+        }
+
+        @Getter
+        public static class Output {
+            public OutputFormat format;
+            public int batchRows;
+            public int pendingBatches;
+            public int compressionLevel;
+            public List<String> columns;
+            public Double fromTau;
+            public Double toTau;
+            public double bucketTau;
+            public long segmentRows;
+            public long segmentBytes;
+            public int formatThreads = 1;
+            public List<String> sinks;
+            public int historyTicks;
+        }
+
         @Getter
         public static class TransportSystemParameters {
             public String id;
@@ -88,6 +88,12 @@ class BunkerTest {
         }
     }
 
+    @Test
+    void testGetValues_capacityColumn() {
+        assertEquals(validCapacities, List.copyOf(bunker.getValues(Constants.ColumnsNames.BUNKER_CAPACITY)));
+        assertThrows(IllegalArgumentException.class, () -> bunker.getValues("unknown"));
+    }
+
     @Test
     void testAddCharacteristics_negativeInput() {
         assertThrows(IllegalArgumentException.class, () -> bunker.addParametersValues(-1.0, 10.0, 10.0, this.outputForMaxDensity));
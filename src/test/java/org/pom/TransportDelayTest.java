@@ -66,6 +66,27 @@ class TransportDelayTest {
         assertEquals(0.0, delay); // No speed or distance change should yield zero delay
     }
 
+    @Test
+    void testGetDelayForConveyorLength_matchesLookupByDistance() {
+        assertEquals(transportDelay.getDelayByDeltaDistance(CONVEYOR_LENGTH),
+                transportDelay.getDelayForConveyorLength());
+    }
+
+    @Test
+    void testGetDelayForConveyorLength_stoppedBeltKeepsLatestTau() {
+        var localTransportDelay = new TransportDelay(CONVEYOR_LENGTH);
+        localTransportDelay.addParametersValues(0.0, 1.0);
+        localTransportDelay.addParametersValues(1.0, 0.0);
+        localTransportDelay.addParametersValues(2.0, 0.0);
+        localTransportDelay.addParametersValues(3.0, 1.0);
+        assertEquals(3.0, localTransportDelay.getDelayForConveyorLength());
+
+        localTransportDelay.addParametersValues(4.0, 1.0);
+        assertEquals(1.0, localTransportDelay.getDelayForConveyorLength());
+        assertEquals(localTransportDelay.getDelayByDeltaDistance(CONVEYOR_LENGTH),
+                localTransportDelay.getDelayForConveyorLength());
+    }
+
     @Test
     void testGetDeltaDistanceFromStart() {
         assertEquals(0.625, transportDelay.getDeltaDistanceFromStart(0.5), 2.0 * TestConstant.DELTA_LENGTH);
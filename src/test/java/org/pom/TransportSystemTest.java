@@ -0,0 +1,641 @@
+package org.pom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pom.engine.ConveyorScheduler;
+import org.pom.utils.MathUtil;
+import org.pom.utils.io.binary.ColumnarFileReader;
+import org.pom.utils.io.csv.write.CsvWriterP;
+import org.pom.utils.series.TimeAxis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportSystemTest {
+    private static final double DELTA_TAU = 0.01;
+    private static final double RESEARCH_TAU = 20.0;
+    private static final String CELL_FORMAT = "%8.5f";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAdvanceTo_sameResultsAsBatchRun() {
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var batchConveyors = createConveyors();
+        for (int tick = 0; tick < 300; tick++) {
+            var tau = axis.tauAt(tick);
+            batchConveyors.get(0).getInputFlow().setValue(tau, inputFlow(tick));
+            batchConveyors.forEach(conveyor -> conveyor.getSpeed().addParametersValues(tau, speed(conveyor, tau)));
+        }
+        var batch = new ConveyorScheduler(batchConveyors);
+        for (int tick = 0; tick < 300; tick++) {
+            batch.step(axis.tauAt(tick));
+        }
+
+        var streamConveyors = createConveyors();
+        var transportSystem = new TransportSystem(streamConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var publishedTaus = new ArrayList<Double>();
+        var publishedOutputFlows = new ArrayList<Double>();
+        transportSystem.setTickListener((tau, conveyors) -> {
+            publishedTaus.add(tau);
+            publishedOutputFlows.add(conveyors.get(1).getOutputFlow().getOutputFlowAtTau(tau));
+        });
+        for (int tick = 0; tick < 300; tick++) {
+            var tau = axis.tauAt(tick);
+            transportSystem.offerInputFlow(1, tau, inputFlow(tick));
+            streamConveyors.forEach(conveyor ->
+                    transportSystem.offerSpeed(conveyor.getId(), tau, speed(conveyor, tau)));
+            if (tick % 50 == 49) {
+                assertEquals(50, transportSystem.advanceTo(tau));
+            }
+        }
+
+        assertEquals(300, publishedTaus.size());
+        assertEquals(axis.tauAt(299), publishedTaus.get(299));
+        assertEquals(batchConveyors.get(1).getOutputFlow().values(), publishedOutputFlows);
+        for (int i = 0; i < batchConveyors.size(); i++) {
+            assertEquals(batchConveyors.get(i).getBunker().getValues(Constants.ColumnsNames.BUNKER_CAPACITY),
+                    streamConveyors.get(i).getBunker().getValues(Constants.ColumnsNames.BUNKER_CAPACITY));
+        }
+    }
+
+    @Test
+    void testSetHistorySink_boundedHistoryGivesSameOutput() {
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var fullConveyors = createConveyors();
+        var boundedConveyors = createConveyors();
+        var fullSystem = new TransportSystem(fullConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var boundedSystem = new TransportSystem(boundedConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var fullOutputFlows = new ArrayList<Double>();
+        var boundedOutputFlows = new ArrayList<Double>();
+        fullSystem.setTickListener((tau, conveyors) ->
+                fullOutputFlows.add(conveyors.get(1).getOutputFlow().getOutputFlowAtTau(tau)));
+        boundedSystem.setTickListener((tau, conveyors) ->
+                boundedOutputFlows.add(conveyors.get(1).getOutputFlow().getOutputFlowAtTau(tau)));
+        var evictedCapacities = new ArrayList<Double>();
+        boundedSystem.setHistorySink((conveyor, fromTau, toTau) -> {
+            if (conveyor.getId() == 1) {
+                for (int tick = axis.tickOf(fromTau); tick <= axis.tickOf(toTau); tick++) {
+                    evictedCapacities.add(conveyor.getBunker().getCapacityAtTau(axis.tauAt(tick)));
+                }
+            }
+        });
+
+        for (int tick = 0; tick < 2000; tick++) {
+            var tau = axis.tauAt(tick);
+            for (var system : List.of(fullSystem, boundedSystem)) {
+                system.offerInputFlow(1, tau, inputFlow(tick));
+                system.offerSpeed(1, tau, speed(fullConveyors.get(0), tau));
+                system.offerSpeed(2, tau, speed(fullConveyors.get(1), tau));
+                system.step(1);
+            }
+        }
+
+        assertEquals(fullOutputFlows, boundedOutputFlows);
+        var fullCapacities = List.copyOf(
+                fullConveyors.get(0).getBunker().getValues(Constants.ColumnsNames.BUNKER_CAPACITY));
+        assertEquals(fullCapacities.subList(0, evictedCapacities.size()), evictedCapacities);
+        boundedConveyors.forEach(conveyor -> {
+            assertTrue(conveyor.getOutputFlow().values().size() < 200);
+            assertTrue(conveyor.getSpeed().values().size() < 200);
+            assertTrue(conveyor.getBunker().getValues(Constants.ColumnsNames.BUNKER_CAPACITY).size() < 200);
+        });
+    }
+
+    @Test
+    void testCsvResultWriter_boundedHistoryWritesTheRowsOfTheFullHistory() throws IOException {
+        var file = directory.resolve("output.csv");
+        var fullConveyors = createConveyors();
+        run(new TransportSystem(fullConveyors, RESEARCH_TAU, DELTA_TAU, null), 0, 1000);
+
+        var boundedSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        boundedSystem.setHistorySink(HistorySink.DROP);
+        try (var resultWriter = new CsvResultWriter(file, Locale.US, CELL_FORMAT, boundedSystem.getConveyors())) {
+            boundedSystem.setTickListener(resultWriter);
+            run(boundedSystem, 0, 1000);
+        }
+
+        var table = new ArrayList<List<String>>();
+        table.add(CsvWriterP.createColumn(Constants.ColumnsNames.TAU, Locale.US, CELL_FORMAT,
+                fullConveyors.get(0).getOutputFlow().keys()));
+        fullConveyors.forEach(conveyor -> {
+            var id = conveyor.getId();
+            table.add(createColumn(id, Constants.ColumnsNames.INPUT_FLOW, conveyor.getInputFlow().values()));
+            Bunker.PARAMETERS_NAMES.forEach(key ->
+                    table.add(createColumn(id, key, conveyor.getBunker().getValues(key))));
+            table.add(createColumn(id, Constants.ColumnsNames.SPEED, conveyor.getSpeed().values()));
+            table.add(createColumn(id, Constants.ColumnsNames.DENSITY, conveyor.getDensity().values()));
+            table.add(createColumn(id, Constants.ColumnsNames.OUTPUT_FLOW, conveyor.getOutputFlow().values()));
+            conveyor.getConveyorNode().getOutputConveyorFlowMap().keySet().forEach(key -> table.add(
+                    CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(
+                                    id, Constants.JsonParametersNames.CONVEYOR_NODE, key),
+                            Locale.US, CELL_FORMAT, conveyor.getConveyorNode().values(key))));
+            table.add(createColumn(id, Constants.ColumnsNames.DELAY_FOR_CONVEYOR_LENGTH,
+                    conveyor.getTransportDelay().values()));
+        });
+        var expected = MathUtil.transposeMatrix(table, " "::repeat).stream()
+                .map(row -> String.join(";", row) + "\r\n")
+                .collect(Collectors.joining());
+        assertEquals(expected, Files.readString(file));
+    }
+
+    @Test
+    void testAsyncResultWriter_sameFileAsSynchronousWriter() throws IOException {
+        var synchronousFile = directory.resolve("synchronous.csv");
+        var synchronousConveyors = createConveyors();
+        var synchronousSystem = new TransportSystem(synchronousConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(synchronousFile, Locale.US, CELL_FORMAT, synchronousConveyors)) {
+            synchronousSystem.setTickListener(resultWriter);
+            run(synchronousSystem, 0, 1000);
+        }
+
+        var asyncFile = directory.resolve("async.csv");
+        var asyncConveyors = createConveyors();
+        var asyncSystem = new TransportSystem(asyncConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new AsyncResultWriter(
+                new CsvResultWriter(asyncFile, Locale.US, CELL_FORMAT, asyncConveyors), asyncConveyors, 7, 1)) {
+            asyncSystem.setTickListener(resultWriter);
+            run(asyncSystem, 0, 500);
+            resultWriter.flush();
+            run(asyncSystem, 500, 1000);
+        }
+
+        assertEquals(Files.readString(synchronousFile), Files.readString(asyncFile));
+    }
+
+    @Test
+    void testCsvResultWriter_segmentsShareTheFormatPool() throws IOException {
+        var referenceFile = directory.resolve("reference.csv");
+        var referenceConveyors = createConveyors();
+        var referenceSystem = new TransportSystem(referenceConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(referenceFile, Locale.US, CELL_FORMAT, referenceConveyors)) {
+            referenceSystem.setTickListener(resultWriter);
+            run(referenceSystem, 0, 1000);
+        }
+
+        var file = directory.resolve("output.csv");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var pool = CsvResultWriter.newPool(3);
+        try (var resultWriter = new SegmentedResultWriter(file, 600, 0,
+                path -> new CsvResultWriter(path, Deflater.NO_COMPRESSION, pool, Locale.US, CELL_FORMAT,
+                        ResultSelection.ALL, conveyors), ResultSelection.ALL, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        } finally {
+            assertFalse(pool.isShutdown());
+            pool.shutdown();
+        }
+
+        var referenceLines = Files.readAllLines(referenceFile);
+        var rows = new ArrayList<String>();
+        for (int segment = 0; segment < 2; segment++) {
+            var segmentLines = Files.readAllLines(SegmentedResultWriter.getSegmentPath(file, segment));
+            rows.addAll(segmentLines.subList(1, segmentLines.size()));
+        }
+        assertEquals(referenceLines.subList(1, referenceLines.size()), rows);
+        assertNull(CsvResultWriter.newPool(1));
+        assertThrows(IllegalArgumentException.class, () -> CsvResultWriter.newPool(-1));
+    }
+
+    @Test
+    void testCsvResultWriter_appendContinuesTheFileOfAStoppedRun() throws IOException {
+        var referenceFile = directory.resolve("reference.csv");
+        var referenceConveyors = createConveyors();
+        var referenceSystem = new TransportSystem(referenceConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(referenceFile, Locale.US, CELL_FORMAT, referenceConveyors)) {
+            referenceSystem.setTickListener(resultWriter);
+            run(referenceSystem, 0, 600);
+        }
+
+        var checkpointFile = directory.resolve("transportSystem.checkpoint");
+        var file = directory.resolve("output.csv");
+        var stoppedConveyors = createConveyors();
+        var stoppedSystem = new TransportSystem(stoppedConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        stoppedSystem.setCheckpoint(checkpointFile, 50, false);
+        try (var resultWriter = new CsvResultWriter(directory.resolve("stopped.csv"), Locale.US, CELL_FORMAT,
+                stoppedConveyors)) {
+            stoppedSystem.setTickListener(resultWriter);
+            run(stoppedSystem, 0, 320);
+            resultWriter.flush();
+            Files.copy(directory.resolve("stopped.csv"), file);
+            Files.writeString(file, " 3.2", StandardOpenOption.APPEND);
+        }
+        stoppedSystem.close();
+
+        var resumedConveyors = createConveyors();
+        var resumedSystem = new TransportSystem(resumedConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        assertTrue(resumedSystem.setCheckpoint(checkpointFile, 50, true));
+        run(resumedSystem, 280, 600);
+        resumedSystem.close();
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var taus = new ArrayList<Double>();
+        for (int tick = 0; tick < 600; tick++) {
+            taus.add(axis.tauAt(tick));
+        }
+        try (var resultWriter = CsvResultWriter.append(file, taus, axis.tauAt(299), Locale.US, CELL_FORMAT,
+                ResultSelection.ALL, resumedConveyors)) {
+            assertEquals(299, resultWriter.getKeptTaus());
+            for (int tick = resultWriter.getKeptTaus(); tick < 600; tick++) {
+                resultWriter.onTick(taus.get(tick), resumedConveyors);
+            }
+        }
+
+        assertEquals(Files.readString(referenceFile), Files.readString(file));
+    }
+
+    @Test
+    void testCsvResultWriter_appendWritesAnewWhenTheTausHaveTheSameText() throws IOException {
+        var cellFormat = "%8.1f";
+        var file = directory.resolve("output.csv");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(file, Locale.US, cellFormat, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 300);
+        }
+
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var taus = new ArrayList<Double>();
+        for (int tick = 0; tick < 300; tick++) {
+            taus.add(axis.tauAt(tick));
+        }
+        try (var resultWriter = CsvResultWriter.append(file, taus, axis.tauAt(200), Locale.US, cellFormat,
+                ResultSelection.ALL, conveyors)) {
+            assertEquals(0, resultWriter.getKeptTaus());
+        }
+        assertEquals(1, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void testBinaryResultWriter_columnsOfEveryTick() throws IOException {
+        var file = directory.resolve("output.bin");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new BinaryResultWriter(file, 100, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        }
+
+        try (var reader = new ColumnarFileReader(file)) {
+            assertEquals(new ResultColumns(conveyors).getHeaders(), reader.getColumnNames());
+            assertEquals(1000, reader.getRowCount());
+            var outputFlows = reader.column(Constants.ColumnsNames.generateHeader(2, Constants.ColumnsNames.OUTPUT_FLOW));
+            var capacities = reader.column(Constants.ColumnsNames.generateHeader(1, Constants.ColumnsNames.BUNKER_CAPACITY));
+            var expectedOutputFlows = List.copyOf(conveyors.get(1).getOutputFlow().values());
+            var expectedCapacities = List.copyOf(
+                    conveyors.get(0).getBunker().getValues(Constants.ColumnsNames.BUNKER_CAPACITY));
+            for (int row = 0; row < 1000; row++) {
+                assertEquals(expectedOutputFlows.get(row), outputFlows.get(row));
+                assertEquals(expectedCapacities.get(row), capacities.get(row));
+            }
+            var coefficients = reader.column(
+                    Constants.ColumnsNames.generateHeader(1, Constants.JsonParametersNames.CONVEYOR_NODE, 2));
+            assertTrue(Double.isNaN(coefficients.get(0)));
+
+            var window = reader.column(Constants.ColumnsNames.TAU, 2.0, 2.5);
+            assertEquals(51, window.remaining());
+            assertEquals(2.0, window.get(0), 1e-12);
+        }
+    }
+
+    @Test
+    void testBinaryResultWriter_selectedColumnsAndTaus() throws IOException {
+        var file = directory.resolve("output.bin");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var capacityHeader = Constants.ColumnsNames.generateHeader(1, Constants.ColumnsNames.BUNKER_CAPACITY);
+        var selection = new ResultSelection(List.of("*." + Constants.ColumnsNames.OUTPUT_FLOW, capacityHeader),
+                1.995, 3.005);
+        try (var resultWriter = new BinaryResultWriter(file, 100, selection, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        }
+
+        try (var reader = new ColumnarFileReader(file)) {
+            assertEquals(List.of(Constants.ColumnsNames.TAU, capacityHeader,
+                    Constants.ColumnsNames.generateHeader(1, Constants.ColumnsNames.OUTPUT_FLOW),
+                    Constants.ColumnsNames.generateHeader(2, Constants.ColumnsNames.OUTPUT_FLOW)),
+                    reader.getColumnNames());
+            assertEquals(101, reader.getRowCount());
+            var taus = reader.column(Constants.ColumnsNames.TAU);
+            var outputFlows = reader.column(Constants.ColumnsNames.generateHeader(2, Constants.ColumnsNames.OUTPUT_FLOW));
+            var expectedOutputFlows = List.copyOf(conveyors.get(1).getOutputFlow().values());
+            for (int row = 0; row < 101; row++) {
+                assertEquals(new TimeAxis(DELTA_TAU, RESEARCH_TAU).tauAt(200 + row), taus.get(row));
+                assertEquals(expectedOutputFlows.get(200 + row), outputFlows.get(row));
+            }
+        }
+        assertFalse(selection.isSelected(Constants.ColumnsNames.generateHeader(1, Constants.ColumnsNames.SPEED)));
+        assertTrue(new ResultSelection(List.of("1.*"), 0.0, 1.0).isSelected(capacityHeader));
+        assertThrows(IllegalArgumentException.class, () -> new ResultSelection(List.of(), 1.0, 0.0));
+    }
+
+    @Test
+    void testSegmentedResultWriter_segmentsHoldTheRowsOfTheIndex() throws IOException {
+        var referenceFile = directory.resolve("reference.csv");
+        var referenceConveyors = createConveyors();
+        var referenceSystem = new TransportSystem(referenceConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(referenceFile, Locale.US, CELL_FORMAT, referenceConveyors)) {
+            referenceSystem.setTickListener(resultWriter);
+            run(referenceSystem, 0, 1000);
+        }
+
+        var file = directory.resolve("output.csv");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new SegmentedResultWriter(file, 300, 0,
+                path -> new CsvResultWriter(path, Locale.US, CELL_FORMAT, conveyors), ResultSelection.ALL,
+                conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        }
+
+        var referenceLines = Files.readAllLines(referenceFile);
+        var indexLines = Files.readAllLines(directory.resolve("output.index.csv"));
+        assertEquals(String.join(";", SegmentedResultWriter.INDEX_HEADERS), indexLines.get(0));
+        assertEquals(5, indexLines.size());
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var rows = new ArrayList<String>();
+        for (int segment = 0; segment < 4; segment++) {
+            var cells = indexLines.get(segment + 1).split(";");
+            var segmentFile = directory.resolve(cells[0]);
+            assertEquals(SegmentedResultWriter.getSegmentPath(file, segment), segmentFile);
+            assertEquals(axis.tauAt(300 * segment), Double.parseDouble(cells[1]));
+            assertEquals(axis.tauAt(Math.min(300 * segment + 299, 999)), Double.parseDouble(cells[2]));
+            assertEquals(300L * segment, Long.parseLong(cells[3]));
+            assertEquals(segment < 3 ? 300 : 100, Integer.parseInt(cells[4]));
+            assertEquals(Files.size(segmentFile), Long.parseLong(cells[5]));
+            var segmentLines = Files.readAllLines(segmentFile);
+            assertEquals(referenceLines.get(0), segmentLines.get(0));
+            rows.addAll(segmentLines.subList(1, segmentLines.size()));
+        }
+        assertEquals(referenceLines.subList(1, referenceLines.size()), rows);
+        assertEquals(directory.resolve("output.00001.csv.gz"),
+                SegmentedResultWriter.getSegmentPath(directory.resolve("output.csv.gz"), 1));
+    }
+
+    @Test
+    void testFanOutResultWriter_feedsEverySinkInOnePass() throws IOException {
+        var referenceFile = directory.resolve("reference.csv");
+        var referenceConveyors = createConveyors();
+        var referenceSystem = new TransportSystem(referenceConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        try (var resultWriter = new CsvResultWriter(referenceFile, Locale.US, CELL_FORMAT, referenceConveyors)) {
+            referenceSystem.setTickListener(resultWriter);
+            run(referenceSystem, 0, 1000);
+        }
+
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var csvFile = directory.resolve("output.csv");
+        var binaryFile = directory.resolve("output.bin");
+        var statisticsFile = directory.resolve("output.statistics.csv");
+        var writers = List.<AbstractResultWriter>of(
+                new AsyncResultWriter(new CsvResultWriter(csvFile, Locale.US, CELL_FORMAT, conveyors), conveyors, 64,
+                        2),
+                new AsyncResultWriter(new BinaryResultWriter(binaryFile, 100, conveyors), conveyors, 64, 2),
+                new AsyncResultWriter(new ResultSinkWriter(new StatisticsResultSink(), statisticsFile,
+                        ResultSelection.ALL, conveyors), conveyors, 64, 2));
+        try (var resultWriter = new FanOutResultWriter(writers, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        }
+
+        assertEquals(Files.readString(referenceFile), Files.readString(csvFile));
+        try (var reader = new ColumnarFileReader(binaryFile)) {
+            assertEquals(1000, reader.getRowCount());
+        }
+        var header = Constants.ColumnsNames.generateHeader(2, Constants.ColumnsNames.OUTPUT_FLOW);
+        var outputFlows = List.copyOf(conveyors.get(1).getOutputFlow().values()).subList(0, 1000);
+        var statistics = Files.readAllLines(statisticsFile).stream()
+                .filter(line -> line.startsWith(header + ";"))
+                .findFirst()
+                .orElseThrow()
+                .split(";");
+        assertEquals(Collections.min(outputFlows), Double.parseDouble(statistics[1]));
+        assertEquals(Collections.max(outputFlows), Double.parseDouble(statistics[2]));
+        assertEquals(outputFlows.get(999), Double.parseDouble(statistics[4]));
+        assertThrows(IllegalArgumentException.class, () -> new FanOutResultWriter(List.of(), conveyors));
+    }
+
+    @Test
+    void testBinaryResultWriter_bucketsKeepMinMaxMeanAndLast() throws IOException {
+        var file = directory.resolve("output.bin");
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var header = Constants.ColumnsNames.generateHeader(2, Constants.ColumnsNames.OUTPUT_FLOW);
+        var selection = new ResultSelection(List.of(header), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                1.0);
+        try (var resultWriter = new BinaryResultWriter(file, 100, selection, conveyors)) {
+            transportSystem.setTickListener(resultWriter);
+            run(transportSystem, 0, 1000);
+        }
+
+        try (var reader = new ColumnarFileReader(file)) {
+            assertEquals(List.of(Constants.ColumnsNames.TAU, header + ".min", header + ".max", header + ".mean",
+                    header + ".last"), reader.getColumnNames());
+            assertEquals(10, reader.getRowCount());
+            var expectedOutputFlows = List.copyOf(conveyors.get(1).getOutputFlow().values());
+            for (int bucket = 0; bucket < 10; bucket++) {
+                var bucketFlows = expectedOutputFlows.subList(100 * bucket, 100 * bucket + 100);
+                assertEquals(new TimeAxis(DELTA_TAU, RESEARCH_TAU).tauAt(100 * bucket),
+                        reader.column(Constants.ColumnsNames.TAU).get(bucket));
+                assertEquals(Collections.min(bucketFlows), reader.column(header + ".min").get(bucket));
+                assertEquals(Collections.max(bucketFlows), reader.column(header + ".max").get(bucket));
+                assertEquals(bucketFlows.stream().mapToDouble(Double::doubleValue).average().orElseThrow(),
+                        reader.column(header + ".mean").get(bucket), 1.0e-12);
+                assertEquals(bucketFlows.get(99), reader.column(header + ".last").get(bucket));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ResultSelection(List.of(), 0.0, 1.0, -1.0));
+    }
+
+    @Test
+    void testSetCheckpoint_resumedRunGivesSameResults() throws IOException {
+        var file = directory.resolve("transportSystem.checkpoint");
+        var referenceConveyors = createConveyors();
+        run(new TransportSystem(referenceConveyors, RESEARCH_TAU, DELTA_TAU, null), 0, 600);
+
+        var stoppedSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        assertFalse(stoppedSystem.setCheckpoint(file, 50, true));
+        run(stoppedSystem, 0, 320);
+
+        var resumedConveyors = createConveyors();
+        var resumedSystem = new TransportSystem(resumedConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        var publishedTaus = new ArrayList<Double>();
+        resumedSystem.setTickListener((tau, conveyors) -> publishedTaus.add(tau));
+        assertTrue(resumedSystem.setCheckpoint(file, 50, true));
+        run(resumedSystem, 280, 600);
+        stoppedSystem.close();
+        resumedSystem.close();
+
+        assertEquals(320, publishedTaus.size());
+        assertEquals(new TimeAxis(DELTA_TAU, RESEARCH_TAU).tauAt(280), publishedTaus.get(0));
+        for (int i = 0; i < referenceConveyors.size(); i++) {
+            var expected = referenceConveyors.get(i);
+            var actual = resumedConveyors.get(i);
+            assertEquals(expected.getOutputFlow().keys(), actual.getOutputFlow().keys());
+            assertEquals(expected.getOutputFlow().values(), actual.getOutputFlow().values());
+            assertEquals(expected.getInputFlow().values(), actual.getInputFlow().values());
+            assertEquals(expected.getDensity().values(), actual.getDensity().values());
+            assertEquals(expected.getTransportDelay().values(), actual.getTransportDelay().values());
+            for (var key : Bunker.PARAMETERS_NAMES) {
+                assertEquals(expected.getBunker().getValues(key), actual.getBunker().getValues(key));
+            }
+        }
+    }
+
+    @Test
+    void testSetCheckpoint_resumesBoundedHistory() throws IOException {
+        var file = directory.resolve("bounded.checkpoint");
+        var referenceSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        var referenceOutputFlows = new ArrayList<Double>();
+        referenceSystem.setTickListener((tau, conveyors) ->
+                referenceOutputFlows.add(conveyors.get(1).getOutputFlow().getOutputFlowAtTau(tau)));
+        run(referenceSystem, 0, 1500);
+
+        var stoppedSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        stoppedSystem.setHistorySink(HistorySink.DROP);
+        stoppedSystem.setCheckpoint(file, 100, false);
+        run(stoppedSystem, 0, 1250);
+        stoppedSystem.close();
+
+        var resumedConveyors = createConveyors();
+        var resumedSystem = new TransportSystem(resumedConveyors, RESEARCH_TAU, DELTA_TAU, null);
+        resumedSystem.setHistorySink(HistorySink.DROP);
+        var resumedOutputFlows = new ArrayList<Double>();
+        resumedSystem.setTickListener((tau, conveyors) ->
+                resumedOutputFlows.add(conveyors.get(1).getOutputFlow().getOutputFlowAtTau(tau)));
+        assertTrue(resumedSystem.setCheckpoint(file, 100, true));
+        assertTrue(resumedConveyors.get(1).getOutputFlow().values().size() < 200);
+        run(resumedSystem, 1155, 1500);
+        resumedSystem.close();
+
+        assertEquals(referenceOutputFlows.subList(1155, 1500), resumedOutputFlows);
+    }
+
+    @Test
+    void testSetCheckpoint_afterFirstTick() {
+        var transportSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        run(transportSystem, 0, 1);
+        var file = directory.resolve("late.checkpoint");
+
+        assertThrows(IllegalStateException.class, () -> transportSystem.setCheckpoint(file, 10, false));
+        assertThrows(IllegalArgumentException.class, () -> transportSystem.setCheckpoint(file, 0, false));
+    }
+
+    @Test
+    void testStep_missingInputFlowComputesNothing() {
+        var transportSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        var publishedTaus = new ArrayList<Double>();
+        transportSystem.setTickListener((tau, conveyors) -> publishedTaus.add(tau));
+        for (var id : List.of(1, 2)) {
+            transportSystem.offerSpeed(id, 0.0, 1.0);
+            transportSystem.offerSpeed(id, 0.01, 1.0);
+        }
+        transportSystem.offerInputFlow(1, 0.0, 1.0);
+
+        assertThrows(IllegalStateException.class, () -> transportSystem.step(2));
+        assertTrue(publishedTaus.isEmpty());
+
+        transportSystem.offerInputFlow(1, 0.01, 1.0);
+        assertEquals(2, transportSystem.step(2));
+        assertEquals(List.of(0.0, 0.01), publishedTaus);
+    }
+
+    @Test
+    void testOfferPlannedBunkerOutput() {
+        var conveyors = createConveyors();
+        var transportSystem = new TransportSystem(conveyors, RESEARCH_TAU, DELTA_TAU, null);
+
+        transportSystem.offerPlannedBunkerOutput(2, 0.0, 3.0);
+
+        assertEquals(3.0, conveyors.get(1).getBunkerOutputFlow().getValueAtTau(0.0));
+        assertThrows(IllegalArgumentException.class, () -> transportSystem.offerPlannedBunkerOutput(3, 0.0, 3.0));
+    }
+
+    @Test
+    void testAdvanceTo_withoutTimeAxis() {
+        var transportSystem = new TransportSystem(createConveyors(), "", "");
+
+        assertThrows(IllegalStateException.class, () -> transportSystem.advanceTo(1.0));
+    }
+
+    @Test
+    void testAdvanceTo_afterTheLastTick() {
+        var transportSystem = new TransportSystem(createConveyors(), RESEARCH_TAU, DELTA_TAU, null);
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        var lastTick = axis.size() - 1;
+
+        assertThrows(IllegalStateException.class, () -> transportSystem.advanceTo(axis.tauAt(lastTick) + DELTA_TAU));
+        assertThrows(IllegalStateException.class, () -> transportSystem.step(axis.size() + 1));
+
+        run(transportSystem, 0, axis.size());
+        assertEquals(0, transportSystem.advanceTo(axis.tauAt(lastTick)));
+        assertThrows(IllegalStateException.class, () -> transportSystem.step(1));
+    }
+
+    /**
+     * Offers the input samples of the ticks {@code [fromTick, toTick)} and computes them in steps of 7 ticks.
+     */
+    private static void run(TransportSystem transportSystem, int fromTick, int toTick) {
+        var axis = new TimeAxis(DELTA_TAU, RESEARCH_TAU);
+        for (int tick = fromTick; tick < toTick; tick++) {
+            var tau = axis.tauAt(tick);
+            transportSystem.offerInputFlow(1, tau, inputFlow(tick));
+            transportSystem.offerSpeed(1, tau, 1.0 + 0.5 * Math.cos(1 + tau));
+            transportSystem.offerSpeed(2, tau, 1.0 + 0.5 * Math.cos(2 + tau));
+            if ((tick - fromTick) % 7 == 6 || tick == toTick - 1) {
+                transportSystem.advanceTo(tau);
+            }
+        }
+    }
+
+    private static List<String> createColumn(int conveyorId, String name, Collection<Double> values) {
+        return CsvWriterP.createColumn(Constants.ColumnsNames.generateHeader(conveyorId, name), Locale.US, CELL_FORMAT,
+                values);
+    }
+
+    private static double inputFlow(int tick) {
+        return 2.0 + Math.sin(tick * DELTA_TAU * 5.0);
+    }
+
+    private static double speed(Conveyor conveyor, double tau) {
+        return 1.0 + 0.5 * Math.cos(conveyor.getId() + tau);
+    }
+
+    /**
+     * @return a feeder conveyor with id 1 and the conveyor with id 2 it feeds.
+     */
+    private static List<Conveyor> createConveyors() {
+        var feeder = createConveyor(1, 0.4);
+        var receiver = createConveyor(2, 0.6);
+        receiver.addInputConveyorFlow(1, Map.of());
+        feeder.addOutputConveyorFlow(2, Map.of());
+        return List.of(feeder, receiver);
+    }
+
+    private static Conveyor createConveyor(int id, double length) {
+        var initialDensity = new TreeMap<Double, Double>();
+        for (int i = 0; i <= 10; i++) {
+            initialDensity.put(i * length / 10.0, 0.5);
+        }
+        return new Conveyor(id, 0,
+                new Bunker(50.0, 0.0, 0.0, 100.0, 20.0, 80.0, 5.0),
+                new Density(10.0),
+                new Speed(0.0, 2.0, new TreeMap<>()),
+                new InputFlow(),
+                null,
+                new InitialDensity(initialDensity),
+                new ConveyorNode(Map.of()),
+                length);
+    }
+}
@@ -0,0 +1,47 @@
+package org.pom.engine;
+
+import org.junit.jupiter.api.Test;
+import org.pom.Conveyor;
+import org.pom.ConveyorNode;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConveyorSchedulerTest {
+
+    @Test
+    void testGetOrder_inputsComeFirst() {
+        var first = createConveyor(1);
+        var second = createConveyor(2, 1);
+        var third = createConveyor(3, 2, 1);
+        var scheduler = new ConveyorScheduler(List.of(third, second, first));
+
+        assertEquals(List.of(first, second, third), scheduler.getOrder());
+        assertSame(second, scheduler.getConveyorById(2));
+        assertNull(scheduler.getConveyorById(4));
+    }
+
+    @Test
+    void testConstructor_cycleIsRejected() {
+        var conveyors = List.of(createConveyor(1, 2), createConveyor(2, 1), createConveyor(3));
+
+        assertThrows(IllegalArgumentException.class, () -> new ConveyorScheduler(conveyors));
+    }
+
+    @Test
+    void testConstructor_unknownInputIsRejected() {
+        var conveyors = List.of(createConveyor(1, 5));
+
+        assertThrows(IllegalArgumentException.class, () -> new ConveyorScheduler(conveyors));
+    }
+
+    private static Conveyor createConveyor(int id, int... inputIds) {
+        var conveyor = new Conveyor(id, 0, null, null, null, null, null, null, new ConveyorNode(Map.of()), 1.0);
+        for (int inputId : inputIds) {
+            conveyor.addInputConveyorFlow(inputId, Map.of());
+        }
+        return conveyor;
+    }
+}
@@ -0,0 +1,40 @@
+package org.pom.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEngineTest {
+
+    @Test
+    void testStep_sameResultsAsSequentialRun() {
+        var taus = TestNetwork.taus(300);
+        var sequentialConveyors = TestNetwork.create(6, 3, taus);
+        var parallelConveyors = TestNetwork.create(6, 3, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var parallel = new ParallelEngine(new ConveyorScheduler(parallelConveyors), 4)) {
+            taus.forEach(parallel::step);
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(parallelConveyors));
+        assertEquals(300, parallelConveyors.get(0).getOutputFlow().values().size());
+    }
+
+    @Test
+    void testGetLevels() {
+        var scheduler = new ConveyorScheduler(TestNetwork.create(6, 3, TestNetwork.taus(1)));
+
+        assertEquals(5, scheduler.getLevels().size());
+        assertEquals(6, scheduler.getLevels().get(0).size());
+        assertEquals(7, scheduler.getLevels().get(1).get(0).getId());
+    }
+
+    @Test
+    void testConstructor_negativeThreads() {
+        var scheduler = new ConveyorScheduler(TestNetwork.create(1, 0, TestNetwork.taus(1)));
+
+        assertThrows(IllegalArgumentException.class, () -> new ParallelEngine(scheduler, -1));
+    }
+}
@@ -0,0 +1,98 @@
+package org.pom.engine;
+
+import org.junit.jupiter.api.Test;
+import org.pom.utils.series.TimeAxis;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PararealEngineTest {
+
+    @Test
+    void testAwait_zeroToleranceGivesSequentialResults() {
+        var taus = TestNetwork.taus(600);
+        var sequentialConveyors = TestNetwork.create(3, 2, taus);
+        var pararealConveyors = TestNetwork.create(3, 2, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var parareal = new PararealEngine(new ConveyorScheduler(pararealConveyors), 4, 6, 7, 0.0, 0)) {
+            taus.forEach(parareal::step);
+            parareal.await();
+
+            assertTrue(parareal.getIterations() <= 6);
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(pararealConveyors));
+    }
+
+    @Test
+    void testAwait_conveyorsOnATimeAxisGiveSequentialResults() {
+        var taus = TestNetwork.taus(300);
+        var timeAxis = new TimeAxis(TestNetwork.DELTA_TAU, taus.get(taus.size() - 1));
+        var sequentialConveyors = TestNetwork.create(2, 1, taus);
+        var pararealConveyors = TestNetwork.create(2, 1, taus);
+        sequentialConveyors.forEach(conveyor -> conveyor.setTimeAxis(timeAxis));
+        pararealConveyors.forEach(conveyor -> conveyor.setTimeAxis(timeAxis));
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var parareal = new PararealEngine(new ConveyorScheduler(pararealConveyors), 2, 4, 5, 0.0, 0)) {
+            taus.forEach(parareal::step);
+            parareal.await();
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(pararealConveyors));
+    }
+
+    @Test
+    void testAwait_continuesAfterEarlierTicks() {
+        var taus = TestNetwork.taus(400);
+        var sequentialConveyors = TestNetwork.create(2, 1, taus);
+        var pararealConveyors = TestNetwork.create(2, 1, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var parareal = new PararealEngine(new ConveyorScheduler(pararealConveyors), 2, 3, 5, 0.0, 0)) {
+            taus.subList(0, 150).forEach(parareal::step);
+            parareal.await();
+            taus.forEach(parareal::step);
+            parareal.await();
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(pararealConveyors));
+    }
+
+    @Test
+    void testAwait_toleranceLimitsDeviation() {
+        var taus = TestNetwork.taus(600);
+        var sequentialConveyors = TestNetwork.create(3, 2, taus);
+        var pararealConveyors = TestNetwork.create(3, 2, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var parareal = new PararealEngine(new ConveyorScheduler(pararealConveyors), 4, 6, 10, 1.0e-6, 0)) {
+            taus.forEach(parareal::step);
+            parareal.await();
+        }
+
+        var expected = TestNetwork.results(sequentialConveyors);
+        var actual = TestNetwork.results(pararealConveyors);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).size(), actual.get(i).size());
+            for (int j = 0; j < expected.get(i).size(); j++) {
+                assertEquals(expected.get(i).get(j), actual.get(i).get(j), 1.0e-3);
+            }
+        }
+    }
+
+    @Test
+    void testConstructor_negativeParameters() {
+        var scheduler = new ConveyorScheduler(TestNetwork.create(1, 0, List.of(0.0)));
+
+        assertThrows(IllegalArgumentException.class, () -> new PararealEngine(scheduler, 1, -1, 0, 0.0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PararealEngine(scheduler, 1, 0, 0, -1.0, 0));
+    }
+}
@@ -0,0 +1,73 @@
+package org.pom.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedEngineTest {
+
+    @Test
+    void testStep_sameResultsAsSequentialRun() {
+        var taus = TestNetwork.taus(300);
+        var sequentialConveyors = TestNetwork.create(4, 5, taus);
+        var pipelinedConveyors = TestNetwork.create(4, 5, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var pipelined = new PipelinedEngine(new ConveyorScheduler(pipelinedConveyors), 3, 1)) {
+            taus.forEach(pipelined::step);
+            pipelined.await();
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(pipelinedConveyors));
+    }
+
+    @Test
+    void testConstructor_serialChainSpansTheWorkers() {
+        var taus = TestNetwork.taus(300);
+        var sequentialConveyors = TestNetwork.create(1, 5, taus);
+        var pipelinedConveyors = TestNetwork.create(1, 5, taus);
+
+        var sequential = new ConveyorScheduler(sequentialConveyors);
+        taus.forEach(sequential::step);
+        try (var pipelined = new PipelinedEngine(new ConveyorScheduler(pipelinedConveyors), 3, 4)) {
+            for (int id = 1; id < 7; id++) {
+                assertEquals((id - 1) % 3, pipelined.getWorker(id));
+            }
+            taus.forEach(pipelined::step);
+            pipelined.await();
+        }
+
+        assertEquals(TestNetwork.results(sequentialConveyors), TestNetwork.results(pipelinedConveyors));
+    }
+
+    @Test
+    void testAwait_failureOnWorkerIsReported() {
+        var taus = TestNetwork.taus(10);
+        var conveyors = TestNetwork.create(2, 1, taus);
+        try (var pipelined = new PipelinedEngine(new ConveyorScheduler(conveyors), 2, 4)) {
+            pipelined.step(taus.get(0));
+            pipelined.step(1.0e6);
+
+            var exception = assertThrows(IllegalStateException.class, pipelined::await);
+            assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testQueue_offerAndPollInOrder() {
+        var queue = new SpscDoubleQueue(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4.0));
+        assertEquals(0.0, queue.poll());
+        assertTrue(queue.offer(Double.NaN));
+        assertEquals(1.0, queue.poll());
+        queue.poll();
+        queue.poll();
+        assertTrue(Double.isNaN(queue.poll()));
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package org.pom.engine;
+
+import org.pom.Bunker;
+import org.pom.Conveyor;
+import org.pom.ConveyorNode;
+import org.pom.Density;
+import org.pom.InitialDensity;
+import org.pom.InputFlow;
+import org.pom.Speed;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds a small transport system for the engine tests: feeder lines merging into a collector
+ * that feeds a serial chain of conveyors.
+ */
+class TestNetwork {
+    static final double DELTA_TAU = 0.01;
+
+    private TestNetwork() {
+    }
+
+    /**
+     * @return the snapshot of every computed series of the conveyors, in conveyor order.
+     */
+    static List<List<Double>> results(List<Conveyor> conveyors) {
+        var results = new ArrayList<List<Double>>();
+        conveyors.forEach(conveyor -> {
+            results.add(List.copyOf(conveyor.getInputFlow().values()));
+            Bunker.PARAMETERS_NAMES.forEach(key -> results.add(List.copyOf(conveyor.getBunker().getValues(key))));
+            results.add(List.copyOf(conveyor.getDensity().values()));
+            results.add(List.copyOf(conveyor.getOutputFlow().values()));
+            results.add(List.copyOf(conveyor.getTransportDelay().values()));
+        });
+        return results;
+    }
+
+    static List<Double> taus(int count) {
+        var taus = new ArrayList<Double>();
+        for (int i = 0; i < count; i++) {
+            taus.add(Double.parseDouble(String.format(Locale.US, "%.2f", i * DELTA_TAU)));
+        }
+        return taus;
+    }
+
+    /**
+     * @param feeders the number of feeder lines, with ids {@code 1..feeders}.
+     * @param chain   the number of conveyors after the collector.
+     * @param taus    the taus of the input data.
+     * @return the conveyors, listed from the end of the chain back to the feeders.
+     */
+    static List<Conveyor> create(int feeders, int chain, List<Double> taus) {
+        var conveyors = new ArrayList<Conveyor>();
+        for (int id = 1; id <= feeders; id++) {
+            var conveyor = createConveyor(id, taus, 0.5 + 0.1 * id);
+            for (int i = 0; i < taus.size(); i++) {
+                conveyor.getInputFlow().setValue(taus.get(i), 2.0 + Math.sin(id + i * DELTA_TAU * 7.0));
+            }
+            conveyors.add(conveyor);
+        }
+        var collector = createConveyor(feeders + 1, taus, 1.0);
+        for (int id = 1; id <= feeders; id++) {
+            collector.addInputConveyorFlow(id, Map.of());
+            conveyors.get(id - 1).addOutputConveyorFlow(feeders + 1, Map.of());
+        }
+        conveyors.add(collector);
+        for (int id = feeders + 2; id <= feeders + 1 + chain; id++) {
+            var conveyor = createConveyor(id, taus, 0.3);
+            conveyor.addInputConveyorFlow(id - 1, Map.of());
+            conveyors.add(conveyor);
+        }
+        Collections.reverse(conveyors);
+        return conveyors;
+    }
+
+    private static Conveyor createConveyor(int id, List<Double> taus, double length) {
+        var speeds = new TreeMap<Double, Double>();
+        taus.forEach(tau -> speeds.put(tau, 1.0 + 0.5 * Math.cos(id + tau)));
+        var initialDensity = new TreeMap<Double, Double>();
+        for (int i = 0; i <= 100; i++) {
+            initialDensity.put(i * length / 100.0, 0.5);
+        }
+        return new Conveyor(id, 0,
+                new Bunker(50.0, 0.0, 0.0, 100.0, 20.0, 80.0, 5.0),
+                new Density(10.0),
+                new Speed(0.0, 2.0, speeds),
+                new InputFlow(),
+                null,
+                new InitialDensity(initialDensity),
+                new ConveyorNode(Map.of()),
+                length);
+    }
+}
@@ -0,0 +1,52 @@
+package org.pom.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointFormatterTest {
+
+    @Test
+    void testFormat_sameAsStringFormat() {
+        var random = new Random(7);
+        for (var locale : List.of(Locale.US, Locale.GERMANY)) {
+            for (var cellFormat : List.of("%8.5f", "%12.1f", "%.3f", "%6.0f", "%f", "%3.9f")) {
+                var formatter = FixedPointFormatter.compile(cellFormat, locale);
+                for (int i = 0; i < 20_000; i++) {
+                    var value = (random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(14) - 6);
+                    assertEquals(String.format(locale, cellFormat, value), formatter.format(value), cellFormat);
+                }
+                for (var value : List.of(0.0, -0.0, 0.5, 1.5, -2.5, 0.125, 0.015, 0.000005, 1.0e-9, -1.0e-9,
+                        1.0e12, 123456789.123456789, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN,
+                        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY)) {
+                    assertEquals(String.format(locale, cellFormat, value), formatter.format(value),
+                            cellFormat + " " + value);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFormat_appendsToBuilder() {
+        var formatter = FixedPointFormatter.compile("%8.5f", Locale.US);
+        var target = new StringBuilder("tau;");
+
+        formatter.format(0.01, target);
+        target.append(';');
+        formatter.format(-12.345678, target);
+
+        assertEquals("tau; 0.01000;-12.34568", target.toString());
+    }
+
+    @Test
+    void testFormat_otherFormats() {
+        for (var cellFormat : List.of("%08.3f", "%-9.2f", "%,12.2f", "%+8.5f", "%e")) {
+            var formatter = FixedPointFormatter.compile(cellFormat, Locale.US);
+            assertEquals(String.format(Locale.US, cellFormat, -1234.5678), formatter.format(-1234.5678), cellFormat);
+        }
+    }
+}
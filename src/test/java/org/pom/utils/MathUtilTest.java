@@ -1,6 +1,8 @@
 package org.pom.utils;
 
 import org.junit.jupiter.api.Test;
+import org.pom.utils.series.DoubleSeries;
+
 import static org.junit.jupiter.api.Assertions.*;
 import java.util.TreeMap;
 
@@ -59,4 +61,28 @@ public class MathUtilTest {
         Double result = MathUtil.getValueByKey(treeMap, 2.5);
         assertEquals(4.0, result, "Expected closest key to 2.5 to be 3.0");
     }
+
+    @Test
+    public void testSeriesTauOutOfRange() {
+        DoubleSeries series = new DoubleSeries();
+        series.put(1.0, 1.0);
+        series.put(3.0, 3.0);
+
+        IllegalArgumentException thrown = assertThrows(
+                IllegalArgumentException.class, () -> MathUtil.getValueByKey(series, 4.0)
+        );
+
+        assertTrue(thrown.getMessage().contains("The specified key value 4.0 must lie between the minimum 1.0  and maximum 3.0 keys in the map."));
+    }
+
+    @Test
+    public void testSeriesTauWithinRange() {
+        DoubleSeries series = new DoubleSeries();
+        series.put(1.0, 1.0);
+        series.put(2.0, 2.0);
+        series.put(3.0, 4.0);
+
+        assertEquals(2.0, MathUtil.getValueByKey(series, 2.0));
+        assertEquals(4.0, MathUtil.getValueByKey(series, 2.5), "Expected closest key to 2.5 to be 3.0");
+    }
 }
@@ -0,0 +1,60 @@
+package org.pom.utils.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelinedOutputStreamTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testGzip_compressesTheWrittenBytes() throws IOException {
+        var file = directory.resolve("results").resolve("output.csv.gz");
+        var expected = new ByteArrayOutputStream();
+        try (var output = PipelinedOutputStream.gzip(file, 6)) {
+            for (int row = 0; row < 100_000; row++) {
+                var line = String.format("%8.5f;%8.5f\r\n", row * 0.01, Math.sin(row * 0.01)).getBytes();
+                output.write(line);
+                expected.write(line);
+                if (row == 50_000) {
+                    output.flush();
+                }
+            }
+            output.write('#');
+            expected.write('#');
+        }
+
+        try (var input = new GZIPInputStream(Files.newInputStream(file))) {
+            assertArrayEquals(expected.toByteArray(), input.readAllBytes());
+        }
+        assertTrue(Files.size(file) < expected.size() / 2);
+        assertThrows(IllegalArgumentException.class, () -> PipelinedOutputStream.gzip(file, 10));
+    }
+
+    @Test
+    void testWrite_errorOfTheThread() {
+        var output = new PipelinedOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+        }, "failing");
+
+        assertThrows(IOException.class, () -> {
+            for (int i = 0; i <= (PipelinedOutputStream.PENDING_CHUNKS + 2) * PipelinedOutputStream.CHUNK_SIZE; i++) {
+                output.write(i);
+            }
+        });
+        assertThrows(IOException.class, output::close);
+    }
+}
@@ -0,0 +1,83 @@
+package org.pom.utils.io.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarFileWriterTest {
+    private static final int ROWS = 3 * ColumnarFileWriter.BLOCK_ROWS + 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testClose_columnsAreContiguous() throws IOException {
+        var file = directory.resolve("results.bin");
+        var names = List.of("tau", "1.outputFlow", "2.bunker-capacity");
+        try (var writer = new ColumnarFileWriter(file, names, 10)) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.writeRow(new double[]{row * 0.01, row, -row});
+            }
+            assertEquals(ROWS, writer.getRowCount());
+        }
+
+        try (var reader = new ColumnarFileReader(file)) {
+            assertEquals(names, reader.getColumnNames());
+            assertEquals(ROWS, reader.getRowCount());
+            var header = Files.size(file) - 3L * ROWS * Double.BYTES;
+            assertEquals(0, header % Double.BYTES);
+            var flows = reader.column("1.outputFlow");
+            var negated = reader.column(2);
+            for (int row = 0; row < ROWS; row++) {
+                assertEquals(row, flows.get(row));
+                assertEquals(-row, negated.get(row));
+            }
+            assertTrue(flows.isReadOnly());
+            assertThrows(IllegalArgumentException.class, () -> reader.column("speed"));
+        }
+    }
+
+    @Test
+    void testColumn_rowsOfKeyRange() throws IOException {
+        var file = directory.resolve("results.bin");
+        try (var writer = new ColumnarFileWriter(file, List.of("tau", "value"), ROWS)) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.writeRow(new double[]{row * 0.5, 2.0 * row});
+            }
+        }
+
+        try (var reader = new ColumnarFileReader(file)) {
+            var values = reader.column("value", 10.0, 12.2);
+            assertEquals(5, values.remaining());
+            assertEquals(40.0, values.get(0));
+            assertEquals(48.0, values.get(4));
+            assertEquals(0, reader.column("value", -5.0, -1.0).remaining());
+            assertEquals(ROWS, reader.column("value", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY).remaining());
+            assertEquals(20, reader.ceilingRow(9.7));
+            assertEquals(ROWS, reader.higherRow(ROWS));
+        }
+    }
+
+    @Test
+    void testFlush_rowsOfAnUnclosedFileCanBeRead() throws IOException {
+        var file = directory.resolve("results.bin");
+        try (var writer = new ColumnarFileWriter(file, List.of("tau", "value"), 0)) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.writeRow(new double[]{row, row});
+            }
+            writer.flush();
+
+            try (var reader = new ColumnarFileReader(file)) {
+                assertEquals(ROWS, reader.getRowCount());
+                assertEquals(ROWS - 1, reader.column("value").get(ROWS - 1));
+            }
+            assertThrows(IllegalArgumentException.class, () -> writer.writeRow(new double[]{1.0}));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.pom.utils.io.binary;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedColumnarFileWriterTest {
+    private static final int ROWS = 3 * CompressedColumnarFileWriter.BLOCK_ROWS + 5;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testClose_columnsAreReadBack() throws IOException {
+        var file = directory.resolve("results.binz");
+        var names = List.of("tau", "1.outputFlow", "1.conveyorNode.2");
+        try (var writer = new CompressedColumnarFileWriter(file, names, 6)) {
+            for (int row = 0; row < ROWS; row++) {
+                writer.writeRow(new double[]{row * 0.01, Math.sin(row * 0.01), row % 3 == 0 ? Double.NaN : -row});
+                if (row == 100) {
+                    writer.flush();
+                }
+            }
+            assertEquals(ROWS, writer.getRowCount());
+        }
+
+        var reader = new CompressedColumnarFileReader(file);
+        assertEquals(names, reader.getColumnNames());
+        assertEquals(ROWS, reader.getRowCount());
+        var taus = reader.column("tau");
+        var flows = reader.column("1.outputFlow");
+        var coefficients = reader.column("1.conveyorNode.2");
+        for (int row = 0; row < ROWS; row++) {
+            assertEquals(row * 0.01, taus[row]);
+            assertEquals(Math.sin(row * 0.01), flows[row]);
+            assertEquals(row % 3 == 0 ? Double.NaN : -row, coefficients[row]);
+        }
+        assertTrue(Files.size(file) < 3L * ROWS * Double.BYTES / 2);
+        assertThrows(IllegalArgumentException.class, () -> reader.column("speed"));
+    }
+
+    @Test
+    void testReader_notACompressedFile() throws IOException {
+        var file = directory.resolve("results.bin");
+        try (var writer = new ColumnarFileWriter(file, List.of("tau"), 10)) {
+            writer.writeRow(new double[]{0.0});
+        }
+
+        assertThrows(IllegalStateException.class, () -> new CompressedColumnarFileReader(file));
+    }
+}
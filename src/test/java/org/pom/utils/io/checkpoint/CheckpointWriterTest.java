@@ -0,0 +1,163 @@
+package org.pom.utils.io.checkpoint;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pom.utils.series.ColumnarSeries;
+import org.pom.utils.series.DoubleSeries;
+import org.pom.utils.series.TimeAxis;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointWriterTest {
+    private static final TimeAxis TIME_AXIS = new TimeAxis(0.01, 10.0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteChanges_restoresSeriesFromIncrementalCheckpoints() throws IOException {
+        var file = directory.resolve("series.checkpoint");
+        var ticks = tickSeries(0, 20);
+        var distances = DoubleSeries.of(List.of(0.0, 0.5, 1.5), List.of(0.0, 0.01, 0.02));
+        var table = new ColumnarSeries(2);
+        table.setTimeAxis(TIME_AXIS);
+        putRow(table, 0.0, 1.0, 2.0);
+
+        try (var writer = new CheckpointWriter(file, TIME_AXIS.getDeltaTau(), false)) {
+            writeSegment(writer, 0.19, ticks, distances, table);
+            assertEquals(20, ticks.firstChangedRow());
+
+            ticks.put(TIME_AXIS.tauAt(20), 20.0);
+            ticks.setValueAt(19, -19.0);
+            ticks.removeBefore(TIME_AXIS.tauAt(5));
+            distances.put(2.5, 0.03);
+            putRow(table, 0.01, 3.0, 4.0);
+            table.set(1, 0, 5.0);
+            writeSegment(writer, 0.2, ticks, distances, table);
+        }
+
+        var restoredTicks = tickSeries(0, 0);
+        var restoredDistances = new DoubleSeries();
+        var restoredTable = new ColumnarSeries(2);
+        try (var reader = new CheckpointReader(file)) {
+            assertTrue(reader.nextSegment());
+            assertEquals(0.19, reader.getTau());
+            readSegment(reader, restoredTicks, restoredDistances, restoredTable);
+            assertTrue(reader.nextSegment());
+            assertEquals(0.2, reader.getTau());
+            readSegment(reader, restoredTicks, restoredDistances, restoredTable);
+            assertFalse(reader.nextSegment());
+        }
+
+        assertEquals(ticks.keys(), restoredTicks.keys());
+        assertEquals(ticks.values(), restoredTicks.values());
+        assertTrue(restoredTicks.isTickIndexed());
+        assertEquals(restoredTicks.size(), restoredTicks.firstChangedRow());
+        assertEquals(distances.keys(), restoredDistances.keys());
+        assertEquals(distances.values(), restoredDistances.values());
+        assertEquals(table.keys(), restoredTable.keys());
+        assertEquals(table.column(0), restoredTable.column(0));
+        assertEquals(table.column(1), restoredTable.column(1));
+    }
+
+    @Test
+    void testClose_truncatesTheFileToTheCommittedLength() throws IOException {
+        var file = directory.resolve("truncated.checkpoint");
+        var ticks = tickSeries(0, 20);
+        try (var writer = new CheckpointWriter(file, TIME_AXIS.getDeltaTau(), false)) {
+            writeSegment(writer, 0.19, ticks, new DoubleSeries(), new ColumnarSeries(2));
+            assertTrue(Files.size(file) >= CheckpointWriter.WINDOW_SIZE);
+        }
+        var committedSize = Files.size(file);
+        assertTrue(committedSize < 1024);
+
+        ticks.put(TIME_AXIS.tauAt(20), 20.0);
+        try (var writer = new CheckpointWriter(file, TIME_AXIS.getDeltaTau(), true)) {
+            writeSegment(writer, 0.2, ticks, new DoubleSeries(), new ColumnarSeries(2));
+            writer.beginSegment(0.21);
+            writer.writeInt(1);
+        }
+        assertTrue(Files.size(file) > committedSize);
+        assertTrue(Files.size(file) < 2 * committedSize);
+        try (var reader = new CheckpointReader(file)) {
+            assertTrue(reader.nextSegment());
+            assertTrue(reader.nextSegment());
+            assertEquals(0.2, reader.getTau());
+            assertFalse(reader.nextSegment());
+        }
+    }
+
+    @Test
+    void testNextSegment_ignoresUncommittedCheckpoint() throws IOException {
+        var file = directory.resolve("uncommitted.checkpoint");
+        var series = tickSeries(0, 3);
+        try (var writer = new CheckpointWriter(file, TIME_AXIS.getDeltaTau(), false)) {
+            writer.beginSegment(0.02);
+            writer.writeChanges(series);
+            writer.commit();
+            series.put(TIME_AXIS.tauAt(3), 3.0);
+            writer.beginSegment(0.03);
+            writer.writeChanges(series);
+        }
+        try (var writer = new CheckpointWriter(file, TIME_AXIS.getDeltaTau(), true)) {
+            assertThrows(IllegalStateException.class, () -> writer.writeInt(1));
+        }
+
+        var restored = tickSeries(0, 0);
+        try (var reader = new CheckpointReader(file)) {
+            assertTrue(reader.nextSegment());
+            reader.readChanges(restored);
+            assertFalse(reader.nextSegment());
+        }
+        assertEquals(List.of(0.0, 1.0, 2.0), restored.values());
+    }
+
+    @Test
+    void testConstructor_appendRejectsAnotherTimeAxis() throws IOException {
+        var file = directory.resolve("axis.checkpoint");
+        new CheckpointWriter(file, 0.01, false).close();
+
+        assertThrows(IllegalStateException.class, () -> new CheckpointWriter(file, 0.02, true));
+        new CheckpointWriter(file, 0.02, false).close();
+        try (var reader = new CheckpointReader(file)) {
+            assertEquals(0.02, reader.getDeltaTau());
+            assertFalse(reader.nextSegment());
+        }
+    }
+
+    private static DoubleSeries tickSeries(int fromTick, int toTick) {
+        var series = new DoubleSeries();
+        series.setTimeAxis(TIME_AXIS);
+        for (int tick = fromTick; tick < toTick; tick++) {
+            series.put(TIME_AXIS.tauAt(tick), tick);
+        }
+        return series;
+    }
+
+    private static void putRow(ColumnarSeries table, double key, double first, double second) {
+        var row = table.row(key);
+        table.set(0, row, first);
+        table.set(1, row, second);
+    }
+
+    private static void writeSegment(CheckpointWriter writer, double tau, DoubleSeries ticks, DoubleSeries distances,
+                                     ColumnarSeries table) {
+        writer.beginSegment(tau);
+        writer.writeChanges(ticks);
+        writer.writeChanges(distances, 1);
+        writer.writeChanges(table);
+        writer.commit();
+    }
+
+    private static void readSegment(CheckpointReader reader, DoubleSeries ticks, DoubleSeries distances,
+                                    ColumnarSeries table) {
+        reader.readChanges(ticks);
+        reader.readChanges(distances, 1);
+        reader.readChanges(table);
+    }
+}
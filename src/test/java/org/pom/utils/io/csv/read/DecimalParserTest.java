@@ -0,0 +1,58 @@
+package org.pom.utils.io.csv.read;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecimalParserTest {
+
+    @Test
+    void testParse_sameAsNumberFormat() throws ParseException {
+        var random = new Random(11);
+        for (var locale : List.of(Locale.US, Locale.GERMANY)) {
+            var parser = new DecimalParser(locale);
+            var format = NumberFormat.getInstance(locale);
+            format.setGroupingUsed(false);
+            format.setMaximumFractionDigits(random.nextInt(20));
+            for (int i = 0; i < 50_000; i++) {
+                format.setMaximumFractionDigits(random.nextInt(20));
+                var text = format.format((random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(20) - 8));
+                assertParsed(parser, locale, text);
+            }
+            var separator = locale == Locale.US ? "." : ",";
+            for (var text : List.of("0", "-0", "-0" + separator + "0", "00012" + separator + "50", "-" + separator + "5",
+                    "5" + separator, "1" + separator + "2" + separator + "3", "1E3", "1.234,5", "1,234.5", "12abc",
+                    "0" + separator + "1234567890123456789", "123456789012345678901234",
+                    "0" + separator + "00000000000000000000000001", "NaN")) {
+                assertParsed(parser, locale, text);
+            }
+        }
+    }
+
+    @Test
+    void testParse_range() {
+        var parser = new DecimalParser(Locale.US);
+
+        assertEquals(-2.25, parser.parse("1;-2.25;3", 2, 7));
+        assertEquals(-2.25, parser.parse(ByteBuffer.wrap("1;-2.25;3".getBytes(StandardCharsets.US_ASCII)), 2, 7));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("abc", 0, 3));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("-", 0, 1));
+    }
+
+    private static void assertParsed(DecimalParser parser, Locale locale, String text) throws ParseException {
+        var expected = NumberFormat.getInstance(locale).parse(text).doubleValue();
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(parser.parse(text, 0, text.length())),
+                text);
+        var bytes = ByteBuffer.wrap(("; " + text + " ;").getBytes(StandardCharsets.UTF_8));
+        assertEquals(Double.doubleToLongBits(expected),
+                Double.doubleToLongBits(parser.parse(bytes, 2, bytes.limit() - 2)), text);
+    }
+}
@@ -0,0 +1,77 @@
+package org.pom.utils.io.csv.read;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InitDataTableTest {
+    private static final int ROWS = 50_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRead_columnsByHeader() throws IOException {
+        var file = directory.resolve("initData.csv");
+        var text = new StringBuilder("     ksi;     tau; \"1.speed\";1.inputFlow;     tau\r\n");
+        for (int row = 0; row < ROWS; row++) {
+            text.append(row < 3 ? String.format(Locale.US, "%8.5f", row * 0.1) : "        ")
+                    .append(';').append(String.format(Locale.US, "%8.5f", row * 0.01))
+                    .append(';').append(row % 2 == 0 ? "\"2.5\"" : "  ")
+                    .append(';').append(-row)
+                    .append(';').append(-1.0)
+                    .append("\r\n");
+        }
+        text.append("\r\n");
+        Files.writeString(file, text);
+        assertTrue(Files.size(file) > 1 << 20, "the file is read in several chunks");
+
+        var table = InitDataTable.read(file, ';', Locale.US);
+
+        assertArrayEquals(new double[]{0.0, 0.1, 0.2}, table.getColumn("ksi"));
+        var taus = table.getColumn("tau");
+        assertEquals(ROWS, taus.length);
+        assertEquals(0.01 * (ROWS - 1), taus[ROWS - 1], 1e-9);
+        var speeds = table.getColumn("1.speed");
+        assertEquals(ROWS / 2, speeds.length);
+        assertEquals(2.5, speeds[ROWS / 2 - 1]);
+        var inputFlows = table.getColumn("1.inputFlow");
+        for (int row = 0; row < ROWS; row++) {
+            assertEquals(-row, inputFlows[row]);
+        }
+        assertNull(table.getColumn("2.speed"));
+    }
+
+    @Test
+    void testRead_notANumber() throws IOException {
+        var file = directory.resolve("initData.csv");
+        Files.writeString(file, "tau;1.speed\n0.0;fast\n");
+
+        assertThrows(IllegalArgumentException.class, () -> InitDataTable.read(file, ';', Locale.US));
+    }
+
+    @Test
+    void testRead_lastLineWithoutLineEnd() throws IOException {
+        var file = directory.resolve("initData.csv");
+        Files.writeString(file, "tau;1.speed\n0,5;1\n1,5;-2,25");
+
+        var table = InitDataTable.read(file, ';', Locale.GERMANY);
+
+        assertArrayEquals(new double[]{0.5, 1.5}, table.getColumn("tau"));
+        assertArrayEquals(new double[]{1.0, -2.25}, table.getColumn("1.speed"));
+    }
+
+    @Test
+    void testRead_emptyFile() throws IOException {
+        var file = directory.resolve("initData.csv");
+        Files.writeString(file, "");
+
+        assertNull(InitDataTable.read(file, ';', Locale.US).getColumn("tau"));
+    }
+}
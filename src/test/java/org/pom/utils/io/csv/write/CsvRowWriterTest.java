@@ -0,0 +1,101 @@
+package org.pom.utils.io.csv.write;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pom.utils.MathUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowWriterTest {
+    private static final String CELL_FORMAT = "%8.5f";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEndRow_writesTheLayoutOfCreatedColumns() throws IOException {
+        var file = directory.resolve("results").resolve("output.csv");
+        var taus = List.of(0.0, 0.01, 0.02);
+        var capacities = List.of(50.0, 49.123456, -1234.5);
+        var flows = List.of(1.5);
+
+        try (var writer = new CsvRowWriter(file, ';', Locale.US, CELL_FORMAT,
+                List.of("tau", "1.bunker-capacity", "2.outputFlow"))) {
+            for (int row = 0; row < taus.size(); row++) {
+                writer.appendValue(taus.get(row));
+                writer.appendValue(capacities.get(row));
+                if (row < flows.size()) {
+                    writer.appendValue(flows.get(row));
+                } else {
+                    writer.appendEmpty();
+                }
+                writer.endRow();
+            }
+        }
+
+        var table = MathUtil.transposeMatrix(List.of(
+                CsvWriterP.createColumn("tau", Locale.US, CELL_FORMAT, taus),
+                CsvWriterP.createColumn("1.bunker-capacity", Locale.US, CELL_FORMAT, capacities),
+                CsvWriterP.createColumn("2.outputFlow", Locale.US, CELL_FORMAT, flows)
+        ), " "::repeat);
+        var expected = table.stream()
+                .map(row -> String.join(";", row) + "\r\n")
+                .collect(Collectors.joining());
+        assertEquals(expected, Files.readString(file));
+    }
+
+    @Test
+    void testWriteRows_concurrentBlocksGiveTheSameFile() throws IOException {
+        var headers = List.of("tau", "1.bunker-capacity", "2.outputFlow");
+        var rows = 5 * CsvRowWriter.BLOCK_ROWS + 17;
+        var values = new double[rows * headers.size()];
+        var present = new boolean[rows * headers.size()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = index % 7 == 0 ? -123456.789 * index : Math.sin(index) * 100.0;
+            present[index] = index % 11 != 0;
+        }
+        var sequentialFile = directory.resolve("sequential.csv");
+        try (var writer = new CsvRowWriter(sequentialFile, ';', Locale.US, CELL_FORMAT, headers)) {
+            for (int index = 0; index < values.length; index++) {
+                if (present[index]) {
+                    writer.appendValue(values[index]);
+                } else {
+                    writer.appendEmpty();
+                }
+                if (index % headers.size() == headers.size() - 1) {
+                    writer.endRow();
+                }
+            }
+        }
+
+        var concurrentFile = directory.resolve("concurrent.csv");
+        var pool = new ForkJoinPool(4);
+        try (var writer = new CsvRowWriter(concurrentFile, ';', Locale.US, CELL_FORMAT, headers)) {
+            writer.writeRows(values, present, rows, pool);
+            assertEquals(Files.size(sequentialFile), writer.getWrittenChars());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(Files.readString(sequentialFile), Files.readString(concurrentFile));
+    }
+
+    @Test
+    void testEndRow_incompleteRow() throws IOException {
+        try (var writer = new CsvRowWriter(directory.resolve("output.csv"), ';', Locale.US, CELL_FORMAT,
+                List.of("tau", "1.speed"))) {
+            writer.appendValue(0.0);
+            assertThrows(IllegalStateException.class, writer::endRow);
+            writer.appendValue(1.0);
+            assertThrows(IllegalStateException.class, () -> writer.appendValue(2.0));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.pom.utils.io.npy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NpyWriterTest {
+    private static final int LENGTH = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testClose_writesNpyArray() throws IOException {
+        var file = directory.resolve("1.outputFlow.npy");
+        try (var writer = new NpyWriter(file)) {
+            for (int i = 0; i < LENGTH; i++) {
+                writer.write(i * 0.5);
+            }
+            assertEquals(LENGTH, writer.getLength());
+        }
+
+        assertArray(Files.readAllBytes(file), LENGTH, 0.5);
+    }
+
+    @Test
+    void testFlush_updatesShape() throws IOException {
+        var file = directory.resolve("tau.npy");
+        try (var writer = new NpyWriter(file)) {
+            writer.write(0.0);
+            writer.write(1.0);
+            writer.flush();
+
+            assertArray(Files.readAllBytes(file), 2, 1.0);
+        }
+    }
+
+    @Test
+    void testClose_writesUncompressedNpz() throws IOException {
+        var archive = directory.resolve("output.npz");
+        var names = List.of("tau", "1.conveyorNode.2");
+        try (var writer = new NpzWriter(archive, names)) {
+            for (int i = 0; i < LENGTH; i++) {
+                writer.writeRow(new double[]{i * 0.01, i * 2.0});
+            }
+        }
+
+        try (var zip = new ZipFile(archive.toFile())) {
+            var entryNames = new ArrayList<String>();
+            zip.stream().forEach(entry -> entryNames.add(entry.getName()));
+            assertEquals(List.of("tau.npy", "1.conveyorNode.2.npy"), entryNames);
+            var entry = zip.getEntry("1.conveyorNode.2.npy");
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            try (var input = zip.getInputStream(entry)) {
+                assertArray(input.readAllBytes(), LENGTH, 2.0);
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(archive), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testClose_writesCompressedNpz() throws IOException {
+        var archive = directory.resolve("output.npz");
+        try (var writer = new NpzWriter(archive, List.of("tau"), 6)) {
+            for (int i = 0; i < LENGTH; i++) {
+                writer.writeRow(new double[]{i * 0.5});
+            }
+        }
+
+        try (var zip = new ZipFile(archive.toFile())) {
+            var entry = zip.getEntry("tau.npy");
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            assertTrue(entry.getCompressedSize() < entry.getSize());
+            try (var input = zip.getInputStream(entry)) {
+                assertArray(input.readAllBytes(), LENGTH, 0.5);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new NpzWriter(directory.resolve("invalid.npz"),
+                List.of("tau"), 10));
+    }
+
+    /**
+     * Checks an {@code .npy} file holding {@code i * step} at every index {@code i}.
+     */
+    private static void assertArray(byte[] bytes, int length, double step) {
+        var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals((byte) 0x93, buffer.get(0));
+        assertEquals("NUMPY", new String(bytes, 1, 5, StandardCharsets.US_ASCII));
+        var headerLength = Short.toUnsignedInt(buffer.getShort(8));
+        var dataOffset = 10 + headerLength;
+        assertEquals(0, dataOffset % 64);
+        var header = new String(bytes, 10, headerLength, StandardCharsets.US_ASCII);
+        assertEquals("{'descr': '<f8', 'fortran_order': False, 'shape': (" + length + ",), }", header.trim());
+        assertTrue(header.endsWith("\n"));
+        assertEquals(dataOffset + (long) length * Double.BYTES, bytes.length);
+        for (int i = 0; i < length; i++) {
+            assertEquals(i * step, buffer.getDouble(dataOffset + i * Double.BYTES));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.pom.utils.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarSeriesTest {
+
+    @Test
+    void testRow_appendsReusesAndInsertsRows() {
+        var series = new ColumnarSeries(2, 1);
+        var first = series.row(1.0);
+        series.set(0, first, 10.0);
+        var second = series.row(3.0);
+        series.set(0, second, 30.0);
+
+        assertEquals(first, series.row(1.0));
+        var inserted = series.row(2.0);
+        series.set(1, inserted, 2.0);
+
+        assertEquals(3, series.size());
+        assertEquals(List.of(10.0, 0.0, 30.0), series.column(0));
+        assertEquals(List.of(0.0, 2.0, 0.0), series.column(1));
+    }
+
+    @Test
+    void testColumnViewFollowsUpdates() {
+        var series = new ColumnarSeries(1);
+        var column = series.column(0);
+        series.set(0, series.row(0.0), 5.0);
+        series.set(0, series.row(1.0), 6.0);
+
+        assertEquals(List.of(5.0, 6.0), column);
+        assertEquals(1, series.ceilingIndex(0.5));
+        assertEquals(-1, series.indexOf(0.5));
+    }
+}
@@ -0,0 +1,162 @@
+package org.pom.utils.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleSeriesTest {
+
+    @Test
+    void testPut_appendsAndKeepsKeysSorted() {
+        var series = new DoubleSeries(2);
+        series.put(1.0, 10.0);
+        series.put(3.0, 30.0);
+        series.put(2.0, 20.0);
+        series.put(0.0, 0.0);
+
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0), series.keys());
+        assertEquals(List.of(0.0, 10.0, 20.0, 30.0), series.values());
+    }
+
+    @Test
+    void testPut_overwritesExistingKey() {
+        var series = new DoubleSeries();
+        series.put(1.0, 10.0);
+        series.put(2.0, 20.0);
+        series.put(1.0, 15.0);
+        series.put(2.0, 25.0);
+
+        assertEquals(2, series.size());
+        assertEquals(15.0, series.valueAt(0));
+        assertEquals(25.0, series.lastValue());
+    }
+
+    @Test
+    void testIndexOfAndCeilingIndex() {
+        var series = DoubleSeries.of(new TreeMap<>(Map.of(1.0, 1.0, 2.0, 2.0, 3.0, 4.0)));
+
+        assertEquals(1, series.indexOf(2.0));
+        assertEquals(-1, series.indexOf(2.5));
+        assertEquals(2, series.ceilingIndex(2.5));
+        assertEquals(0, series.ceilingIndex(0.5));
+        assertEquals(-1, series.ceilingIndex(3.5));
+    }
+
+    @Test
+    void testViewsFollowUpdates() {
+        var series = new DoubleSeries();
+        var values = series.values();
+        series.put(1.0, 1.0);
+        series.put(2.0, 2.0);
+
+        assertEquals(2, values.size());
+        assertThrows(UnsupportedOperationException.class, () -> values.add(3.0));
+    }
+
+    @Test
+    void testSetTimeAxis_indexesGridTausByTick() {
+        var series = new DoubleSeries();
+        series.setTimeAxis(new TimeAxis(0.01, 1.0));
+        for (int i = 0; i < 10; i++) {
+            series.put(Double.parseDouble("0.0" + i), i);
+        }
+
+        assertTrue(series.isTickIndexed());
+        assertEquals(3, series.indexOf(0.03));
+        assertEquals(3.0, series.valueAt(series.indexOf(0.03)));
+        assertEquals(4, series.ceilingIndex(0.035));
+        assertEquals(-1, series.ceilingIndex(0.2));
+        assertEquals(0.09, series.lastKey());
+    }
+
+    @Test
+    void testSetTimeAxis_accumulatedTausKeepExplicitKeys() {
+        var series = new DoubleSeries();
+        series.setTimeAxis(new TimeAxis(0.1, 1.0));
+        var tau = 0.0;
+        for (int i = 0; i < 4; i++) {
+            series.put(tau, i);
+            tau += 0.1;
+        }
+
+        assertFalse(series.isTickIndexed());
+        assertEquals(3, series.indexOf(0.1 + 0.1 + 0.1));
+        assertEquals(-1, series.indexOf(0.3));
+        assertEquals(3, series.ceilingIndex(0.3));
+    }
+
+    @Test
+    void testSetTimeAxis_offGridKeySwitchesToExplicitKeys() {
+        var series = DoubleSeries.of(List.of(0.0, 0.1, 0.2), List.of(1.0, 2.0, 3.0));
+        series.setTimeAxis(new TimeAxis(0.1, 1.0));
+        assertTrue(series.isTickIndexed());
+
+        series.put(0.15, 2.5);
+
+        assertFalse(series.isTickIndexed());
+        assertEquals(List.of(1.0, 2.0, 2.5, 3.0), series.values());
+        assertEquals(2, series.indexOf(0.15));
+        assertEquals(3, series.indexOf(0.2));
+    }
+
+    @Test
+    void testRemoveBefore_keepsTickIndexing() {
+        var series = new DoubleSeries();
+        series.setTimeAxis(new TimeAxis(0.01, 1.0));
+        for (int i = 0; i < 10; i++) {
+            series.put(Double.parseDouble("0.0" + i), i);
+        }
+
+        assertEquals(4, series.removeBefore(0.035));
+
+        assertTrue(series.isTickIndexed());
+        assertEquals(0.04, series.firstKey());
+        assertEquals(List.of(4.0, 5.0, 6.0, 7.0, 8.0, 9.0), series.values());
+        assertEquals(1, series.indexOf(0.05));
+        series.put(0.10, 10.0);
+        assertTrue(series.isTickIndexed());
+        assertEquals(10.0, series.lastValue());
+    }
+
+    @Test
+    void testCeilingIndex_seriesLongerThanTheTimeAxis() {
+        var series = new DoubleSeries();
+        series.setTimeAxis(new TimeAxis(0.01, 0.05));
+        var explicit = new DoubleSeries();
+        for (int i = 0; i <= 10; i++) {
+            series.put(i / 100.0, i);
+            explicit.put(i / 100.0, i);
+        }
+
+        assertTrue(series.isTickIndexed());
+        assertEquals(9, series.ceilingIndex(0.0805));
+        assertEquals(explicit.ceilingIndex(0.0805), series.ceilingIndex(0.0805));
+        assertEquals(10, series.ceilingIndex(0.1));
+        assertEquals(-1, series.ceilingIndex(0.105));
+        assertEquals(7, series.removeBefore(0.065));
+        assertEquals(List.of(7.0, 8.0, 9.0, 10.0), series.values());
+    }
+
+    @Test
+    void testRemoveRange_middleRowsSwitchToExplicitKeys() {
+        var series = DoubleSeries.of(List.of(0.0, 0.1, 0.2, 0.3), List.of(1.0, 2.0, 3.0, 4.0));
+        series.setTimeAxis(new TimeAxis(0.1, 1.0));
+
+        series.removeRange(1, 3);
+
+        assertFalse(series.isTickIndexed());
+        assertEquals(List.of(0.0, 0.3), series.keys());
+        assertEquals(List.of(1.0, 4.0), series.values());
+        assertEquals(1, series.ceilingIndex(0.1));
+        assertThrows(IndexOutOfBoundsException.class, () -> series.removeRange(1, 3));
+    }
+
+    @Test
+    void testOf_nullMapCreatesEmptySeries() {
+        assertTrue(DoubleSeries.of(null).isEmpty());
+    }
+}
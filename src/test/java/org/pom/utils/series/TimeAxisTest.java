@@ -0,0 +1,57 @@
+package org.pom.utils.series;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeAxisTest {
+
+    @Test
+    void testTauAt_equalsParsedDecimalTau() {
+        var timeAxis = new TimeAxis(0.01, 1.0);
+        for (int tick = 0; tick < timeAxis.size(); tick++) {
+            var tau = Double.parseDouble(String.format(Locale.US, "%.2f", tick / 100.0));
+            assertEquals(tau, timeAxis.tauAt(tick));
+            assertEquals(tick, timeAxis.tickOf(tau));
+        }
+        assertEquals(101, timeAxis.size());
+    }
+
+    @Test
+    void testTickOf_offGridTau() {
+        var timeAxis = new TimeAxis(0.1, 1.0);
+
+        assertEquals(-1, timeAxis.tickOf(0.15));
+        assertEquals(-1, timeAxis.tickOf(-0.1));
+        assertEquals(-1, timeAxis.tickOf(0.1 + 0.2));
+    }
+
+    @Test
+    void testCeilingTick() {
+        var timeAxis = new TimeAxis(0.1, 1.0);
+
+        assertEquals(2, timeAxis.ceilingTick(0.15));
+        assertEquals(3, timeAxis.ceilingTick(0.3));
+        assertEquals(4, timeAxis.ceilingTick(0.1 + 0.2));
+        assertEquals(0, timeAxis.ceilingTick(-1.0));
+        assertEquals(10, timeAxis.ceilingTick(1.0));
+    }
+
+    @Test
+    void testCeilingTick_afterTheGrid() {
+        var timeAxis = new TimeAxis(0.1, 1.0);
+
+        assertEquals(11, timeAxis.ceilingTick(1.05));
+        assertEquals(13, timeAxis.ceilingTick(1.25));
+        assertEquals(Integer.MAX_VALUE, timeAxis.ceilingTick(1.0e12));
+        assertEquals(Integer.MAX_VALUE, timeAxis.ceilingTick(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testConstructor_invalidDeltaTau() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeAxis(0.0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new TimeAxis(0.1, -1.0));
+    }
+}